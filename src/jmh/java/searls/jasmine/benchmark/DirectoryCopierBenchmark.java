@@ -0,0 +1,70 @@
+package searls.jasmine.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import searls.jasmine.io.CopyResult;
+import searls.jasmine.io.CopyStrategy;
+import searls.jasmine.io.DirectoryCopier;
+
+/**
+ * Copying a large tree of scripts into the target directory, fully and incrementally (with nothing changed).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DirectoryCopierBenchmark {
+
+	private static final String JS_EXT = ".js";
+
+	@Param({ "1000", "10000" })
+	public int fileCount;
+
+	@Param({ "stream", "channel" })
+	public String copyStrategy;
+
+	private DirectoryCopier directoryCopier = new DirectoryCopier();
+	private File root;
+	private File srcDir;
+	private File destDir;
+	private File manifest;
+
+	@Setup(Level.Trial)
+	public void createScripts() throws IOException {
+		root = SyntheticScripts.createTempDirectory("copierBenchmark");
+		srcDir = new File(root, "src");
+		destDir = new File(root, "dest");
+		manifest = new File(root, "manifest.properties");
+		SyntheticScripts.write(srcDir, "source", fileCount);
+		directoryCopier.copyDirectoryIncrementally(srcDir, destDir, JS_EXT, manifest, false, CopyStrategy.forName(copyStrategy));
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteScripts() {
+		FileUtils.deleteQuietly(root);
+	}
+
+	@Benchmark
+	public void copyDirectory() throws IOException {
+		directoryCopier.copyDirectory(srcDir, destDir, JS_EXT, CopyStrategy.forName(copyStrategy));
+	}
+
+	@Benchmark
+	public CopyResult copyDirectoryIncrementallyWithoutChanges() throws IOException {
+		return directoryCopier.copyDirectoryIncrementally(srcDir, destDir, JS_EXT, manifest, false, CopyStrategy.forName(copyStrategy));
+	}
+
+}
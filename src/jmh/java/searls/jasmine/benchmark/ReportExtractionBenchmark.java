@@ -0,0 +1,104 @@
+package searls.jasmine.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import searls.jasmine.format.JasmineReportFormatter;
+import searls.jasmine.format.JunitXmlReportWriter;
+import searls.jasmine.model.JasmineReport;
+import searls.jasmine.runner.JsApiReporterReader;
+import searls.jasmine.runner.WebClientFactory;
+
+import com.gargoylesoftware.htmlunit.MockWebConnection;
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+
+/**
+ * Getting results out of a finished runner: reading a synthetic JsApiReporter of growing size, and turning
+ * the report into console output and JUnit XML. (These replaced the old buildReport.js, buildConclusion.js
+ * and createJunitXml.js scripts.)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReportExtractionBenchmark {
+
+	private static final int SPECS_PER_SUITE = 10;
+	private static final int EVERY_NTH_SPEC_FAILS = 7;
+
+	@Param({ "100", "1000", "10000" })
+	public int specCount;
+
+	private WebClient webClient;
+	private HtmlPage page;
+	private JasmineReport report;
+	private File junitXmlReport;
+	private final JsApiReporterReader reader = new JsApiReporterReader();
+
+	@Setup(Level.Trial)
+	public void loadReporter() throws IOException {
+		MockWebConnection webConnection = new MockWebConnection();
+		webConnection.setDefaultResponse("<html><head><script type=\"text/javascript\">"+syntheticReporterScript()+"</script></head><body></body></html>");
+		webClient = new WebClientFactory().create("FIREFOX_3");
+		webClient.setWebConnection(webConnection);
+		page = webClient.getPage("http://localhost/SpecRunner.html");
+		report = reader.read(page);
+		junitXmlReport = File.createTempFile("TEST-jasmine", ".xml");
+	}
+
+	@TearDown(Level.Trial)
+	public void closeWebClient() {
+		webClient.closeAllWindows();
+		FileUtils.deleteQuietly(junitXmlReport);
+	}
+
+	@Benchmark
+	public JasmineReport readReporter() {
+		return reader.read(page);
+	}
+
+	@Benchmark
+	public String formatReport() {
+		return new JasmineReportFormatter().format(report);
+	}
+
+	@Benchmark
+	public void writeJunitXml() throws IOException {
+		new JunitXmlReportWriter().write(report, junitXmlReport);
+	}
+
+	/**
+	 * A stand-in for a finished JsApiReporter (and timingReporter.js) with specCount specs in suites of SPECS_PER_SUITE.
+	 */
+	private String syntheticReporterScript() {
+		return "var reporter = (function(specCount) {\n"
+			+ "  var suites = [], results = {}, timings = { runnerStarted: 0, runnerFinished: specCount, specs: {} };\n"
+			+ "  for (var s = 0; s * "+SPECS_PER_SUITE+" < specCount; s++) {\n"
+			+ "    var suite = { id: s, name: 'suite ' + s, type: 'suite', children: [] };\n"
+			+ "    for (var id = s * "+SPECS_PER_SUITE+"; id < Math.min(specCount, (s + 1) * "+SPECS_PER_SUITE+"); id++) {\n"
+			+ "      var failed = id % "+EVERY_NTH_SPEC_FAILS+" == 0;\n"
+			+ "      suite.children.push({ id: id, name: 'spec ' + id, type: 'spec', children: [] });\n"
+			+ "      results[id] = { result: failed ? 'failed' : 'passed', messages: failed ? [{ message: 'Expected ' + id + ' to be 0.', type: 'ExpectationResult', matcherName: 'toBe' }] : [] };\n"
+			+ "      timings.specs[id] = [id, id + 1];\n"
+			+ "    }\n"
+			+ "    suites.push(suite);\n"
+			+ "  }\n"
+			+ "  jasmineMavenPluginTimings = timings;\n"
+			+ "  return { suites: function() { return suites; }, results: function() { return results; } };\n"
+			+ "})("+specCount+");\n";
+	}
+
+}
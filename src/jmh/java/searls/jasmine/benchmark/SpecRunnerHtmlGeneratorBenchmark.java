@@ -0,0 +1,59 @@
+package searls.jasmine.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.NullWriter;
+import org.apache.maven.artifact.Artifact;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import searls.jasmine.runner.ReporterType;
+import searls.jasmine.runner.SpecRunnerHtmlGenerator;
+
+/**
+ * Generating a runner for a tree of sources and specs: scanning both directories and writing a script tag per file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SpecRunnerHtmlGeneratorBenchmark {
+
+	@Param({ "1000", "5000", "25000" })
+	public int fileCount;
+
+	private File root;
+	private SpecRunnerHtmlGenerator generator;
+	private final Writer out = new NullWriter();
+
+	@Setup(Level.Trial)
+	public void createScripts() throws IOException {
+		root = SyntheticScripts.createTempDirectory("generatorBenchmark");
+		SyntheticScripts.write(new File(root, "src"), "source", fileCount / 2);
+		SyntheticScripts.write(new File(root, "spec"), "spec", fileCount / 2);
+		generator = new SpecRunnerHtmlGenerator(new File(root, "src"), new File(root, "spec"), null, "UTF-8", "**/*.js", null);
+	}
+
+	@TearDown(Level.Trial)
+	public void deleteScripts() {
+		FileUtils.deleteQuietly(root);
+	}
+
+	@Benchmark
+	public void generate() throws IOException {
+		generator.generate(new ArrayList<Artifact>(), ReporterType.JsApiReporter, null, null, out);
+	}
+
+}
@@ -0,0 +1,32 @@
+package searls.jasmine.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Writes trees of small, synthetic scripts for the benchmarks to chew on.
+ */
+public class SyntheticScripts {
+
+	private static final int FILES_PER_DIRECTORY = 50;
+
+	public static File createTempDirectory(String prefix) throws IOException {
+		File directory = File.createTempFile(prefix, "");
+		directory.delete();
+		FileUtils.forceMkdir(directory);
+		return directory;
+	}
+
+	/**
+	 * Writes fileCount scripts into directory, FILES_PER_DIRECTORY to a subdirectory.
+	 */
+	public static void write(File directory, String prefix, int fileCount) throws IOException {
+		for (int i = 0; i < fileCount; i++) {
+			File script = new File(directory, "module"+(i / FILES_PER_DIRECTORY)+"/"+prefix+i+".js");
+			FileUtils.writeStringToFile(script, "var "+prefix+i+" = function() {\n\treturn "+i+";\n};\n", "UTF-8");
+		}
+	}
+
+}
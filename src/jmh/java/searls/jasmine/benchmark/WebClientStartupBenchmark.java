@@ -0,0 +1,51 @@
+package searls.jasmine.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import searls.jasmine.runner.WebClientFactory;
+
+import com.gargoylesoftware.htmlunit.MockWebConnection;
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+
+/**
+ * What every spec run pays before the first script runs: creating a WebClient and loading a page into it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class WebClientStartupBenchmark {
+
+	private static final String PAGE = "<html><head><script type=\"text/javascript\">var started = true;</script></head><body></body></html>";
+
+	private final WebClientFactory webClientFactory = new WebClientFactory();
+
+	@Benchmark
+	public WebClient createWebClient() {
+		WebClient webClient = webClientFactory.create("FIREFOX_3");
+		webClient.closeAllWindows();
+		return webClient;
+	}
+
+	@Benchmark
+	public HtmlPage createWebClientAndLoadPage() throws IOException {
+		WebClient webClient = webClientFactory.create("FIREFOX_3");
+		try {
+			MockWebConnection webConnection = new MockWebConnection();
+			webConnection.setDefaultResponse(PAGE);
+			webClient.setWebConnection(webConnection);
+			return webClient.getPage("http://localhost/SpecRunner.html");
+		} finally {
+			webClient.closeAllWindows();
+		}
+	}
+
+}
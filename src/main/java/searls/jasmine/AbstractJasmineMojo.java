@@ -1,14 +1,25 @@
 package searls.jasmine;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.Date;
 import java.util.List;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.project.MavenProject;
 
+import searls.jasmine.io.CopyResult;
+import searls.jasmine.io.CopyStrategy;
+import searls.jasmine.io.DirectoryCopier;
+import searls.jasmine.metrics.BuildMetrics;
+import searls.jasmine.metrics.PhaseMetrics;
+
 public abstract class AbstractJasmineMojo extends AbstractMojo {
 
+	protected static final String JS_EXT = ".js";
+	private static final String COPY_MANIFEST_SUFFIX = "-copy-manifest.properties";
+
 	/** Properties in order of most-to-least interesting for client projects to override **/
 	
 	/**
@@ -101,6 +112,303 @@ public abstract class AbstractJasmineMojo extends AbstractMojo {
 	 */
 	protected boolean haltOnFailure;
 	
+	/**
+	 * Maximum number of seconds to wait for the specs to finish executing before the run is aborted.
+	 * 
+	 * @parameter default-value="300" expression="${jasmine.timeout}"
+	 */
+	protected int timeout;
+	
+	/**
+	 * Number of seconds after which the run is aborted (rather than waiting out `timeout`) when Jasmine hasn't
+	 * 	started running the specs. Once the specs are running, only `timeout` applies. Either way, the error
+	 * 	message names the script and line of the first script error.
+	 * 
+	 * @parameter default-value="10" expression="${jasmine.stallTimeout}"
+	 */
+	protected int stallTimeout;
+	
+	/**
+	 * Runs timers (setTimeout, setInterval, and so Jasmine's waits() and waitsFor()) on a virtual clock that
+	 * 	jumps straight to the next timer whenever no script is running, so specs that mostly wait finish in a
+	 * 	fraction of the time. Timers still fire in the same order. Date isn't affected, so don't use this for
+	 * 	specs that measure elapsed time with it.
+	 * 
+	 * @parameter default-value="false" expression="${jasmine.virtualClock}"
+	 */
+	protected boolean virtualClock;
+	
+	/**
+	 * Stops executing specs once `failFastAfter` of them have failed, and reports the remaining specs as
+	 * 	skipped, so a broken build is reported in seconds rather than after the whole suite. Specs that run
+	 * 	before the runner page has finished loading (normally well under a second's worth) aren't stopped,
+	 * 	unless `synchronousRunner` is enabled.
+	 * 	When `parallel` is enabled, each shard stops on its own failures.
+	 * 
+	 * @parameter default-value="false" expression="${jasmine.failFast}"
+	 */
+	protected boolean failFast;
+	
+	/**
+	 * The number of failed specs after which `failFast` stops executing specs.
+	 * 
+	 * @parameter default-value="1" expression="${jasmine.failFastAfter}"
+	 */
+	protected int failFastAfter;
+	
+	/**
+	 * Generates a runner that doesn't yield to the event loop between specs (Jasmine normally does every 
+	 * 	250ms, so a browser can repaint), and so runs all synchronous specs in one pass. Only asynchronous 
+	 * 	specs (waits, waitsFor and the timers they wait on) still go through HtmlUnit's timer queue. Leave this 
+	 * 	off if specs rely on timers firing in between them.
+	 * 
+	 * @parameter default-value="false" expression="${jasmine.synchronousRunner}"
+	 */
+	protected boolean synchronousRunner;
+	
+	/**
+	 * How many of the slowest specs and suites to list after the results. 0 lists none.
+	 * 
+	 * @parameter default-value="10" expression="${jasmine.slowestSpecs}"
+	 */
+	protected int slowestSpecs;
+	
+	/**
+	 * Where to append the durations of every spec, suite and spec file after each run, one tab-separated line
+	 * 	each (build timestamp, "spec", "suite" or "file", milliseconds, full name or path in the spec directory), 
+	 * 	so that trends across builds can be queried and parallel shards balanced. Spec file durations are only
+	 * 	recorded while shards are balanced by duration (see shardStrategy and shardSelection), since that takes
+	 * 	a marker script before each spec file. Point it outside the build directory (e.g. at a location shared
+	 * 	by CI agents) to keep it across clean builds.
+	 * 
+	 * @parameter default-value="${project.build.directory}${file.separator}jasmine${file.separator}timing-history.tsv" expression="${jasmine.timingHistoryFile}"
+	 */
+	protected File timingHistoryFile;
+	
+	/**
+	 * How many builds' timings timingHistoryFile keeps. 0 stops recording them.
+	 * 
+	 * @parameter default-value="20" expression="${jasmine.timingHistoryBuilds}"
+	 */
+	protected int timingHistoryBuilds;
+	
+	/**
+	 * Skips launching HtmlUnit when nothing that can affect the outcome of the specs has changed since
+	 * 	a previous run: the scripts in ${jsSrcDir} and ${jsTestSrcDir}, preloadSources, include/exclude, 
+	 * 	the plugin's version, runner templates and js/css dependencies, customRunnerTemplate, browserVersion
+	 * 	and the settings that change how specs run (timeouts, failFast, virtualClock, synchronousRunner, 
+	 * 	affectedSpecsOnly, shards) are hashed into a key, and the stored result and JUnit XML report for that 
+	 * 	key are replayed instead.
+	 * 
+	 * @parameter default-value="false" expression="${jasmine.useResultCache}"
+	 */
+	protected boolean useResultCache;
+	
+	/**
+	 * Where `useResultCache` stores results. Keep this outside of ${project.build.directory} so that it
+	 * 	survives `mvn clean`.
+	 * 
+	 * @parameter default-value="${user.home}${file.separator}.jasmine-maven-plugin${file.separator}result-cache" expression="${jasmine.resultCacheDirectory}"
+	 */
+	protected File resultCacheDirectory;
+	
+	/**
+	 * How many results `useResultCache` keeps in resultCacheDirectory. Once there are more, the least
+	 * 	recently used ones are deleted. 0 keeps every result.
+	 * 
+	 * @parameter default-value="50" expression="${jasmine.resultCacheMaxEntries}"
+	 */
+	protected int resultCacheMaxEntries;
+	
+	/**
+	 * Only runs the spec files affected by what changed in ${jasmineTargetDir} since the previous run. Which
+	 * 	sources each spec depends on is found by scanning the scripts for the global symbols they declare and
+	 * 	refer to, and is remembered (with a fingerprint of every script) in ${jasmineTargetDir}. Specs that failed
+	 * 	keep running until they pass. Sources that don't declare any recognizable globals are treated as
+	 * 	dependencies of every spec.
+	 * 
+	 * @parameter default-value="false" expression="${jasmine.affectedSpecsOnly}"
+	 */
+	protected boolean affectedSpecsOnly;
+	
+	/**
+	 * Runs every spec, even when affectedSpecsOnly is set (e.g. -Djasmine.fullRun on a CI server).
+	 * 
+	 * @parameter default-value="false" expression="${jasmine.fullRun}"
+	 */
+	protected boolean fullRun;
+	
+	/**
+	 * Keeps warm HtmlUnit WebClients in a JVM-wide pool (one per browser version) and reuses them
+	 * 	across executions in the same Maven session, e.g. for every module of a reactor build.
+	 * 
+	 * @parameter default-value="false" expression="${jasmine.reuseWebClients}"
+	 */
+	protected boolean reuseWebClients;
+	
+	/**
+	 * When `reuseWebClients` is enabled, the number of spec runs after which a pooled WebClient is discarded.
+	 * 
+	 * @parameter default-value="25" expression="${jasmine.webClientMaxUses}"
+	 */
+	protected int webClientMaxUses;
+	
+	/**
+	 * When `reuseWebClients` is enabled, pooled WebClients are discarded once the used heap exceeds
+	 * 	this percentage of the maximum heap.
+	 * 
+	 * @parameter default-value="75" expression="${jasmine.webClientMaxHeapPercent}"
+	 */
+	protected int webClientMaxHeapPercent;
+	
+	/**
+	 * Compiles the plugin's own JavaScript dependencies (jasmine.js, json2.js, ...) only once per JVM
+	 * 	and reuses the compiled scripts for every spec runner. Run with -X to see the compile and reuse timings.
+	 * 
+	 * @parameter default-value="true" expression="${jasmine.cachePluginScripts}"
+	 */
+	protected boolean cachePluginScripts;
+	
+	/**
+	 * Loads the JavaScript sources and specs in ${jasmineTargetDir} into memory once, and serves them and
+	 * 	the spec runner to HtmlUnit from there (on a virtual http host) instead of from file: URLs.
+	 * 	The spec runner HTML isn't written to ${jasmineTargetDir} in this mode.
+	 * 
+	 * @parameter default-value="false" expression="${jasmine.inMemoryRunner}"
+	 */
+	protected boolean inMemoryRunner;
+	
+	/**
+	 * Concatenates the preload sources, sources and specs (in the order they'd be loaded) into a few chunk
+	 * 	files under ${jasmineTargetDir}/bundles, so the runner loads a handful of scripts instead of one per
+	 * 	file. Failure messages that point into a chunk are translated back to the original file and line.
+	 * 	A script error stops the rest of its chunk from loading, so turn this off to pin down syntax errors.
+	 * 
+	 * @parameter default-value="false" expression="${jasmine.bundleScripts}"
+	 */
+	protected boolean bundleScripts;
+	
+	/**
+	 * Size (in kilobytes) after which bundleScripts starts a new chunk.
+	 * 
+	 * @parameter default-value="1024" expression="${jasmine.bundleChunkKilobytes}"
+	 */
+	protected int bundleChunkKilobytes;
+	
+	/**
+	 * Splits the spec files into shards and executes them concurrently, each shard getting its own
+	 * 	spec runner and HtmlUnit WebClient. Results and JUnit XML reports are merged into one report.
+	 * 	Only use this when your spec files don't depend on one another.
+	 * 
+	 * @parameter default-value="false" expression="${jasmine.parallel}"
+	 */
+	protected boolean parallel;
+	
+	/**
+	 * Number of shards to split the specs into when `parallel` is enabled. Defaults to the number of
+	 * 	available processors.
+	 * 
+	 * @parameter expression="${jasmine.parallelShards}"
+	 */
+	protected int parallelShards;
+	
+	/**
+	 * How `parallel` splits spec files into shards. One of:
+	 * 
+	 * 	duration - balance the shards by each file's duration in timingHistoryFile (longest first, onto the 
+	 * 		least loaded shard), estimating files without one from their size (the default)
+	 * 	roundRobin - deal the files out in turn, so each shard gets the same number of files
+	 * 
+	 * @parameter default-value="duration" expression="${jasmine.shardStrategy}"
+	 */
+	protected String shardStrategy;
+	
+	/**
+	 * Which of `shardCount` shards of the spec files to execute, from 0, when a build's specs are split across
+	 * 	several machines (e.g. -Djasmine.shardIndex=$CIRCLE_NODE_INDEX). Each machine's results can then be
+	 * 	combined with jasmine:merge.
+	 * 
+	 * @parameter default-value="0" expression="${jasmine.shardIndex}"
+	 */
+	protected int shardIndex;
+	
+	/**
+	 * How many shards the spec files are split into across machines. 1 executes them all. jasmine:merge fails
+	 * 	when it finds fewer results than this.
+	 * 
+	 * @parameter default-value="1" expression="${jasmine.shardCount}"
+	 */
+	protected int shardCount;
+	
+	/**
+	 * How each machine picks its shard of the spec files when `shardCount` is more than 1. One of:
+	 * 
+	 * 	hash - by a hash of each file's path in the spec directory, so adding or removing a file never moves
+	 * 		another file to a different shard (the default)
+	 * 	duration - balance the shards by the durations in timingHistoryFile, as `shardStrategy` does. Every machine
+	 * 		must read the same durations (e.g. a copy of the file restored before the build, that no machine 
+	 * 		writes to while the others are starting), or some spec files may be executed twice or not at all.
+	 * 
+	 * @parameter default-value="hash" expression="${jasmine.shardSelection}"
+	 */
+	protected String shardSelection;
+	
+	/**
+	 * Where jasmine:merge looks for the results of each shard: every `resultFileName` and `junitXmlReportFileName` 
+	 * 	below this directory (e.g. each machine's ${jasmineTargetDir}, downloaded into a subdirectory of its own).
+	 * 
+	 * @parameter default-value="${project.build.directory}${file.separator}jasmine-shards" expression="${jasmine.shardResultsDirectory}"
+	 */
+	protected File shardResultsDirectory;
+	
+	
+	/**
+	 * Only copy JavaScript sources and specs into ${jasmineTargetDir} when they're new or have changed
+	 * 	(by size and modification time) since the last build, and delete copies whose source was removed.
+	 * 	What was copied is tracked in a manifest file in ${jasmineTargetDir}.
+	 * 
+	 * @parameter default-value="true" expression="${jasmine.incrementalCopy}"
+	 */
+	protected boolean incrementalCopy;
+	
+	/**
+	 * When `incrementalCopy` is enabled, files whose size or modification time changed are also compared
+	 * 	by content hash, so that touched-but-identical files (e.g. after a checkout) aren't copied again.
+	 * 
+	 * @parameter default-value="false" expression="${jasmine.incrementalCopyComparesContent}"
+	 */
+	protected boolean incrementalCopyComparesContent;
+	
+	/**
+	 * How JavaScript files are copied into ${jasmineTargetDir}/${srcDirectoryName}, ${jasmineTargetDir}/${specDirectoryName}
+	 * 	and the package directory. One of:
+	 * 
+	 * 	stream - copy through stream buffers (the default)
+	 * 	channel - copy with NIO FileChannel.transferTo, avoiding copying the bytes through the JVM
+	 * 	link - hard-link (or, failing that, symlink) the files when source and target share a file system,
+	 * 		falling back to channel. Anything that modifies the linked files in place will modify your sources!
+	 * 
+	 * @parameter default-value="stream" expression="${jasmine.copyStrategy}"
+	 */
+	protected String copyStrategy;
+	
+	/**
+	 * Records the wall time, CPU time and allocated bytes of each phase of every goal (copying, generating 
+	 * 	runners, loading them, running specs, reading results and writing reports), logs a summary line and 
+	 * 	writes them to ${jasmineTargetDir}/${metricsFileName}.
+	 * 
+	 * @parameter default-value="true" expression="${jasmine.metrics}"
+	 */
+	protected boolean metrics;
+	
+	/**
+	 * Also writes the phase metrics to this file, in the Prometheus text format, e.g. into the directory of 
+	 * 	node-exporter's textfile collector (whose files need to end in .prom). Modules of a reactor build that
+	 * 	share the file all appear in it, labelled by project.
+	 * 
+	 * @parameter expression="${jasmine.prometheusMetricsFile}"
+	 */
+	protected File prometheusMetricsFile;
 	
 	/**
 	 * @parameter default-value="${project.build.directory}${file.separator}${project.build.finalName}"
@@ -122,6 +430,16 @@ public abstract class AbstractJasmineMojo extends AbstractMojo {
 	 */
 	protected String junitXmlReportFileName;
 	
+	/**
+	 * @parameter default-value="jasmine-result.bin"
+	 */
+	protected String resultFileName;
+	
+	/**
+	 * @parameter default-value="jasmine-metrics.json"
+	 */
+	protected String metricsFileName;
+	
 	/**
 	 * @parameter default-value="spec"
 	 */
@@ -146,4 +464,71 @@ public abstract class AbstractJasmineMojo extends AbstractMojo {
 	 * @parameter default-value="${plugin.artifacts}"
 	 */
 	protected List<Artifact> pluginArtifacts;
+	
+	/**
+	 * @parameter default-value="${plugin.version}"
+	 * @readonly
+	 */
+	protected String pluginVersion;
+	
+	/**
+	 * Tells Maven sessions apart in JVMs that outlive them (mvnd, embedded Maven, IDEs), so the WebClient
+	 * 	pool is torn down with the session that filled it.
+	 * 
+	 * @parameter default-value="${session.startTime}"
+	 * @readonly
+	 */
+	protected Date sessionStartTime;
+
+	protected PhaseMetrics phaseMetrics = new PhaseMetrics();
+	protected DirectoryCopier directoryCopier = new DirectoryCopier();
+
+	/**
+	 * Records this goal's phase metrics alongside those of the other goals run in this build, writes them all
+	 * 	out and logs this goal's. Failing to write them only warrants a warning.
+	 */
+	protected void writePhaseMetrics(String goal) {
+		if(!metrics) {
+			return;
+		}
+		BuildMetrics build = BuildMetrics.forDirectory(jasmineTargetDir);
+		build.record(goal, phaseMetrics);
+		getLog().info(build.summarize(goal));
+		String project = mavenProject != null ? mavenProject.getGroupId()+":"+mavenProject.getArtifactId() : null;
+		try {
+			build.writeJson(new File(jasmineTargetDir,metricsFileName), project);
+			if(prometheusMetricsFile != null) {
+				build.writePrometheus(prometheusMetricsFile, project);
+			}
+		} catch (IOException e) {
+			getLog().warn("Failed to write phase metrics: "+e.getMessage());
+		}
+	}
+
+	/**
+	 * Copies the JavaScript in srcDir to ${jasmineTargetDir}/destDirectoryName, incrementally when
+	 * 	incrementalCopy is set, timed as the "copy" phase.
+	 */
+	protected void copyJavaScript(File srcDir, String destDirectoryName) throws IOException {
+		PhaseMetrics.Timer copy = phaseMetrics.start("copy");
+		if(incrementalCopy) {
+			getLog().info(copyJavaScriptIncrementally(srcDir, destDirectoryName).toString());
+		} else {
+			directoryCopier.copyDirectory(srcDir, new File(jasmineTargetDir,destDirectoryName), JS_EXT, CopyStrategy.forName(copyStrategy));
+		}
+		copy.stop();
+	}
+
+	protected CopyResult copyJavaScriptIncrementally(File srcDir, String destDirectoryName) throws IOException {
+		return directoryCopier.copyDirectoryIncrementally(srcDir, new File(jasmineTargetDir,destDirectoryName), JS_EXT,
+				copyManifestFor(destDirectoryName), incrementalCopyComparesContent, CopyStrategy.forName(copyStrategy));
+	}
+
+	/**
+	 * @return the manifest recording what was copied to ${jasmineTargetDir}/destDirectoryName
+	 */
+	protected File copyManifestFor(String destDirectoryName) {
+		return new File(jasmineTargetDir,"."+destDirectoryName+COPY_MANIFEST_SUFFIX);
+	}
+
 }
@@ -8,6 +8,7 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 
+import searls.jasmine.metrics.PhaseMetrics;
 import searls.jasmine.runner.ReporterType;
 import searls.jasmine.runner.SpecRunnerHtmlGenerator;
 
@@ -21,10 +22,14 @@ public class GenerateManualRunnerMojo extends AbstractJasmineMojo {
 	public void execute() throws MojoExecutionException, MojoFailureException {
 		if(jsSrcDir.exists() && jsTestSrcDir.exists()) {
 			getLog().info("Generating runner '"+manualSpecRunnerHtmlFileName+"' in the Jasmine plugin's target directory to open in a browser to facilitate faster feedback.");
+			PhaseMetrics.Timer generate = phaseMetrics.start("generate");
 			try {
 				writeSpecRunnerToSourceSpecDirectory();
+				generate.stop();
 			} catch (Exception e) {
 				throw new MojoFailureException(e,"JavaScript Test execution failed.","Failed to generate "+manualSpecRunnerHtmlFileName);
+			} finally {
+				writePhaseMetrics("generateManualRunner");
 			}
 		} else {
 			getLog().warn("Skipping manual spec runner generation. Check to make sure that both JavaScript directories `"+jsSrcDir.getAbsolutePath()+"` and `"+jsTestSrcDir.getAbsolutePath()+"` exist.");
@@ -0,0 +1,104 @@
+package searls.jasmine;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.filefilter.NameFileFilter;
+import org.apache.commons.io.filefilter.TrueFileFilter;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+
+import searls.jasmine.format.JasmineResultFile;
+import searls.jasmine.format.JasmineResultLogger;
+import searls.jasmine.format.JunitXmlReportMerger;
+import searls.jasmine.metrics.PhaseMetrics;
+import searls.jasmine.model.JasmineResult;
+
+/**
+ * Merges the results of the shards a build's specs were split into across machines (see shardIndex and
+ * shardCount), found below ${shardResultsDirectory}, into one result and one JUnit XML report in
+ * ${jasmineTargetDir}, and fails the build if any shard had spec failures.
+ *
+ * @component
+ * @goal merge
+ */
+public class MergeMojo extends AbstractJasmineMojo {
+
+	public void execute() throws MojoExecutionException, MojoFailureException {
+		File mergedResult = new File(jasmineTargetDir,resultFileName);
+		File mergedJunitXmlReport = new File(jasmineTargetDir,junitXmlReportFileName);
+		List<File> results = findShardFiles(resultFileName, mergedResult);
+		List<File> junitXmlReports = findShardFiles(junitXmlReportFileName, mergedJunitXmlReport);
+		if(results.size() < Math.max(shardCount, 1)) {
+			throw new MojoExecutionException("Found "+results.size()+" shard results ("+resultFileName+") below "+shardResultsDirectory+
+					", but expected "+Math.max(shardCount, 1)+". A shard may have failed before recording its results.");
+		}
+
+		getLog().info("Merging the results of "+results.size()+" shards from "+shardResultsDirectory);
+		JasmineResult result;
+		PhaseMetrics.Timer merge = phaseMetrics.start("merge");
+		try {
+			result = new JasmineResultFile().merge(results, mergedResult);
+			if(!junitXmlReports.isEmpty()) {
+				new JunitXmlReportMerger().merge(junitXmlReports, mergedJunitXmlReport);
+			}
+			merge.stop();
+		} catch (Exception e) {
+			throw new MojoExecutionException(e,"There was a problem merging Jasmine shard results",e.getMessage());
+		} finally {
+			writePhaseMetrics("merge");
+		}
+
+		JasmineResultLogger resultLogger = new JasmineResultLogger();
+		resultLogger.setLog(getLog());
+		resultLogger.log(result, shardDetails(results));
+		if(haltOnFailure && !result.didPass()) {
+			throw new MojoFailureException("There were Jasmine spec failures.");
+		}
+	}
+
+	/**
+	 * @return the files with the given name below ${shardResultsDirectory}, other than merged, in path order
+	 */
+	private List<File> findShardFiles(String name, File merged) {
+		List<File> files = new ArrayList<File>();
+		if(!shardResultsDirectory.isDirectory()) {
+			return files;
+		}
+		for (File file : FileUtils.listFiles(shardResultsDirectory, new NameFileFilter(name), TrueFileFilter.INSTANCE)) {
+			if(!file.getAbsoluteFile().equals(merged.getAbsoluteFile())) {
+				files.add(file);
+			}
+		}
+		Collections.sort(files);
+		return files;
+	}
+
+	private Iterator<String> shardDetails(final List<File> results) {
+		final Iterator<File> files = results.iterator();
+		return new Iterator<String>() {
+			public boolean hasNext() {
+				return files.hasNext();
+			}
+
+			public String next() {
+				File file = files.next();
+				try {
+					return new JasmineResultFile().readDetails(file);
+				} catch (IOException e) {
+					return "Failed to read the details of "+file+": "+e.getMessage();
+				}
+			}
+
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+}
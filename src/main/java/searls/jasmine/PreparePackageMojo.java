@@ -5,7 +5,9 @@ import java.io.IOException;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
-import org.codehaus.plexus.util.FileUtils;
+
+import searls.jasmine.io.CopyStrategy;
+import searls.jasmine.metrics.PhaseMetrics;
 
 /**
  * @goal preparePackage
@@ -13,14 +15,20 @@ import org.codehaus.plexus.util.FileUtils;
  */
 public class PreparePackageMojo extends AbstractJasmineMojo {
 	
+	private static final String ALL_FILES = "";
+	
 	public void execute() throws MojoExecutionException, MojoFailureException {
 		File targetSrcDir = new File(jasmineTargetDir,srcDirectoryName);
 		if(targetSrcDir.exists()) {
 			getLog().info("Copying processed JavaScript sources into package");
+			PhaseMetrics.Timer copy = phaseMetrics.start("copy");
 			try {
-				FileUtils.copyDirectoryStructure(targetSrcDir, new File(packageDir,packageJavaScriptPath));
+				directoryCopier.copyDirectory(targetSrcDir, new File(packageDir,packageJavaScriptPath), ALL_FILES, CopyStrategy.forName(copyStrategy));
+				copy.stop();
 			} catch (IOException e) {
 				throw new MojoFailureException("Failed to copy processed JavaScript sources into package directory");
+			} finally {
+				writePhaseMetrics("preparePackage");
 			}
 		} else {
 			getLog().warn("Expected processed JavaScript source files in ${jasmineTargetDir}/${srcDirectoryName}, but directory wasn't found. " +
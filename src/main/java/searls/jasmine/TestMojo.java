@@ -1,17 +1,49 @@
 package searls.jasmine;
 
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.codehaus.plexus.util.StringUtils;
 
+import searls.jasmine.affected.SpecDependencyGraph;
+import searls.jasmine.cache.CacheKeyBuilder;
+import searls.jasmine.cache.TestResultCache;
+import searls.jasmine.format.JasmineResultFile;
 import searls.jasmine.format.JasmineResultLogger;
+import searls.jasmine.history.TimingHistory;
+import searls.jasmine.metrics.PhaseMetrics;
 import searls.jasmine.model.JasmineResult;
+import searls.jasmine.runner.CompiledScriptCache;
+import searls.jasmine.runner.ParallelSpecRunnerExecutor;
 import searls.jasmine.runner.ReporterType;
+import searls.jasmine.runner.ScriptBundler;
+import searls.jasmine.runner.ShardScheduler;
+import searls.jasmine.runner.ShardSelector;
+import searls.jasmine.runner.SpecFilePartitioner;
 import searls.jasmine.runner.SpecRunnerExecutor;
 import searls.jasmine.runner.SpecRunnerHtmlGenerator;
+import searls.jasmine.runner.VirtualHost;
+import searls.jasmine.runner.WebClientPool;
 
 /**
  * @component
@@ -20,17 +52,36 @@ import searls.jasmine.runner.SpecRunnerHtmlGenerator;
  */
 public class TestMojo extends AbstractJasmineMojo {
 
+	private static final String SHARD_DIRECTORY_NAME = "shards";
+	private static final String JAVASCRIPT_TYPE = "js";
+	private static final String CSS_TYPE = "css";
+	private static final String BUNDLE_DIRECTORY_NAME = "bundles";
+	private static final String SPEC_DEPENDENCY_GRAPH_FILE_NAME = ".spec-dependency-graph.properties";
+	private static final String SHARD_STRATEGY_DURATION = "duration";
+	private static final String SHARD_STRATEGY_ROUND_ROBIN = "roundRobin";
+
+	private VirtualHost virtualHost;
+	private ScriptBundler scriptBundler;
+
 	public void execute() throws MojoExecutionException, MojoFailureException {
 		if(!skipTests) {
 			getLog().info("Executing Jasmine Tests");
 			JasmineResult result;
 			try {
-				File runnerFile = writeSpecRunnerToOutputDirectory();
-				result = new SpecRunnerExecutor().execute(runnerFile.toURI().toURL(), new File(jasmineTargetDir,junitXmlReportFileName), browserVersion);
+				result = useResultCache ? executeUnlessCached() : executeSpecs();
+				new JasmineResultFile().write(result, new File(jasmineTargetDir,resultFileName));
 			} catch (Exception e) {
 				throw new MojoExecutionException(e,"There was a problem executing Jasmine specs",e.getMessage());
+			} finally {
+				writePhaseMetrics("test");
 			}
 			logResults(result);
+			if(failFast && !result.didPass() && result.getSkippedCount() > 0) {
+				getLog().warn("Stopped executing specs after "+result.getFailureCount()+" failure(s), because failFast is enabled. "+result.getSkippedCount()+" specs were skipped.");
+			}
+			if(cachePluginScripts) {
+				getLog().debug(CompiledScriptCache.shared().describeTimings());
+			}
 			if(haltOnFailure && !result.didPass()) {
 				throw new MojoFailureException("There were Jasmine spec failures.");
 			}
@@ -39,21 +90,343 @@ public class TestMojo extends AbstractJasmineMojo {
 		}
 	}
 
-	private void logResults(JasmineResult result) {
+	protected JasmineResult executeSpecs() throws IOException {
+		if(inMemoryRunner) {
+			virtualHost = loadVirtualHost();
+		}
+		if(bundleScripts) {
+			scriptBundler = new ScriptBundler(new File(jasmineTargetDir,BUNDLE_DIRECTORY_NAME), bundleChunkKilobytes * 1024L);
+		}
+		SpecRunnerHtmlGenerator htmlGenerator = createHtmlGenerator();
+		if(shardCount > 1) {
+			getLog().info("Executing only shard "+(shardIndex + 1)+" of "+shardCount+" of the spec files (picked by "+shardSelection+")");
+		}
+		JasmineResult result = affectedSpecsOnly ? executeAffectedSpecs(htmlGenerator) : executeSpecs(htmlGenerator, null);
+		recordTimingHistory(result);
+		if(scriptBundler != null) {
+			getLog().info(scriptBundler.describe());
+			scriptBundler.deleteUnusedChunks();
+		}
+		return result;
+	}
+
+	private void recordTimingHistory(JasmineResult result) {
+		if(timingHistoryBuilds <= 0 || timingHistoryFile == null || result.getSpecTimings().isEmpty()) {
+			return;
+		}
+		PhaseMetrics.Timer history = phaseMetrics.start("history");
+		try {
+			new TimingHistory(timingHistoryFile).append(result.getSpecTimings(), System.currentTimeMillis(), timingHistoryBuilds);
+			history.stop();
+		} catch (IOException e) {
+			getLog().warn("Failed to record spec timings in "+timingHistoryFile+": "+e.getMessage());
+		}
+	}
+
+	private JasmineResult executeSpecs(SpecRunnerHtmlGenerator htmlGenerator, List<File> specFiles) throws IOException {
+		return parallel ? executeShardsInParallel(htmlGenerator, specFiles) : executeSpecRunner(htmlGenerator, specFiles);
+	}
+
+	private JasmineResult executeAffectedSpecs(SpecRunnerHtmlGenerator htmlGenerator) throws IOException {
+		PhaseMetrics.Timer analyze = phaseMetrics.start("analyze");
+		File graphFile = new File(jasmineTargetDir,SPEC_DEPENDENCY_GRAPH_FILE_NAME);
+		List<File> specFiles = htmlGenerator.listSpecFiles();
+		SpecDependencyGraph graph = SpecDependencyGraph.build(jasmineTargetDir, htmlGenerator.listSourceFiles(), specFiles, runnerEncoding());
+		SpecDependencyGraph previousGraph = fullRun ? null : SpecDependencyGraph.load(graphFile);
+
+		Set<String> affectedSpecs = graph.affectedSpecs(previousGraph);
+		analyze.stop();
+		int specCount = graph.getSpecs().size();
+		if(previousGraph == null) {
+			getLog().info("Executing all "+specCount+" spec files"+(fullRun ? "" : ", because there is no dependency graph from a previous run"));
+		} else if(affectedSpecs.isEmpty()) {
+			getLog().info("No spec files are affected by changes since the previous run, so the previous results are kept");
+			graph.save(graphFile);
+			return previousResult();
+		} else {
+			getLog().info("Executing "+affectedSpecs.size()+" of "+specCount+" spec files, affected by changes since the previous run");
+		}
+
+		//Helpers are loaded whether affected or not, since the affected specs may rely on them
+		JasmineResult result = executeSpecs(htmlGenerator, graph.filesToLoad(jasmineTargetDir, specFiles, affectedSpecs));
+		graph.setPendingSpecs(result.didPass() ? Collections.<String>emptySet() : affectedSpecs);
+		graph.save(graphFile);
+		return result;
+	}
+
+	/**
+	 * @return the result the previous run recorded (its JUnit XML report is left where it is), or an empty one
+	 */
+	private JasmineResult previousResult() throws IOException {
+		File resultFile = new File(jasmineTargetDir,resultFileName);
+		if(resultFile.isFile()) {
+			return new JasmineResultFile().read(resultFile);
+		}
+		JasmineResult result = new JasmineResult();
+		result.setDetails("");
+		return result;
+	}
+
+	protected VirtualHost loadVirtualHost() throws IOException {
+		VirtualHost loaded = VirtualHost.load(jasmineTargetDir, new File(jasmineTargetDir,srcDirectoryName), new File(jasmineTargetDir,specDirectoryName));
+		getLog().info("Serving "+loaded.paths().size()+" JavaScript sources and specs from memory");
+		return loaded;
+	}
+
+	private JasmineResult executeUnlessCached() throws IOException {
+		TestResultCache resultCache = new TestResultCache(resultCacheDirectory);
+		File junitXmlReport = new File(jasmineTargetDir,junitXmlReportFileName);
+		String key = buildResultCacheKey();
+
+		JasmineResult result = resultCache.load(key, junitXmlReport);
+		if(result != null) {
+			getLog().info("Replaying cached Jasmine result "+key+", because no inputs have changed since it was recorded. "+describeCacheStatistics());
+		} else {
+			getLog().info("No cached Jasmine result for "+key+". "+describeCacheStatistics());
+			result = executeSpecs();
+			if(junitXmlReport.isFile()) {
+				resultCache.store(key, result, junitXmlReport);
+				resultCache.prune(resultCacheMaxEntries);
+			}
+		}
+		return result;
+	}
+
+	private String buildResultCacheKey() throws IOException {
+		CacheKeyBuilder key = new CacheKeyBuilder()
+			.add(browserVersion)
+			.add(include)
+			.add(exclude)
+			.add(sourceEncoding)
+			.add(preloadSources)
+			.addDirectory(jsSrcDir, JS_EXT)
+			.addDirectory(jsTestSrcDir, JS_EXT)
+			.addFile(customRunnerTemplate)
+			.add(pluginVersion)
+			.add(pluginCodeVersion())
+			.addResource(SpecRunnerHtmlGenerator.class, SpecRunnerHtmlGenerator.DEFAULT_RUNNER_HTML_TEMPLATE_FILE)
+			.addResource(SpecRunnerHtmlGenerator.class, SpecRunnerHtmlGenerator.TIMING_REPORTER_JS)
+			.addResource(SpecRunnerHtmlGenerator.class, SpecRunnerHtmlGenerator.SYNCHRONOUS_RUNNER_JS)
+			.add(String.valueOf(timeout))
+			.add(String.valueOf(stallTimeout))
+			.add(failFast ? String.valueOf(Math.max(failFastAfter, 1)) : null)
+			.add(String.valueOf(virtualClock))
+			.add(String.valueOf(synchronousRunner))
+			.add(String.valueOf(affectedSpecsOnly))
+			.add(String.valueOf(fullRun))
+			.add(String.valueOf(shardCount))
+			.add(String.valueOf(shardIndex))
+			.add(shardSelection);
+		if(shardCount > 1) {
+			SpecRunnerHtmlGenerator htmlGenerator = createHtmlGenerator();
+			for (File specFile : htmlGenerator.listSpecFiles()) {
+				key.add(htmlGenerator.specFileKey(specFile));
+			}
+		}
+		for (Artifact artifact : pluginArtifacts) {
+			if(JAVASCRIPT_TYPE.equals(artifact.getType()) || CSS_TYPE.equals(artifact.getType())) {
+				key.add(artifact.getId()).addFile(artifact.getFile());
+			}
+		}
+		return key.build();
+	}
+
+	/**
+	 * @return the size and modification time of the plugin's own jar, so that rebuilding a SNAPSHOT of the
+	 * 	plugin doesn't replay results produced by its previous code
+	 */
+	private String pluginCodeVersion() {
+		try {
+			File code = new File(TestMojo.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+			return code.isFile() ? code.length()+","+code.lastModified() : null;
+		} catch (Exception e) {
+			return null;
+		}
+	}
+
+	private String describeCacheStatistics() {
+		return "(Result cache: "+TestResultCache.getHits()+" hits, "+TestResultCache.getMisses()+" misses in this build)";
+	}
+
+	private JasmineResult executeSpecRunner(SpecRunnerHtmlGenerator htmlGenerator, List<File> specFiles) throws IOException {
+		URL runnerUrl = publishSpecRunner(htmlGenerator, new File(jasmineTargetDir,specRunnerHtmlFileName), specFiles);
+		return createSpecRunnerExecutor().execute(runnerUrl, new File(jasmineTargetDir,junitXmlReportFileName), browserVersion);
+	}
+
+	private JasmineResult executeShardsInParallel(SpecRunnerHtmlGenerator htmlGenerator, List<File> specFiles) throws IOException {
+		int shardCount = parallelShards > 0 ? parallelShards : Runtime.getRuntime().availableProcessors();
+		List<File> allSpecFiles = specFiles != null ? specFiles : htmlGenerator.listSpecFiles();
+		ShardScheduler.Schedule schedule = null;
+		List<List<File>> shards;
+		if(SHARD_STRATEGY_ROUND_ROBIN.equals(shardStrategy)) {
+			shards = new SpecFilePartitioner().partition(allSpecFiles, shardCount);
+		} else if(SHARD_STRATEGY_DURATION.equals(shardStrategy)) {
+			schedule = new ShardScheduler().schedule(allSpecFiles, shardCount, recordedSpecFileMillis(htmlGenerator, allSpecFiles));
+			shards = schedule.getShards();
+		} else {
+			throw new IllegalArgumentException("Unknown shardStrategy '"+shardStrategy+"'. Use "+SHARD_STRATEGY_DURATION+" or "+SHARD_STRATEGY_ROUND_ROBIN+".");
+		}
+		if(shards.size() < 2) {
+			getLog().info("Not enough spec files to split into shards. Executing specs serially.");
+			return executeSpecRunner(htmlGenerator, specFiles);
+		}
+
+		getLog().info("Executing "+shards.size()+" spec runner shards in parallel");
+		File shardDir = new File(jasmineTargetDir,SHARD_DIRECTORY_NAME);
+		List<URL> runnerUrls = new ArrayList<URL>();
+		List<File> shardJunitXmlReports = new ArrayList<File>();
+		for (int i = 0; i < shards.size(); i++) {
+			runnerUrls.add(publishSpecRunner(htmlGenerator, new File(shardDir,"shard-"+(i+1)+"-"+specRunnerHtmlFileName), shards.get(i)));
+			shardJunitXmlReports.add(new File(shardDir,"shard-"+(i+1)+"-"+junitXmlReportFileName));
+		}
+		ParallelSpecRunnerExecutor parallelExecutor = new ParallelSpecRunnerExecutor(createSpecRunnerExecutor());
+		JasmineResult result = parallelExecutor.execute(runnerUrls, shardJunitXmlReports, 
+				new File(jasmineTargetDir,junitXmlReportFileName), browserVersion, shardCount);
+		if(schedule != null) {
+			logMakespan(schedule, parallelExecutor.getShardMillis());
+		}
+		return result;
+	}
+
+	/**
+	 * @return the durations timingHistoryFile recorded for the spec files, as far as it has any
+	 */
+	private Map<File, Long> recordedSpecFileMillis(SpecRunnerHtmlGenerator htmlGenerator, List<File> specFiles) {
+		Map<File, Long> recorded = new HashMap<File, Long>();
+		if(timingHistoryFile == null) {
+			return recorded;
+		}
+		try {
+			Map<String, Long> durations = new TimingHistory(timingHistoryFile).latestDurations(TimingHistory.FILE);
+			for (File specFile : specFiles) {
+				Long duration = durations.get(htmlGenerator.specFileKey(specFile));
+				if(duration != null) {
+					recorded.put(specFile, duration);
+				}
+			}
+		} catch (IOException e) {
+			getLog().warn("Failed to read spec timings from "+timingHistoryFile+", so shards are balanced by file size: "+e.getMessage());
+		}
+		return recorded;
+	}
+
+	private void logMakespan(ShardScheduler.Schedule schedule, long[] actualMillis) {
+		long actualMakespan = 0;
+		for (long millis : actualMillis) {
+			actualMakespan = Math.max(actualMakespan, millis);
+		}
+		String unit = schedule.isPredictedInMillis() ? " ms" : " bytes";
+		getLog().info("Shards balanced by "+(schedule.isPredictedInMillis() ? "recorded durations" : "file size, as no durations are recorded yet")+
+				". Predicted makespan: "+schedule.getPredictedMakespan()+unit+" "+Arrays.toString(schedule.getPredictedCosts())+
+				", actual (including page loads): "+actualMakespan+" ms "+Arrays.toString(actualMillis));
+	}
+
+	private SpecRunnerExecutor createSpecRunnerExecutor() throws IOException {
+		SpecRunnerExecutor specRunnerExecutor = new SpecRunnerExecutor();
+		specRunnerExecutor.setTimeout(timeout * 1000L);
+		specRunnerExecutor.setStallTimeout(stallTimeout * 1000L);
+		specRunnerExecutor.setVirtualClock(virtualClock);
+		specRunnerExecutor.setPhaseMetrics(phaseMetrics);
+		if(failFast) {
+			specRunnerExecutor.setFailFastAfter(Math.max(failFastAfter, 1));
+		}
+		if(reuseWebClients) {
+			WebClientPool webClientPool = WebClientPool.shared();
+			webClientPool.startSession(sessionStartTime);
+			webClientPool.setMaxUses(webClientMaxUses);
+			webClientPool.setMaxHeapPercent(webClientMaxHeapPercent);
+			specRunnerExecutor.setWebClientPool(webClientPool);
+		}
+		if(cachePluginScripts) {
+			CompiledScriptCache compiledScriptCache = CompiledScriptCache.shared();
+			compiledScriptCache.register(pluginArtifacts, JAVASCRIPT_TYPE);
+			specRunnerExecutor.setCompiledScriptCache(compiledScriptCache);
+		}
+		if(virtualHost != null) {
+			specRunnerExecutor.setVirtualHost(virtualHost, runnerEncoding());
+		}
+		if(scriptBundler != null) {
+			specRunnerExecutor.setScriptBundler(scriptBundler);
+		}
+		return specRunnerExecutor;
+	}
+
+	protected void logResults(JasmineResult result) {
 		JasmineResultLogger resultLogger = new JasmineResultLogger();
 		resultLogger.setLog(getLog());
+		resultLogger.setSlowestCount(slowestSpecs);
 		resultLogger.log(result);
 	}
 
-	private File writeSpecRunnerToOutputDirectory() throws IOException {
+	private SpecRunnerHtmlGenerator createHtmlGenerator() {
 		SpecRunnerHtmlGenerator htmlGenerator = new SpecRunnerHtmlGenerator(new File(jasmineTargetDir,srcDirectoryName),new File(jasmineTargetDir,specDirectoryName),
 				preloadSources, sourceEncoding, include, exclude);
-		String html = htmlGenerator.generate(pluginArtifacts, ReporterType.JsApiReporter, customRunnerTemplate);
-		
-		getLog().debug("Writing out Spec Runner HTML " + html + " to directory " + jasmineTargetDir);
-		File runnerFile = new File(jasmineTargetDir,specRunnerHtmlFileName);
-		FileUtils.writeStringToFile(runnerFile, html);
-		return runnerFile;
+		htmlGenerator.setVirtualHost(virtualHost);
+		htmlGenerator.setScriptBundler(scriptBundler);
+		htmlGenerator.setSynchronous(synchronousRunner);
+		htmlGenerator.setTrackSpecFiles(balancesShardsByDuration() && timingHistoryBuilds > 0 && timingHistoryFile != null);
+		if(shardCount > 1) {
+			htmlGenerator.setShardSelector(createShardSelector());
+		}
+		return htmlGenerator;
+	}
+
+	/**
+	 * @return whether shards are balanced by the spec file durations in the timing history, which is the only
+	 * 	reason to have runners mark where each spec file starts
+	 */
+	private boolean balancesShardsByDuration() {
+		return (parallel && SHARD_STRATEGY_DURATION.equals(shardStrategy)) || (shardCount > 1 && ShardSelector.DURATION.equals(shardSelection));
+	}
+
+	private ShardSelector createShardSelector() {
+		ShardSelector shardSelector = new ShardSelector(shardIndex, shardCount, shardSelection);
+		if(ShardSelector.DURATION.equals(shardSelection) && timingHistoryFile != null) {
+			try {
+				shardSelector.setRecordedMillis(new TimingHistory(timingHistoryFile).latestDurations(TimingHistory.FILE));
+			} catch (IOException e) {
+				getLog().warn("Failed to read spec timings from "+timingHistoryFile+", so shards are picked by file size: "+e.getMessage());
+			}
+		}
+		return shardSelector;
+	}
+
+	private URL publishSpecRunner(SpecRunnerHtmlGenerator htmlGenerator, File runnerFile, List<File> specFiles) throws IOException {
+		if(virtualHost != null) {
+			ByteArrayOutputStream html = new ByteArrayOutputStream();
+			writeSpecRunner(htmlGenerator, specFiles, html);
+			getLog().debug("Serving Spec Runner HTML from memory at " + virtualHost.urlFor(runnerFile));
+			Map<File, byte[]> published = new LinkedHashMap<File, byte[]>();
+			published.put(runnerFile, html.toByteArray());
+			if(scriptBundler != null) {
+				for (File chunk : scriptBundler.getChunks()) {
+					if(virtualHost.get(virtualHost.urlFor(chunk)) == null) {
+						published.put(chunk, FileUtils.readFileToByteArray(chunk));
+					}
+				}
+			}
+			virtualHost = virtualHost.with(published);
+			return virtualHost.urlFor(runnerFile);
+		}
+		getLog().debug("Writing out Spec Runner HTML to " + runnerFile);
+		FileUtils.forceMkdir(runnerFile.getAbsoluteFile().getParentFile());
+		writeSpecRunner(htmlGenerator, specFiles, new FileOutputStream(runnerFile));
+		return runnerFile.toURI().toURL();
+	}
+
+	private void writeSpecRunner(SpecRunnerHtmlGenerator htmlGenerator, List<File> specFiles, OutputStream out) throws IOException {
+		PhaseMetrics.Timer generate = phaseMetrics.start("generate");
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, runnerEncoding()));
+		try {
+			htmlGenerator.generate(pluginArtifacts, ReporterType.JsApiReporter, customRunnerTemplate, specFiles, writer);
+		} finally {
+			IOUtils.closeQuietly(writer);
+		}
+		generate.stop();
+	}
+
+	private String runnerEncoding() {
+		return StringUtils.isNotBlank(sourceEncoding) ? sourceEncoding : SpecRunnerHtmlGenerator.DEFAULT_SOURCE_ENCODING;
 	}
 
 }
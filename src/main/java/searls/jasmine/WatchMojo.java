@@ -0,0 +1,239 @@
+package searls.jasmine;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+
+import searls.jasmine.io.CopyManifest;
+import searls.jasmine.io.CopyResult;
+import searls.jasmine.io.CopyStrategy;
+import searls.jasmine.metrics.PhaseMetrics;
+import searls.jasmine.model.JasmineResult;
+import searls.jasmine.runner.VirtualHost;
+
+/**
+ * Keeps running, and re-runs the specs whenever a file in ${jsSrcDir} or ${jsTestSrcDir} changes.
+ *
+ * Only the changed files are copied into ${jasmineTargetDir}, and the specs are re-run in the same
+ * (already initialized) WebClient, so results usually print well within a second of saving.
+ *
+ * @component
+ * @goal watch
+ * @requiresDirectInvocation true
+ */
+public class WatchMojo extends TestMojo {
+
+
+	/**
+	 * How long to wait for more changes after a change is detected before re-running the specs, so that
+	 * 	saving several files at once (or an editor writing a file in several steps) only triggers one run.
+	 *
+	 * @parameter default-value="150" expression="${jasmine.watchDebounceMillis}"
+	 */
+	protected long watchDebounceMillis;
+
+	private final Map<WatchKey, Path> watchedDirectories = new HashMap<WatchKey, Path>();
+	private VirtualHost watchedVirtualHost;
+	private final Map<File, byte[]> virtualHostChanges = new LinkedHashMap<File, byte[]>();
+	private final Map<File, CopyManifest> syncedManifests = new HashMap<File, CopyManifest>();
+
+	public void execute() throws MojoExecutionException, MojoFailureException {
+		reuseWebClients = true;
+		WatchService watchService = null;
+		try {
+			PhaseMetrics.Timer copy = phaseMetrics.start("copy");
+			copyAll();
+			copy.stop();
+			runSpecs();
+
+			watchService = FileSystems.getDefault().newWatchService();
+			watch(watchService, jsSrcDir);
+			watch(watchService, jsTestSrcDir);
+			getLog().info("Watching "+jsSrcDir+" and "+jsTestSrcDir+" for changes. Press Ctrl-C to stop.");
+
+			while(!Thread.currentThread().isInterrupted()) {
+				Set<Path> changes = new LinkedHashSet<Path>();
+				boolean overflowed = collectChanges(watchService, watchService.take(), changes);
+				WatchKey key;
+				while((key = watchService.poll(watchDebounceMillis, TimeUnit.MILLISECONDS)) != null) {
+					overflowed |= collectChanges(watchService, key, changes);
+				}
+
+				long start = System.currentTimeMillis();
+				phaseMetrics = new PhaseMetrics();
+				copy = phaseMetrics.start("copy");
+				if(overflowed) {
+					getLog().info("Too many changes to track individually. Copying everything that changed.");
+					copyAll();
+				} else {
+					getLog().info("Detected "+changes.size()+" changed file(s). Re-running specs.");
+					CopyResult result = new CopyResult();
+					for (Path change : changes) {
+						sync(watchService, change.toFile(), result);
+					}
+					saveSyncedManifests();
+					applyVirtualHostChanges();
+					getLog().debug(result.toString());
+				}
+				copy.stop();
+				runSpecs();
+				getLog().info("Specs re-ran in "+(System.currentTimeMillis()-start)+" ms");
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			throw new MojoExecutionException(e,"There was a problem watching for changes to JavaScript sources and specs",e.getMessage());
+		} finally {
+			if(watchService != null) {
+				try {
+					watchService.close();
+				} catch (IOException e) {
+					getLog().debug("Failed to close watch service", e);
+				}
+			}
+		}
+	}
+
+	@Override
+	protected VirtualHost loadVirtualHost() throws IOException {
+		if(watchedVirtualHost == null) {
+			watchedVirtualHost = super.loadVirtualHost();
+		}
+		return watchedVirtualHost;
+	}
+
+	private void runSpecs() {
+		try {
+			JasmineResult result = executeSpecs();
+			logResults(result);
+		} catch (Exception e) {
+			getLog().error("There was a problem executing Jasmine specs", e);
+		} finally {
+			writePhaseMetrics("watch");
+		}
+	}
+
+	private void copyAll() throws IOException {
+		for (File srcDir : new File[] { jsSrcDir, jsTestSrcDir }) {
+			if(srcDir.exists()) {
+				getLog().info(copyJavaScriptIncrementally(srcDir, destDirectoryNameFor(srcDir)).toString());
+			}
+		}
+		watchedVirtualHost = null;
+	}
+
+	/**
+	 * Brings the copy of one changed source (file or directory) in ${jasmineTargetDir} up to date, with the same
+	 * filter as a full copy, and records it in that copy's manifest.
+	 */
+	private void sync(WatchService watchService, File source, CopyResult result) throws IOException {
+		File srcDir = source.getAbsolutePath().startsWith(jsTestSrcDir.getAbsolutePath()+File.separator) ? jsTestSrcDir : jsSrcDir;
+		String relativePath = source.getAbsolutePath().substring(srcDir.getAbsolutePath().length()+1).replace(File.separatorChar, '/');
+		File destination = new File(new File(jasmineTargetDir,destDirectoryNameFor(srcDir)), relativePath);
+		if(!source.exists()) {
+			boolean directory = destination.isDirectory();
+			directoryCopier.deleteCopy(destination, relativePath, manifestFor(srcDir), result);
+			if(directory) {
+				watchedVirtualHost = null;
+			} else if(watchedVirtualHost != null) {
+				virtualHostChanges.put(destination, null);
+			}
+		} else if(!directoryCopier.includes(srcDir, source, JS_EXT)) {
+			return;
+		} else if(source.isDirectory()) {
+			watch(watchService, source);
+			File[] children = source.listFiles();
+			if(children != null) {
+				for (File child : children) {
+					sync(watchService, child, result);
+				}
+			}
+		} else {
+			directoryCopier.copyFileIncrementally(source, destination, relativePath, manifestFor(srcDir), incrementalCopyComparesContent,
+					CopyStrategy.forName(copyStrategy), result);
+			if(watchedVirtualHost != null) {
+				virtualHostChanges.put(destination, FileUtils.readFileToByteArray(destination));
+			}
+		}
+	}
+
+	private CopyManifest manifestFor(File srcDir) throws IOException {
+		CopyManifest manifest = syncedManifests.get(srcDir);
+		if(manifest == null) {
+			manifest = CopyManifest.load(copyManifestFor(destDirectoryNameFor(srcDir)));
+			syncedManifests.put(srcDir, manifest);
+		}
+		return manifest;
+	}
+
+	private void saveSyncedManifests() throws IOException {
+		for (Map.Entry<File, CopyManifest> synced : syncedManifests.entrySet()) {
+			synced.getValue().save(copyManifestFor(destDirectoryNameFor(synced.getKey())));
+		}
+		syncedManifests.clear();
+	}
+
+	/**
+	 * Updates the in-memory copy with everything one round of changes synced, copying its contents only once.
+	 */
+	private void applyVirtualHostChanges() {
+		if(watchedVirtualHost != null && !virtualHostChanges.isEmpty()) {
+			watchedVirtualHost = watchedVirtualHost.with(virtualHostChanges);
+		}
+		virtualHostChanges.clear();
+	}
+
+	private boolean collectChanges(WatchService watchService, WatchKey key, Set<Path> changes) {
+		boolean overflowed = false;
+		Path directory = watchedDirectories.get(key);
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if(event.kind() == OVERFLOW || directory == null) {
+				overflowed = true;
+			} else {
+				changes.add(directory.resolve((Path) event.context()));
+			}
+		}
+		if(!key.reset()) {
+			watchedDirectories.remove(key);
+		}
+		return overflowed;
+	}
+
+	private void watch(final WatchService watchService, File directory) throws IOException {
+		if(!directory.isDirectory()) {
+			return;
+		}
+		Files.walkFileTree(directory.toPath(), new SimpleFileVisitor<Path>() {
+			@Override
+			public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+				watchedDirectories.put(dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), dir);
+				return FileVisitResult.CONTINUE;
+			}
+		});
+	}
+
+	private String destDirectoryNameFor(File srcDir) {
+		return srcDir.equals(jsTestSrcDir) ? specDirectoryName : srcDirectoryName;
+	}
+
+}
@@ -0,0 +1,280 @@
+package searls.jasmine.affected;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.codehaus.plexus.util.StringUtils;
+
+import searls.jasmine.cache.CacheKeyBuilder;
+
+/**
+ * Which source and helper files each spec file depends on (directly or through other scripts), as found by a
+ * {@link SymbolScanner}, along with a fingerprint of every file's content so the next run can tell what changed.
+ *
+ * Files are identified by their path relative to a root directory, with forward slashes.
+ */
+public class SpecDependencyGraph {
+
+	private static final String FINGERPRINT_PREFIX = "fingerprint.";
+	private static final String DEPENDENCIES_PREFIX = "dependencies.";
+	private static final String SPECS_KEY = "specs";
+	private static final String PENDING_SPECS_KEY = "pendingSpecs";
+	private static final String SEPARATOR = "|";
+
+	private final Map<String, String> fingerprints = new TreeMap<String, String>();
+	private final Map<String, Set<String>> dependencies = new TreeMap<String, Set<String>>();
+	private final Set<String> specs = new TreeSet<String>();
+	private final Set<String> pendingSpecs = new TreeSet<String>();
+	private final Set<String> helpers = new TreeSet<String>();
+
+	/**
+	 * Scans the sources and the scripts in the spec directory. Scripts in the spec directory that declare no
+	 * suites are helpers (custom matchers, a global beforeEach...), which specs depend on like sources. A source
+	 * or helper that declares no symbols the scanner recognizes (e.g. a library wrapped in a closure) is assumed
+	 * to be needed by every spec.
+	 */
+	public static SpecDependencyGraph build(File rootDir, Collection<File> sources, Collection<File> specFiles, String encoding) throws IOException {
+		SymbolScanner scanner = new SymbolScanner();
+		SpecDependencyGraph graph = new SpecDependencyGraph();
+		Map<String, Set<String>> declaringFiles = new HashMap<String, Set<String>>();
+		Map<String, String> scripts = new HashMap<String, String>();
+		Set<String> globalSources = new TreeSet<String>();
+
+		for (File source : sources) {
+			String script = FileUtils.readFileToString(source, encoding);
+			String path = graph.add(rootDir, source, script);
+			scripts.put(path, script);
+			if(!index(declaringFiles, path, scanner.declaredSymbols(script))) {
+				globalSources.add(path);
+			}
+		}
+		for (File specFile : specFiles) {
+			String script = FileUtils.readFileToString(specFile, encoding);
+			String path = graph.add(rootDir, specFile, script);
+			scripts.put(path, script);
+			boolean declaresSymbols = index(declaringFiles, path, scanner.declaredSymbols(script));
+			if(scanner.declaresSuites(script)) {
+				graph.specs.add(path);
+			} else {
+				graph.helpers.add(path);
+				if(!declaresSymbols) {
+					globalSources.add(path);
+				}
+			}
+		}
+
+		for (Map.Entry<String, String> script : scripts.entrySet()) {
+			Set<String> dependsOn = graph.dependencies.get(script.getKey());
+			for (String symbol : scanner.referencedSymbols(script.getValue())) {
+				Set<String> files = declaringFiles.get(symbol);
+				if(files != null) {
+					dependsOn.addAll(files);
+				}
+			}
+			if(graph.specs.contains(script.getKey())) {
+				dependsOn.addAll(globalSources);
+			}
+			dependsOn.remove(script.getKey());
+		}
+		return graph;
+	}
+
+	/**
+	 * @return whether the file declares any symbols
+	 */
+	private static boolean index(Map<String, Set<String>> declaringFiles, String path, Set<String> declared) {
+		for (String symbol : declared) {
+			Set<String> files = declaringFiles.get(symbol);
+			if(files == null) {
+				declaringFiles.put(symbol, files = new HashSet<String>());
+			}
+			files.add(path);
+		}
+		return !declared.isEmpty();
+	}
+
+	/**
+	 * @return the affected spec files and every helper, in the order of specFiles, which is what a runner
+	 * 	executing only the affected specs needs to load
+	 */
+	public List<File> filesToLoad(File rootDir, List<File> specFiles, Set<String> affectedSpecs) {
+		List<File> files = new ArrayList<File>();
+		for (File specFile : specFiles) {
+			String path = pathFor(rootDir, specFile);
+			if(affectedSpecs.contains(path) || helpers.contains(path)) {
+				files.add(specFile);
+			}
+		}
+		return files;
+	}
+
+	/**
+	 * @return the specs that need to run because a file they depend on (or the spec itself) was added, changed
+	 * 	or removed since the previous graph was built, plus the specs the previous graph left pending. Every spec
+	 * 	when there is no previous graph.
+	 */
+	public Set<String> affectedSpecs(SpecDependencyGraph previous) {
+		if(previous == null) {
+			return new TreeSet<String>(specs);
+		}
+		Set<String> changed = new HashSet<String>();
+		for (Map.Entry<String, String> fingerprint : fingerprints.entrySet()) {
+			if(!fingerprint.getValue().equals(previous.fingerprints.get(fingerprint.getKey()))) {
+				changed.add(fingerprint.getKey());
+			}
+		}
+		for (String path : previous.fingerprints.keySet()) {
+			if(!fingerprints.containsKey(path)) {
+				changed.add(path);
+			}
+		}
+
+		Map<String, Set<String>> dependents = new HashMap<String, Set<String>>();
+		addDependents(dependents, previous.dependencies);
+		addDependents(dependents, dependencies);
+		Set<String> affected = new HashSet<String>(changed);
+		LinkedList<String> toVisit = new LinkedList<String>(changed);
+		while(!toVisit.isEmpty()) {
+			Set<String> direct = dependents.get(toVisit.removeFirst());
+			if(direct != null) {
+				for (String dependent : direct) {
+					if(affected.add(dependent)) {
+						toVisit.add(dependent);
+					}
+				}
+			}
+		}
+		affected.addAll(previous.pendingSpecs);
+
+		Set<String> affectedSpecs = new TreeSet<String>(specs);
+		affectedSpecs.retainAll(affected);
+		return affectedSpecs;
+	}
+
+	private static void addDependents(Map<String, Set<String>> dependents, Map<String, Set<String>> dependencies) {
+		for (Map.Entry<String, Set<String>> entry : dependencies.entrySet()) {
+			for (String dependency : entry.getValue()) {
+				Set<String> direct = dependents.get(dependency);
+				if(direct == null) {
+					dependents.put(dependency, direct = new HashSet<String>());
+				}
+				direct.add(entry.getKey());
+			}
+		}
+	}
+
+	public static SpecDependencyGraph load(File graphFile) throws IOException {
+		if(!graphFile.isFile()) {
+			return null;
+		}
+		Properties properties = new Properties();
+		InputStream in = new BufferedInputStream(new FileInputStream(graphFile));
+		try {
+			properties.load(in);
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
+		SpecDependencyGraph graph = new SpecDependencyGraph();
+		for (String key : properties.stringPropertyNames()) {
+			if(key.startsWith(FINGERPRINT_PREFIX)) {
+				String path = key.substring(FINGERPRINT_PREFIX.length());
+				graph.fingerprints.put(path, properties.getProperty(key));
+				graph.dependencies.put(path, split(properties.getProperty(DEPENDENCIES_PREFIX+path)));
+			}
+		}
+		graph.specs.addAll(split(properties.getProperty(SPECS_KEY)));
+		graph.pendingSpecs.addAll(split(properties.getProperty(PENDING_SPECS_KEY)));
+		return graph;
+	}
+
+	public void save(File graphFile) throws IOException {
+		Properties properties = new Properties();
+		for (Map.Entry<String, String> fingerprint : fingerprints.entrySet()) {
+			properties.setProperty(FINGERPRINT_PREFIX+fingerprint.getKey(), fingerprint.getValue());
+			properties.setProperty(DEPENDENCIES_PREFIX+fingerprint.getKey(), StringUtils.join(dependencies.get(fingerprint.getKey()).iterator(), SEPARATOR));
+		}
+		properties.setProperty(SPECS_KEY, StringUtils.join(specs.iterator(), SEPARATOR));
+		properties.setProperty(PENDING_SPECS_KEY, StringUtils.join(pendingSpecs.iterator(), SEPARATOR));
+		graphFile.getAbsoluteFile().getParentFile().mkdirs();
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(graphFile));
+		try {
+			properties.store(out, "Spec dependencies found by the jasmine-maven-plugin. Delete this file to run every spec.");
+		} finally {
+			IOUtils.closeQuietly(out);
+		}
+	}
+
+	/**
+	 * Specs to run next time regardless of what changes, e.g. because they failed this time.
+	 */
+	public void setPendingSpecs(Collection<String> pendingSpecs) {
+		this.pendingSpecs.clear();
+		this.pendingSpecs.addAll(pendingSpecs);
+	}
+
+	public Set<String> getPendingSpecs() {
+		return pendingSpecs;
+	}
+
+	public Set<String> getSpecs() {
+		return specs;
+	}
+
+	/**
+	 * @return the scripts in the spec directory that declare no suites (only known for a graph that was built)
+	 */
+	public Set<String> getHelpers() {
+		return helpers;
+	}
+
+	public Set<String> getDependencies(String path) {
+		return dependencies.get(path);
+	}
+
+	public static String pathFor(File rootDir, File file) {
+		String rootPath = rootDir.getAbsolutePath() + File.separator;
+		String path = file.getAbsolutePath();
+		return (path.startsWith(rootPath) ? path.substring(rootPath.length()) : path).replace(File.separatorChar, '/');
+	}
+
+	/**
+	 * Fingerprints the file by its content rather than its modification time, which a fresh checkout resets and
+	 * which may not change for an edit made within the file system's timestamp resolution.
+	 */
+	private String add(File rootDir, File file, String script) {
+		String path = pathFor(rootDir, file);
+		fingerprints.put(path, new CacheKeyBuilder().add(script).build());
+		dependencies.put(path, new TreeSet<String>());
+		return path;
+	}
+
+	private static Set<String> split(String joined) {
+		Set<String> values = new TreeSet<String>();
+		if(StringUtils.isNotEmpty(joined)) {
+			for (String value : StringUtils.split(joined, SEPARATOR)) {
+				values.add(value);
+			}
+		}
+		return values;
+	}
+
+}
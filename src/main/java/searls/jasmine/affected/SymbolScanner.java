@@ -0,0 +1,63 @@
+package searls.jasmine.affected;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A deliberately simple, static scan of the global symbols a script declares and refers to.
+ *
+ * Declarations are only recognized at the start of an unindented line (<code>function Foo(</code>,
+ * <code>var Foo</code>, <code>Foo = </code>, <code>App.Models.Foo = </code>, <code>window.Foo = </code>),
+ * which is where globals live in most browser code. References are every dotted identifier in the script,
+ * comments and strings included, so the scan errs on the side of finding too many dependencies.
+ */
+public class SymbolScanner {
+
+	private static final String IDENTIFIER = "[A-Za-z_$][\\w$]*";
+	private static final String DOTTED_IDENTIFIER = IDENTIFIER+"(?:\\."+IDENTIFIER+")*";
+	private static final Pattern DECLARATION = Pattern.compile(
+			"^(?:function\\s+("+IDENTIFIER+")|var\\s+("+IDENTIFIER+")|(?:window\\.)?("+DOTTED_IDENTIFIER+")\\s*=(?!=))", Pattern.MULTILINE);
+	private static final Pattern REFERENCE = Pattern.compile(DOTTED_IDENTIFIER);
+	private static final Pattern SUITE = Pattern.compile("\\bx?describe\\s*\\(");
+
+	public Set<String> declaredSymbols(String script) {
+		Set<String> symbols = new LinkedHashSet<String>();
+		Matcher matcher = DECLARATION.matcher(script);
+		while(matcher.find()) {
+			for (int group = 1; group <= matcher.groupCount(); group++) {
+				if(matcher.group(group) != null) {
+					symbols.add(matcher.group(group));
+				}
+			}
+		}
+		return symbols;
+	}
+
+	/**
+	 * @return whether the script declares any suites, which tells a spec file from a helper (custom matchers,
+	 * 	a global beforeEach...) in the spec directory
+	 */
+	public boolean declaresSuites(String script) {
+		return SUITE.matcher(script).find();
+	}
+
+	/**
+	 * @return every dotted identifier along with each of its prefixes, e.g. <code>App.Models.Foo</code>
+	 * 	yields <code>App</code>, <code>App.Models</code> and <code>App.Models.Foo</code>
+	 */
+	public Set<String> referencedSymbols(String script) {
+		Set<String> symbols = new LinkedHashSet<String>();
+		Matcher matcher = REFERENCE.matcher(script);
+		while(matcher.find()) {
+			String reference = matcher.group();
+			for (int dot = reference.indexOf('.'); dot > 0; dot = reference.indexOf('.', dot + 1)) {
+				symbols.add(reference.substring(0, dot));
+			}
+			symbols.add(reference);
+		}
+		return symbols;
+	}
+
+}
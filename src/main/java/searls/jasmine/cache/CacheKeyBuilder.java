@@ -0,0 +1,144 @@
+package searls.jasmine.cache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Accumulates everything that can influence a spec run into a single SHA-1 digest.
+ */
+public class CacheKeyBuilder {
+
+	private final MessageDigest digest;
+	private final byte[] buffer = new byte[8192];
+
+	public CacheKeyBuilder() {
+		try {
+			digest = MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	public CacheKeyBuilder add(String value) {
+		if(value == null) {
+			digest.update((byte) 0);
+		} else {
+			digest.update((byte) 1);
+			updateWithLengthPrefixed(utf8(value));
+		}
+		return this;
+	}
+
+	public CacheKeyBuilder add(List<String> values) {
+		add(values == null ? null : String.valueOf(values.size()));
+		if(values != null) {
+			for (String value : values) {
+				add(value);
+			}
+		}
+		return this;
+	}
+
+	public CacheKeyBuilder addFile(File file) throws IOException {
+		if(file == null || !file.isFile()) {
+			return add((String) null);
+		}
+		add(String.valueOf(file.length()));
+		InputStream in = new FileInputStream(file);
+		try {
+			int read;
+			while((read = in.read(buffer)) != -1) {
+				digest.update(buffer, 0, read);
+			}
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds the contents of a resource on the classpath of the given class (or null, when there is none).
+	 */
+	public CacheKeyBuilder addResource(Class<?> owner, String resource) throws IOException {
+		InputStream in = owner.getResourceAsStream(resource);
+		if(in == null) {
+			return add((String) null);
+		}
+		add(resource);
+		try {
+			int read;
+			while((read = in.read(buffer)) != -1) {
+				digest.update(buffer, 0, read);
+			}
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
+		return this;
+	}
+
+	/**
+	 * Adds the relative path and contents of every file under the directory ending in the given suffix,
+	 * in a stable order, so that renames, additions and deletions all change the key.
+	 */
+	public CacheKeyBuilder addDirectory(File directory, String suffix) throws IOException {
+		List<String> relativePaths = new ArrayList<String>();
+		if(directory != null && directory.isDirectory()) {
+			collectRelativePaths(directory, "", suffix, relativePaths);
+		}
+		Collections.sort(relativePaths);
+		add(String.valueOf(relativePaths.size()));
+		for (String relativePath : relativePaths) {
+			add(relativePath);
+			addFile(new File(directory, relativePath));
+		}
+		return this;
+	}
+
+	public String build() {
+		StringBuilder hex = new StringBuilder();
+		for (byte b : digest.digest()) {
+			hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+		}
+		return hex.toString();
+	}
+
+	private void collectRelativePaths(File directory, String prefix, String suffix, List<String> relativePaths) {
+		File[] children = directory.listFiles();
+		if(children == null) {
+			return;
+		}
+		for (File child : children) {
+			if(child.isHidden()) {
+				continue;
+			}
+			if(child.isDirectory()) {
+				collectRelativePaths(child, prefix+child.getName()+"/", suffix, relativePaths);
+			} else if(child.getName().endsWith(suffix)) {
+				relativePaths.add(prefix+child.getName());
+			}
+		}
+	}
+
+	private void updateWithLengthPrefixed(byte[] bytes) {
+		digest.update(utf8(bytes.length+":"));
+		digest.update(bytes);
+	}
+
+	private byte[] utf8(String value) {
+		try {
+			return value.getBytes("UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,161 @@
+package searls.jasmine.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+import searls.jasmine.model.JasmineResult;
+import searls.jasmine.model.SpecRecords;
+
+/**
+ * Stores a JasmineResult and its JUnit XML report under a content-hash key, so an unchanged module
+ * can replay its last result instead of launching HtmlUnit. Hit and miss counts are kept for the
+ * lifetime of the JVM (i.e. the whole reactor build).
+ */
+public class TestResultCache {
+
+	private static final String RESULT_FILE_NAME = "result.properties";
+	private static final String JUNIT_XML_FILE_NAME = "junit.xml";
+	private static final String SPECS_FILE_NAME = "specs.bin";
+	private static final String SPEC_COUNT = "specCount";
+	private static final String FAILURE_COUNT = "failureCount";
+	private static final String SKIPPED_COUNT = "skippedCount";
+	private static final String DETAILS = "details";
+
+	private static int hits;
+	private static int misses;
+
+	private final File cacheDirectory;
+
+	public TestResultCache(File cacheDirectory) {
+		this.cacheDirectory = cacheDirectory;
+	}
+
+	/**
+	 * @return the cached result (after restoring its JUnit XML report to junitXmlReport), or null on a miss
+	 */
+	public JasmineResult load(String key, File junitXmlReport) throws IOException {
+		File entry = new File(cacheDirectory, key);
+		File resultFile = new File(entry, RESULT_FILE_NAME);
+		File junitXmlFile = new File(entry, JUNIT_XML_FILE_NAME);
+		File specsFile = new File(entry, SPECS_FILE_NAME);
+		if(!resultFile.isFile() || !junitXmlFile.isFile() || !specsFile.isFile()) {
+			recordMiss();
+			return null;
+		}
+
+		Properties properties = new Properties();
+		InputStream in = new FileInputStream(resultFile);
+		try {
+			properties.load(in);
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
+		JasmineResult result = new JasmineResult();
+		result.setSpecCount(Integer.parseInt(properties.getProperty(SPEC_COUNT)));
+		result.setFailureCount(Integer.parseInt(properties.getProperty(FAILURE_COUNT)));
+		result.setSkippedCount(Integer.parseInt(properties.getProperty(SKIPPED_COUNT)));
+		result.setDetails(properties.getProperty(DETAILS));
+		DataInputStream specsIn = new DataInputStream(new BufferedInputStream(new FileInputStream(specsFile)));
+		try {
+			result.setSpecs(SpecRecords.readFrom(specsIn));
+		} finally {
+			IOUtils.closeQuietly(specsIn);
+		}
+		FileUtils.copyFile(junitXmlFile, junitXmlReport);
+		//Marks the entry as recently used, for prune()
+		entry.setLastModified(System.currentTimeMillis());
+		recordHit();
+		return result;
+	}
+
+	public void store(String key, JasmineResult result, File junitXmlReport) throws IOException {
+		File entry = new File(cacheDirectory, key);
+		File staging = new File(cacheDirectory, key+".tmp"+System.nanoTime());
+		FileUtils.forceMkdir(staging);
+		try {
+			Properties properties = new Properties();
+			properties.setProperty(SPEC_COUNT, String.valueOf(result.getSpecCount()));
+			properties.setProperty(FAILURE_COUNT, String.valueOf(result.getFailureCount()));
+			properties.setProperty(SKIPPED_COUNT, String.valueOf(result.getSkippedCount()));
+			properties.setProperty(DETAILS, result.getDetails() == null ? "" : result.getDetails());
+			OutputStream out = new FileOutputStream(new File(staging, RESULT_FILE_NAME));
+			try {
+				properties.store(out, null);
+			} finally {
+				IOUtils.closeQuietly(out);
+			}
+			DataOutputStream specsOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(new File(staging, SPECS_FILE_NAME))));
+			try {
+				result.getSpecs().writeTo(specsOut);
+			} finally {
+				IOUtils.closeQuietly(specsOut);
+			}
+			FileUtils.copyFile(junitXmlReport, new File(staging, JUNIT_XML_FILE_NAME));
+
+			FileUtils.deleteDirectory(entry);
+			if(!staging.renameTo(entry)) {
+				throw new IOException("Failed to move cache entry into "+entry);
+			}
+		} finally {
+			FileUtils.deleteQuietly(staging);
+		}
+	}
+
+	/**
+	 * Deletes all but the maxEntries most recently stored or loaded results (none when maxEntries isn't positive).
+	 */
+	public void prune(int maxEntries) throws IOException {
+		File[] children = cacheDirectory.listFiles();
+		if(maxEntries <= 0 || children == null) {
+			return;
+		}
+		List<File> entries = new ArrayList<File>();
+		for (File child : children) {
+			//Entries still being stored by another build are left alone
+			if(child.isDirectory() && !child.getName().contains(".tmp")) {
+				entries.add(child);
+			}
+		}
+		Collections.sort(entries, new Comparator<File>() {
+			public int compare(File a, File b) {
+				long difference = b.lastModified() - a.lastModified();
+				return difference > 0 ? 1 : difference < 0 ? -1 : 0;
+			}
+		});
+		for (File stale : entries.subList(Math.min(maxEntries, entries.size()), entries.size())) {
+			FileUtils.deleteQuietly(stale);
+		}
+	}
+
+	public static synchronized int getHits() {
+		return hits;
+	}
+
+	public static synchronized int getMisses() {
+		return misses;
+	}
+
+	private static synchronized void recordHit() {
+		hits++;
+	}
+
+	private static synchronized void recordMiss() {
+		misses++;
+	}
+}
@@ -0,0 +1,44 @@
+package searls.jasmine.format;
+
+import java.util.List;
+
+import searls.jasmine.model.JasmineReport;
+import searls.jasmine.model.ReportItem;
+import searls.jasmine.model.ReportMessage;
+
+/**
+ * Renders the nested "describe ... / it ..." console report of a {@link JasmineReport}.
+ */
+public class JasmineReportFormatter {
+
+	public String format(JasmineReport report) {
+		StringBuilder details = new StringBuilder();
+		appendItems(details, report.getSuites(), 0);
+		return details.toString();
+	}
+
+	private void appendItems(StringBuilder details, List<ReportItem> items, int indentLevel) {
+		for (ReportItem item : items) {
+			details.append('\n');
+			appendIndent(details, indentLevel);
+			details.append(item.isSpec() ? "it " : "describe ").append(item.getName());
+			if(item.didFail()) {
+				details.append(JasmineResultLogger.FAIL_APPENDAGE);
+				for (ReportMessage message : item.getMessages()) {
+					details.append('\n');
+					appendIndent(details, indentLevel+1);
+					details.append(" * ").append(message.getMessage());
+				}
+			}
+			details.append(' ');
+			appendItems(details, item.getChildren(), indentLevel+1);
+		}
+	}
+
+	private void appendIndent(StringBuilder details, int indentLevel) {
+		for (int i = 0; i < indentLevel; i++) {
+			details.append(JasmineResultLogger.INDENT);
+		}
+	}
+
+}
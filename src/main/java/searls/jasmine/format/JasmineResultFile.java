@@ -0,0 +1,172 @@
+package searls.jasmine.format;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+import searls.jasmine.model.JasmineResult;
+import searls.jasmine.model.SpecRecords;
+
+/**
+ * Writes a JasmineResult to a file (its counts, its details and its spec records), so that the results of
+ * several shards can be merged later, e.g. by jasmine:merge after each CI agent ran its shard.
+ *
+ * Merging streams each file through a small buffer, twice (once to add up the counts, once to copy the
+ * details and spec records), so it needs the same little memory however many specs there are.
+ */
+public class JasmineResultFile {
+
+	private static final int MAGIC = 0x4a524553;
+	private static final int VERSION = 1;
+	private static final int SPEC_RECORD_BYTES = 9;
+	private static final String ENCODING = "UTF-8";
+
+	public void write(JasmineResult result, File file) throws IOException {
+		FileUtils.forceMkdir(file.getAbsoluteFile().getParentFile());
+		byte[] details = result.getDetails() == null ? new byte[0] : result.getDetails().getBytes(ENCODING);
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+		try {
+			writeHeader(out, result.getSpecCount(), result.getFailureCount(), result.getSkippedCount());
+			out.writeInt(details.length);
+			out.write(details);
+			result.getSpecs().writeTo(out);
+		} finally {
+			IOUtils.closeQuietly(out);
+		}
+	}
+
+	public JasmineResult read(File file) throws IOException {
+		DataInputStream in = open(file);
+		try {
+			JasmineResult result = readHeader(in, file);
+			byte[] details = new byte[in.readInt()];
+			in.readFully(details);
+			result.setDetails(new String(details, ENCODING));
+			result.setSpecs(SpecRecords.readFrom(in));
+			return result;
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
+	}
+
+	/**
+	 * Writes one result file holding all the given results' specs, with their details one after the other.
+	 *
+	 * @return the merged counts (without details or spec records, which are only in mergedFile)
+	 */
+	public JasmineResult merge(List<File> files, File mergedFile) throws IOException {
+		JasmineResult merged = new JasmineResult();
+		long detailsBytes = 0;
+		long specRecords = 0;
+		for (File file : files) {
+			DataInputStream in = open(file);
+			try {
+				JasmineResult result = readHeader(in, file);
+				merged.setSpecCount(merged.getSpecCount() + result.getSpecCount());
+				merged.setFailureCount(merged.getFailureCount() + result.getFailureCount());
+				merged.setSkippedCount(merged.getSkippedCount() + result.getSkippedCount());
+				int details = in.readInt();
+				detailsBytes += details;
+				IOUtils.skipFully(in, details);
+				specRecords += in.readInt();
+			} finally {
+				IOUtils.closeQuietly(in);
+			}
+		}
+		if(detailsBytes > Integer.MAX_VALUE || specRecords > Integer.MAX_VALUE) {
+			throw new IOException("Too many specs to merge into one result file");
+		}
+
+		FileUtils.forceMkdir(mergedFile.getAbsoluteFile().getParentFile());
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(mergedFile)));
+		try {
+			writeHeader(out, merged.getSpecCount(), merged.getFailureCount(), merged.getSkippedCount());
+			out.writeInt((int) detailsBytes);
+			for (File file : files) {
+				copySection(file, out, false);
+			}
+			out.writeInt((int) specRecords);
+			for (File file : files) {
+				copySection(file, out, true);
+			}
+		} finally {
+			IOUtils.closeQuietly(out);
+		}
+		return merged;
+	}
+
+	/**
+	 * @return the details of the result in the file, without reading its spec records
+	 */
+	public String readDetails(File file) throws IOException {
+		DataInputStream in = open(file);
+		try {
+			readHeader(in, file);
+			byte[] details = new byte[in.readInt()];
+			in.readFully(details);
+			return new String(details, ENCODING);
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
+	}
+
+	/**
+	 * Copies the file's details or (without their count) spec records to out.
+	 */
+	private void copySection(File file, DataOutputStream out, boolean specRecords) throws IOException {
+		DataInputStream in = open(file);
+		try {
+			readHeader(in, file);
+			long length = in.readInt();
+			if(specRecords) {
+				IOUtils.skipFully(in, length);
+				length = (long) in.readInt() * SPEC_RECORD_BYTES;
+			}
+			byte[] buffer = new byte[8192];
+			while(length > 0) {
+				int read = in.read(buffer, 0, (int) Math.min(buffer.length, length));
+				if(read < 0) {
+					throw new EOFException("Unexpected end of "+file);
+				}
+				out.write(buffer, 0, read);
+				length -= read;
+			}
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
+	}
+
+	private void writeHeader(DataOutputStream out, int specCount, int failureCount, int skippedCount) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(specCount);
+		out.writeInt(failureCount);
+		out.writeInt(skippedCount);
+	}
+
+	private JasmineResult readHeader(DataInputStream in, File file) throws IOException {
+		if(in.readInt() != MAGIC || in.readInt() != VERSION) {
+			throw new IOException(file+" is not a Jasmine result file written by this version of the plugin");
+		}
+		JasmineResult result = new JasmineResult();
+		result.setSpecCount(in.readInt());
+		result.setFailureCount(in.readInt());
+		result.setSkippedCount(in.readInt());
+		return result;
+	}
+
+	private DataInputStream open(File file) throws IOException {
+		return new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+	}
+
+}
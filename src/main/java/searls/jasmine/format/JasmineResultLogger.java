@@ -1,8 +1,12 @@
 package searls.jasmine.format;
 
+import java.util.Iterator;
+import java.util.List;
+
 import org.apache.maven.plugin.logging.Log;
 
 import searls.jasmine.model.JasmineResult;
+import searls.jasmine.model.SpecTimings;
 
 public class JasmineResultLogger {
 
@@ -14,17 +18,54 @@ public class JasmineResultLogger {
 	public static final String INDENT = "  ";
 	
 	private Log log;
+	private int slowestCount;
 
 	public void setLog(Log log) {
 		this.log = log;
 	}
 
+	/**
+	 * Also lists this many of the slowest specs and suites, when their durations are known.
+	 */
+	public void setSlowestCount(int slowestCount) {
+		this.slowestCount = slowestCount;
+	}
+
 	public void log(JasmineResult result) {
 		log.info(HEADER);
 		
 		log.info(result.getDetails());
 
+		logSummary(result);
+	}
+
+	/**
+	 * Logs a merged result with the details of each of its shards, reading them one at a time.
+	 */
+	public void log(JasmineResult merged, Iterator<String> shardDetails) {
+		log.info(HEADER);
+
+		while(shardDetails.hasNext()) {
+			log.info(shardDetails.next());
+		}
+
+		logSummary(merged);
+	}
+
+	private void logSummary(JasmineResult result) {
 		log.info("\nResults:\n\n"+result.getDescription()+"\n");		
+		
+		if(slowestCount > 0 && !result.getSpecTimings().isEmpty()) {
+			log.info(slowest("specs", result.getSpecTimings().getSpecs())+slowest("suites", result.getSpecTimings().getSuites()));
+		}
+	}
+
+	private String slowest(String kind, List<SpecTimings.Timing> timings) {
+		StringBuilder slowest = new StringBuilder("Slowest "+kind+":\n");
+		for (SpecTimings.Timing timing : SpecTimings.slowest(timings, slowestCount)) {
+			slowest.append(INDENT).append(String.format("%8d ms  ", timing.getDurationMillis())).append(timing.getFullName()).append("\n");
+		}
+		return slowest.toString();
 	}
 
 }
@@ -0,0 +1,203 @@
+package searls.jasmine.format;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Combines the JUnit XML reports of several spec runner shards into a single testsuite.
+ *
+ * The reports are streamed rather than parsed into documents, once to add up their counts and once to copy
+ * their testcases, so merging needs the same little memory however many testcases there are.
+ */
+public class JunitXmlReportMerger {
+
+	private static final String ENCODING = "UTF-8";
+	private static final String[] SUMMED_ATTRIBUTES = { "tests", "failures", "skipped", "errors" };
+	private static final String TIME = "time";
+
+	private final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+	private final XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+
+	public void merge(List<File> shardReports, File mergedReport) {
+		try {
+			Map<String, String> mergedAttributes = new LinkedHashMap<String, String>();
+			long[] totals = new long[SUMMED_ATTRIBUTES.length];
+			double longestTime = 0;
+			String rootName = null;
+
+			for (File shardReport : shardReports) {
+				InputStream in = new BufferedInputStream(new FileInputStream(shardReport));
+				try {
+					XMLStreamReader reader = inputFactory.createXMLStreamReader(in);
+					reader.nextTag();
+					if(rootName == null) {
+						rootName = reader.getLocalName();
+					}
+					for (int i = 0; i < reader.getAttributeCount(); i++) {
+						if(!mergedAttributes.containsKey(attributeName(reader, i))) {
+							mergedAttributes.put(attributeName(reader, i), reader.getAttributeValue(i));
+						}
+					}
+					for (int i = 0; i < SUMMED_ATTRIBUTES.length; i++) {
+						totals[i] += parseCount(reader.getAttributeValue(null, SUMMED_ATTRIBUTES[i]));
+					}
+					longestTime = Math.max(longestTime, parseTime(reader.getAttributeValue(null, TIME)));
+					reader.close();
+				} finally {
+					IOUtils.closeQuietly(in);
+				}
+			}
+			for (int i = 0; i < SUMMED_ATTRIBUTES.length; i++) {
+				mergedAttributes.put(SUMMED_ATTRIBUTES[i], String.valueOf(totals[i]));
+			}
+			//The shards ran concurrently, so the slowest one is how long the whole suite took
+			mergedAttributes.put(TIME, String.format(Locale.US, "%.3f", longestTime));
+
+			write(shardReports, mergedReport, rootName != null ? rootName : "testsuite", mergedAttributes);
+		} catch (Exception e) {
+			throw new RuntimeException("Failed to merge JUnit XML reports into "+mergedReport, e);
+		}
+	}
+
+	private void write(List<File> shardReports, File mergedReport, String rootName, Map<String, String> attributes) throws Exception {
+		mergedReport.getAbsoluteFile().getParentFile().mkdirs();
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(mergedReport));
+		try {
+			XMLStreamWriter writer = outputFactory.createXMLStreamWriter(out, ENCODING);
+			writer.writeStartDocument(ENCODING, "1.0");
+			writer.writeStartElement(rootName);
+			for (Map.Entry<String, String> attribute : attributes.entrySet()) {
+				writer.writeAttribute(attribute.getKey(), attribute.getValue());
+			}
+			for (File shardReport : shardReports) {
+				InputStream in = new BufferedInputStream(new FileInputStream(shardReport));
+				try {
+					XMLStreamReader reader = inputFactory.createXMLStreamReader(in);
+					reader.nextTag();
+					copyChildren(reader, writer);
+					reader.close();
+				} finally {
+					IOUtils.closeQuietly(in);
+				}
+			}
+			writer.writeEndElement();
+			writer.writeEndDocument();
+			writer.close();
+		} finally {
+			IOUtils.closeQuietly(out);
+		}
+	}
+
+	/**
+	 * Copies everything inside the element the reader is at. An element is only started once the next event
+	 * shows whether it's empty, so that empty elements stay empty elements (&lt;testcase .../&gt;).
+	 */
+	private void copyChildren(XMLStreamReader reader, XMLStreamWriter writer) throws XMLStreamException {
+		int depth = 0;
+		PendingElement pending = null;
+		while(reader.hasNext()) {
+			int event = reader.next();
+			if(event == XMLStreamConstants.END_ELEMENT && pending != null) {
+				pending.write(writer, true);
+				pending = null;
+				depth--;
+				continue;
+			}
+			if(pending != null) {
+				pending.write(writer, false);
+				pending = null;
+			}
+			switch(event) {
+			case XMLStreamConstants.START_ELEMENT:
+				pending = new PendingElement(reader);
+				depth++;
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				if(depth == 0) {
+					return;
+				}
+				writer.writeEndElement();
+				depth--;
+				break;
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.SPACE:
+				writer.writeCharacters(reader.getText());
+				break;
+			case XMLStreamConstants.CDATA:
+				writer.writeCData(reader.getText());
+				break;
+			case XMLStreamConstants.COMMENT:
+				writer.writeComment(reader.getText());
+				break;
+			default:
+				break;
+			}
+		}
+	}
+
+	private static class PendingElement {
+		private final String name;
+		private final String[] attributeNames;
+		private final String[] attributeValues;
+
+		PendingElement(XMLStreamReader reader) {
+			name = qualifiedName(reader.getPrefix(), reader.getLocalName());
+			attributeNames = new String[reader.getAttributeCount()];
+			attributeValues = new String[attributeNames.length];
+			for (int i = 0; i < attributeNames.length; i++) {
+				attributeNames[i] = attributeName(reader, i);
+				attributeValues[i] = reader.getAttributeValue(i);
+			}
+		}
+
+		void write(XMLStreamWriter writer, boolean empty) throws XMLStreamException {
+			if(empty) {
+				writer.writeEmptyElement(name);
+			} else {
+				writer.writeStartElement(name);
+			}
+			for (int i = 0; i < attributeNames.length; i++) {
+				writer.writeAttribute(attributeNames[i], attributeValues[i]);
+			}
+		}
+	}
+
+	private static String attributeName(XMLStreamReader reader, int index) {
+		return qualifiedName(reader.getAttributePrefix(index), reader.getAttributeLocalName(index));
+	}
+
+	private static String qualifiedName(String prefix, String localName) {
+		return prefix == null || prefix.length() == 0 ? localName : prefix+":"+localName;
+	}
+
+	private long parseCount(String value) {
+		return value == null || value.length() == 0 ? 0 : Long.parseLong(value);
+	}
+
+	private double parseTime(String value) {
+		try {
+			return value == null || value.length() == 0 ? 0 : Double.parseDouble(value);
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+}
@@ -0,0 +1,119 @@
+package searls.jasmine.format;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+import searls.jasmine.model.JasmineReport;
+import searls.jasmine.model.ReportItem;
+import searls.jasmine.model.ReportMessage;
+
+/**
+ * Streams a JUnit XML report with one testcase per spec of a {@link JasmineReport} to disk, with the
+ * spec durations recorded by the runner's timing reporter.
+ */
+public class JunitXmlReportWriter {
+
+	private static final String ENCODING = "UTF-8";
+
+	private XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+
+	public void write(JasmineReport report, File junitXmlReport) throws IOException {
+		File parent = junitXmlReport.getAbsoluteFile().getParentFile();
+		if(parent != null) {
+			FileUtils.forceMkdir(parent);
+		}
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(junitXmlReport));
+		try {
+			XMLStreamWriter xml = outputFactory.createXMLStreamWriter(out, ENCODING);
+			xml.writeStartDocument(ENCODING, "1.0");
+			xml.writeStartElement("testsuite");
+			xml.writeAttribute("errors", "0");
+			xml.writeAttribute("name", "jasmine.specs");
+			xml.writeAttribute("tests", String.valueOf(report.getSpecCount()));
+			xml.writeAttribute("failures", String.valueOf(report.getFailureCount()));
+			xml.writeAttribute("skipped", String.valueOf(report.getSkippedCount()));
+			xml.writeAttribute("hostname", "localhost");
+			xml.writeAttribute("time", seconds(report.getDurationMillis()));
+			xml.writeAttribute("timestamp", currentTimestamp());
+			writeTestcases(xml, report.getSuites(), "");
+			xml.writeEndElement();
+			xml.writeEndDocument();
+			xml.close();
+		} catch (XMLStreamException e) {
+			throw new IOException("Failed to write JUnit XML report to "+junitXmlReport, e);
+		} finally {
+			IOUtils.closeQuietly(out);
+		}
+	}
+
+	private void writeTestcases(XMLStreamWriter xml, List<ReportItem> items, String runningName) throws XMLStreamException {
+		for (ReportItem item : items) {
+			String name = (runningName.length() > 0 ? runningName+" " : "")+item.getName();
+			if(item.isSpec()) {
+				writeTestcase(xml, item, name);
+			}
+			writeTestcases(xml, item.getChildren(), name);
+		}
+	}
+
+	/**
+	 * Only a spec that explicitly failed is a failure. One without a result (e.g. skipped by failFast) is
+	 * 	written as skipped, as the testsuite's skipped count has it.
+	 */
+	private void writeTestcase(XMLStreamWriter xml, ReportItem spec, String name) throws XMLStreamException {
+		boolean failure = ReportItem.FAILED.equals(spec.getResult());
+		boolean skipped = !failure && !ReportItem.PASSED.equals(spec.getResult());
+		if(failure || skipped) {
+			xml.writeStartElement("testcase");
+		} else {
+			xml.writeEmptyElement("testcase");
+		}
+		xml.writeAttribute("classname", "jasmine");
+		xml.writeAttribute("name", name);
+		xml.writeAttribute("time", seconds(spec.getDurationMillis()));
+		xml.writeAttribute("failure", String.valueOf(failure));
+		if(failure) {
+			StringBuilder message = new StringBuilder();
+			String type = "";
+			for (ReportMessage reportMessage : spec.getMessages()) {
+				message.append(reportMessage.getMessage());
+				type = reportMessage.getType()+"."+reportMessage.getMatcherName();
+			}
+			xml.writeStartElement("error");
+			xml.writeAttribute("type", type);
+			xml.writeAttribute("message", message.toString());
+			xml.writeCharacters(message.toString());
+			xml.writeEndElement();
+			xml.writeEndElement();
+		} else if(skipped) {
+			xml.writeEmptyElement("skipped");
+			xml.writeEndElement();
+		}
+	}
+
+	private String seconds(long millis) {
+		return String.format(Locale.US, "%.3f", Math.max(millis, 0) / 1000.0);
+	}
+
+	private String currentTimestamp() {
+		SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss");
+		format.setTimeZone(TimeZone.getTimeZone("UTC"));
+		return format.format(new Date());
+	}
+
+}
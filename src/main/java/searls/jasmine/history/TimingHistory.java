@@ -0,0 +1,190 @@
+package searls.jasmine.history;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+import searls.jasmine.model.SpecTimings;
+
+/**
+ * An append-only file of the durations recorded by past builds, one tab-separated line per spec (or suite, or
+ * spec file):
+ *
+ * <pre>build timestamp	kind	duration in ms	full name</pre>
+ *
+ * so trends are one grep away (e.g. <code>grep 'spec.*Cart totals' timing-history.tsv</code>). Each build's lines
+ * are appended together, and the file is trimmed to the most recent builds as it grows.
+ */
+public class TimingHistory {
+
+	public static final String SPEC = "spec";
+	public static final String SUITE = "suite";
+	public static final String FILE = "file";
+
+	private static final String ENCODING = "UTF-8";
+	private static final char SEPARATOR = '\t';
+
+	private final File file;
+
+	public TimingHistory(File file) {
+		this.file = file;
+	}
+
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Appends one build's timings, then drops all but the most recent maxBuilds builds.
+	 */
+	public void append(SpecTimings timings, long buildTimestamp, int maxBuilds) throws IOException {
+		File parent = file.getAbsoluteFile().getParentFile();
+		if(parent != null) {
+			FileUtils.forceMkdir(parent);
+		}
+		Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), ENCODING));
+		try {
+			appendAll(out, buildTimestamp, SPEC, timings.getSpecs());
+			appendAll(out, buildTimestamp, SUITE, timings.getSuites());
+			appendAll(out, buildTimestamp, FILE, timings.getFiles());
+		} finally {
+			IOUtils.closeQuietly(out);
+		}
+		trim(maxBuilds);
+	}
+
+	/**
+	 * @return the most recently recorded duration of everything of the given kind, by full name
+	 */
+	public Map<String, Long> latestDurations(String kind) throws IOException {
+		Map<String, Long> durations = new HashMap<String, Long>();
+		if(!file.isFile()) {
+			return durations;
+		}
+		BufferedReader in = reader();
+		try {
+			String line;
+			while((line = in.readLine()) != null) {
+				String[] fields = split(line);
+				if(fields != null && fields[1].equals(kind)) {
+					try {
+						durations.put(fields[3], Long.parseLong(fields[2]));
+					} catch (NumberFormatException e) {
+						//A line mangled by hand or by an interrupted build; the next build will record it again
+					}
+				}
+			}
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
+		return durations;
+	}
+
+	private void appendAll(Writer out, long buildTimestamp, String kind, List<SpecTimings.Timing> timings) throws IOException {
+		for (SpecTimings.Timing timing : timings) {
+			out.write(String.valueOf(buildTimestamp));
+			out.write(SEPARATOR);
+			out.write(kind);
+			out.write(SEPARATOR);
+			out.write(String.valueOf(timing.getDurationMillis()));
+			out.write(SEPARATOR);
+			out.write(timing.getFullName().replace('\t', ' ').replace('\r', ' ').replace('\n', ' '));
+			out.write('\n');
+		}
+	}
+
+	/**
+	 * Rewrites the file without its oldest builds, but only once it holds more than maxBuilds of them.
+	 */
+	private void trim(int maxBuilds) throws IOException {
+		int builds = countBuilds();
+		if(maxBuilds <= 0 || builds <= maxBuilds) {
+			return;
+		}
+		int buildsToDrop = builds - maxBuilds;
+		File trimmed = new File(file.getAbsoluteFile().getParentFile(), file.getName()+".tmp");
+		BufferedReader in = reader();
+		Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(trimmed), ENCODING));
+		try {
+			String build = null;
+			String line;
+			while((line = in.readLine()) != null) {
+				String timestamp = timestamp(line);
+				if(!timestamp.equals(build)) {
+					build = timestamp;
+					buildsToDrop--;
+				}
+				if(buildsToDrop < 0) {
+					out.write(line);
+					out.write('\n');
+				}
+			}
+		} finally {
+			IOUtils.closeQuietly(in);
+			IOUtils.closeQuietly(out);
+		}
+		FileUtils.deleteQuietly(file);
+		if(!trimmed.renameTo(file)) {
+			throw new IOException("Failed to rename "+trimmed+" to "+file);
+		}
+	}
+
+	private int countBuilds() throws IOException {
+		int builds = 0;
+		BufferedReader in = reader();
+		try {
+			String build = null;
+			String line;
+			while((line = in.readLine()) != null) {
+				String timestamp = timestamp(line);
+				if(!timestamp.equals(build)) {
+					build = timestamp;
+					builds++;
+				}
+			}
+		} finally {
+			IOUtils.closeQuietly(in);
+		}
+		return builds;
+	}
+
+	private BufferedReader reader() throws IOException {
+		return new BufferedReader(new InputStreamReader(new FileInputStream(file), ENCODING));
+	}
+
+	private String timestamp(String line) {
+		int separator = line.indexOf(SEPARATOR);
+		return separator >= 0 ? line.substring(0, separator) : line;
+	}
+
+	/**
+	 * @return the four fields of the line, or null if it doesn't have them
+	 */
+	private String[] split(String line) {
+		String[] fields = new String[4];
+		int start = 0;
+		for (int i = 0; i < 3; i++) {
+			int separator = line.indexOf(SEPARATOR, start);
+			if(separator < 0) {
+				return null;
+			}
+			fields[i] = line.substring(start, separator);
+			start = separator + 1;
+		}
+		fields[3] = line.substring(start);
+		return fields;
+	}
+
+}
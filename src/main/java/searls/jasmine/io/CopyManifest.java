@@ -0,0 +1,115 @@
+package searls.jasmine.io;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Remembers the size, modification time and (optionally) content hash of every file copied
+ * by {@link DirectoryCopier#copyDirectoryIncrementally}, keyed by path relative to the source directory.
+ */
+public class CopyManifest {
+
+	private final Map<String, Entry> entries = new HashMap<String, Entry>();
+
+	public static CopyManifest load(File manifestFile) throws IOException {
+		CopyManifest manifest = new CopyManifest();
+		if(manifestFile.isFile()) {
+			Properties properties = new Properties();
+			InputStream in = new BufferedInputStream(new FileInputStream(manifestFile));
+			try {
+				properties.load(in);
+			} finally {
+				IOUtils.closeQuietly(in);
+			}
+			for (Object relativePath : properties.keySet()) {
+				Entry entry = Entry.parse(properties.getProperty((String) relativePath));
+				if(entry != null) {
+					manifest.entries.put((String) relativePath, entry);
+				}
+			}
+		}
+		return manifest;
+	}
+
+	public void save(File manifestFile) throws IOException {
+		Properties properties = new Properties();
+		for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+			properties.setProperty(entry.getKey(), entry.getValue().toString());
+		}
+		manifestFile.getAbsoluteFile().getParentFile().mkdirs();
+		OutputStream out = new BufferedOutputStream(new FileOutputStream(manifestFile));
+		try {
+			properties.store(out, "Files copied by the jasmine-maven-plugin. Delete this file to force a full copy.");
+		} finally {
+			IOUtils.closeQuietly(out);
+		}
+	}
+
+	public Entry get(String relativePath) {
+		return entries.get(relativePath);
+	}
+
+	public void put(String relativePath, Entry entry) {
+		entries.put(relativePath, entry);
+	}
+
+	public Entry remove(String relativePath) {
+		return entries.remove(relativePath);
+	}
+
+	public Set<String> relativePaths() {
+		return entries.keySet();
+	}
+
+	public static class Entry {
+		private final long size;
+		private final long lastModified;
+		private final String contentHash;
+
+		public Entry(long size, long lastModified, String contentHash) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.contentHash = contentHash;
+		}
+
+		public long getSize() {
+			return size;
+		}
+
+		public long getLastModified() {
+			return lastModified;
+		}
+
+		public String getContentHash() {
+			return contentHash;
+		}
+
+		private static Entry parse(String value) {
+			String[] parts = value.split(",");
+			if(parts.length < 2) {
+				return null;
+			}
+			try {
+				return new Entry(Long.parseLong(parts[0]), Long.parseLong(parts[1]), parts.length > 2 ? parts[2] : null);
+			} catch (NumberFormatException e) {
+				return null;
+			}
+		}
+
+		public String toString() {
+			return size+","+lastModified+(contentHash != null ? ","+contentHash : "");
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package searls.jasmine.io;
+
+public class CopyResult {
+
+	private int copiedFiles;
+	private long copiedBytes;
+	private int skippedFiles;
+	private long skippedBytes;
+	private int deletedFiles;
+
+	public void copied(long bytes) {
+		copiedFiles++;
+		copiedBytes += bytes;
+	}
+
+	public void skipped(long bytes) {
+		skippedFiles++;
+		skippedBytes += bytes;
+	}
+
+	public void deleted() {
+		deletedFiles++;
+	}
+
+	public int getCopiedFiles() {
+		return copiedFiles;
+	}
+
+	public long getCopiedBytes() {
+		return copiedBytes;
+	}
+
+	public int getSkippedFiles() {
+		return skippedFiles;
+	}
+
+	public long getSkippedBytes() {
+		return skippedBytes;
+	}
+
+	public int getDeletedFiles() {
+		return deletedFiles;
+	}
+
+	public String toString() {
+		return "Copied "+copiedFiles+" files ("+copiedBytes+" bytes), skipped "+skippedFiles+" unchanged files ("+skippedBytes+" bytes), deleted "+deletedFiles+" stale files";
+	}
+}
@@ -0,0 +1,102 @@
+package searls.jasmine.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * How files get from ${jsSrcDir}/${jsTestSrcDir} into ${jasmineTargetDir}, and from there into the package.
+ */
+public enum CopyStrategy {
+
+	/** Copies through commons-io stream buffers, like the plugin always has. */
+	STREAM {
+		public void copyFile(File srcFile, File destFile) throws IOException {
+			prepareDestination(destFile);
+			FileUtils.copyFile(srcFile, destFile);
+		}
+	},
+
+	/** Copies with FileChannel.transferTo, letting the OS move the bytes without copying them through the JVM. */
+	CHANNEL {
+		public void copyFile(File srcFile, File destFile) throws IOException {
+			prepareDestination(destFile);
+			FileInputStream in = new FileInputStream(srcFile);
+			FileOutputStream out = new FileOutputStream(destFile);
+			try {
+				FileChannel source = in.getChannel();
+				FileChannel destination = out.getChannel();
+				long size = source.size();
+				long position = 0;
+				while(position < size) {
+					position += source.transferTo(position, size - position, destination);
+				}
+			} finally {
+				IOUtils.closeQuietly(out);
+				IOUtils.closeQuietly(in);
+			}
+			destFile.setLastModified(srcFile.lastModified());
+		}
+	},
+
+	/**
+	 * Hard-links the file into place, falling back to a symbolic link and then to a channel copy when the
+	 * source and destination don't share a file system (or it doesn't support links). Note that a hard-linked 
+	 * copy <em>is</em> the source file, so anything that modifies the copy in place modifies the source.
+	 */
+	LINK {
+		public void copyFile(File srcFile, File destFile) throws IOException {
+			prepareDestination(destFile);
+			Path source = srcFile.getAbsoluteFile().toPath();
+			Path destination = destFile.toPath();
+			try {
+				Files.createLink(destination, source);
+				return;
+			} catch (IOException e) {
+				//try a symbolic link next
+			} catch (UnsupportedOperationException e) {
+				//try a symbolic link next
+			}
+			try {
+				Files.createSymbolicLink(destination, source);
+				return;
+			} catch (IOException e) {
+				//fall back to copying
+			} catch (UnsupportedOperationException e) {
+				//fall back to copying
+			}
+			CHANNEL.copyFile(srcFile, destFile);
+		}
+	};
+
+	public abstract void copyFile(File srcFile, File destFile) throws IOException;
+
+	/**
+	 * @return the strategy with the given (case-insensitive) name, or STREAM when the name is blank
+	 */
+	public static CopyStrategy forName(String name) {
+		if(name == null || name.trim().length() == 0) {
+			return STREAM;
+		}
+		try {
+			return valueOf(name.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Unknown copy strategy '"+name+"'. Expected one of stream, channel or link.", e);
+		}
+	}
+
+	/**
+	 * Removes any existing destination first: if it's a link left behind by LINK, writing through it would overwrite the source.
+	 */
+	private static void prepareDestination(File destFile) throws IOException {
+		FileUtils.forceMkdir(destFile.getAbsoluteFile().getParentFile());
+		Files.deleteIfExists(destFile.toPath());
+	}
+}
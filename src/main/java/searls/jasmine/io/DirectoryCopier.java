@@ -1,8 +1,13 @@
 package searls.jasmine.io;
 
 import java.io.File;
+import java.io.FileFilter;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.filefilter.DirectoryFileFilter;
 import org.apache.commons.io.filefilter.FileFileFilter;
 import org.apache.commons.io.filefilter.HiddenFileFilter;
@@ -14,11 +19,142 @@ public class DirectoryCopier {
 	private FileFilterUtilsWrapper fileFilterUtilsWrapper = new FileFilterUtilsWrapper();
 	
 	public void copyDirectory(File srcDir, File destDir, String suffixFilter) throws IOException {
+		fileUtilsWrapper.copyDirectory(srcDir, destDir, buildFilter(suffixFilter));
+	}
+
+	public void copyDirectory(File srcDir, File destDir, String suffixFilter, CopyStrategy copyStrategy) throws IOException {
+		copyFiles(srcDir, destDir, buildFilter(suffixFilter), copyStrategy);
+	}
+
+	/**
+	 * Copies only the files that are new or changed since the copy recorded in the manifest, and deletes
+	 * previously copied files whose source has disappeared. A file counts as changed when its size or
+	 * modification time differ from the manifest, unless compareContentHashes is set and its content hash didn't change.
+	 */
+	public CopyResult copyDirectoryIncrementally(File srcDir, File destDir, String suffixFilter, File manifestFile, boolean compareContentHashes, 
+			CopyStrategy copyStrategy) throws IOException {
+		CopyManifest manifest = CopyManifest.load(manifestFile);
+		CopyResult result = new CopyResult();
+		Set<String> seen = new HashSet<String>();
+		copyChangedFiles(srcDir, destDir, "", buildFilter(suffixFilter), manifest, compareContentHashes, copyStrategy, seen, result);
+		deleteRemovedFiles(destDir, manifest, seen, result);
+		manifest.save(manifestFile);
+		return result;
+	}
+
+	/**
+	 * @return whether copies of srcDir include the given file or directory below it, i.e. whether the copy filter
+	 * 	accepts it and none of the directories between it and srcDir are hidden
+	 */
+	public boolean includes(File srcDir, File file, String suffixFilter) {
+		if(!buildFilter(suffixFilter).accept(file)) {
+			return false;
+		}
+		for (File parent = file.getAbsoluteFile().getParentFile(); parent != null && !parent.equals(srcDir.getAbsoluteFile()); parent = parent.getParentFile()) {
+			if(!HiddenFileFilter.VISIBLE.accept(parent)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Copies one file the way {@link #copyDirectoryIncrementally} would, recording it in the given manifest.
+	 * 
+	 * @param relativePath the file's path relative to the source directory, with forward slashes
+	 */
+	public void copyFileIncrementally(File src, File dest, String relativePath, CopyManifest manifest, boolean compareContentHashes, 
+			CopyStrategy copyStrategy, CopyResult result) throws IOException {
+		copyFileIfChanged(src, dest, relativePath, manifest, compareContentHashes, copyStrategy, result);
+	}
+
+	/**
+	 * Deletes the copy of a removed source file or directory, and forgets it (and, for a directory, everything
+	 * below it) in the given manifest.
+	 */
+	public void deleteCopy(File dest, String relativePath, CopyManifest manifest, CopyResult result) {
+		String relativeDir = relativePath + "/";
+		for (String copiedPath : new ArrayList<String>(manifest.relativePaths())) {
+			if(copiedPath.equals(relativePath) || copiedPath.startsWith(relativeDir)) {
+				manifest.remove(copiedPath);
+				result.deleted();
+			}
+		}
+		FileUtils.deleteQuietly(dest);
+	}
+
+	private IOFileFilter buildFilter(String suffixFilter) {
 		IOFileFilter filter = fileFilterUtilsWrapper.suffixFileFilter(suffixFilter);
 		filter = fileFilterUtilsWrapper.and(FileFileFilter.FILE,filter);
 		filter = fileFilterUtilsWrapper.or(DirectoryFileFilter.DIRECTORY,filter);
 		filter = fileFilterUtilsWrapper.and(HiddenFileFilter.VISIBLE, filter);
-		fileUtilsWrapper.copyDirectory(srcDir, destDir, filter);
+		return filter;
+	}
+
+	private void copyFiles(File srcDir, File destDir, IOFileFilter filter, CopyStrategy copyStrategy) throws IOException {
+		File[] children = srcDir.listFiles((FileFilter) filter);
+		if(children == null) {
+			return;
+		}
+		for (File child : children) {
+			if(child.isDirectory()) {
+				copyFiles(child, new File(destDir, child.getName()), filter, copyStrategy);
+			} else {
+				copyStrategy.copyFile(child, new File(destDir, child.getName()));
+			}
+		}
+	}
+
+	private void copyChangedFiles(File srcDir, File destDir, String relativeDir, IOFileFilter filter, CopyManifest manifest, 
+			boolean compareContentHashes, CopyStrategy copyStrategy, Set<String> seen, CopyResult result) throws IOException {
+		File[] children = srcDir.listFiles((FileFilter) filter);
+		if(children == null) {
+			return;
+		}
+		for (File child : children) {
+			String relativePath = relativeDir + child.getName();
+			if(child.isDirectory()) {
+				copyChangedFiles(child, new File(destDir, child.getName()), relativePath + "/", filter, manifest, compareContentHashes, copyStrategy, seen, result);
+			} else {
+				seen.add(relativePath);
+				copyFileIfChanged(child, new File(destDir, child.getName()), relativePath, manifest, compareContentHashes, copyStrategy, result);
+			}
+		}
+	}
+
+	private void copyFileIfChanged(File src, File dest, String relativePath, CopyManifest manifest, boolean compareContentHashes, 
+			CopyStrategy copyStrategy, CopyResult result) throws IOException {
+		long size = src.length();
+		long lastModified = src.lastModified();
+		CopyManifest.Entry previous = manifest.get(relativePath);
+		boolean destIntact = dest.isFile() && previous != null && dest.length() == previous.getSize();
+
+		if(destIntact && previous.getSize() == size && previous.getLastModified() == lastModified) {
+			result.skipped(size);
+			return;
+		}
+		String contentHash = compareContentHashes ? fileUtilsWrapper.contentHash(src) : null;
+		if(destIntact && contentHash != null && contentHash.equals(previous.getContentHash())) {
+			manifest.put(relativePath, new CopyManifest.Entry(size, lastModified, contentHash));
+			result.skipped(size);
+			return;
+		}
+
+		copyStrategy.copyFile(src, dest);
+		manifest.put(relativePath, new CopyManifest.Entry(size, lastModified, contentHash));
+		result.copied(size);
+	}
+
+	private void deleteRemovedFiles(File destDir, CopyManifest manifest, Set<String> seen, CopyResult result) {
+		Set<String> removed = new HashSet<String>(manifest.relativePaths());
+		removed.removeAll(seen);
+		for (String relativePath : removed) {
+			manifest.remove(relativePath);
+			File dest = new File(destDir, relativePath);
+			if(dest.delete()) {
+				result.deleted();
+			}
+		}
 	}
 
 }
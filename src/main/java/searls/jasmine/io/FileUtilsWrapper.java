@@ -1,25 +1,41 @@
 package searls.jasmine.io;
 
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.Collection;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.filefilter.IOFileFilter;
 
+import searls.jasmine.cache.CacheKeyBuilder;
+
 public class FileUtilsWrapper {
 
+	private final ParallelFileScanner fileScanner;
+
+	public FileUtilsWrapper() {
+		this(new ParallelFileScanner());
+	}
+
+	protected FileUtilsWrapper(ParallelFileScanner fileScanner) {
+		this.fileScanner = fileScanner;
+	}
+
 	public String readFileToString(File file) throws IOException {
 		return FileUtils.readFileToString(file);
 	}
 
+	public byte[] readFileToByteArray(File file) throws IOException {
+		return FileUtils.readFileToByteArray(file);
+	}
+
 	public void forceMkdir(File file) throws IOException {
 		FileUtils.forceMkdir(file);
 	}
 
-	@SuppressWarnings("unchecked")
 	public Collection<File> listFiles(File file, String includes, String excludes) throws IOException {
-		return org.codehaus.plexus.util.FileUtils.getFiles(file, includes, excludes);
+		return fileScanner.scan(file, includes, excludes);
 	}
 
 	public void writeStringToFile(File file, String data, String encoding) throws IOException {
@@ -30,4 +46,11 @@ public class FileUtilsWrapper {
 		FileUtils.copyDirectory(srcDir, destDir, filter);
 	}
 
+	public String contentHash(File file) throws IOException {
+		if(!file.isFile()) {
+			throw new FileNotFoundException(file.getAbsolutePath());
+		}
+		return new CacheKeyBuilder().addFile(file).build();
+	}
+
 }
@@ -0,0 +1,153 @@
+package searls.jasmine.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.codehaus.plexus.util.SelectorUtils;
+import org.codehaus.plexus.util.StringUtils;
+
+/**
+ * Finds the files matching comma-separated ant patterns, like plexus <code>FileUtils.getFiles</code>, but
+ * walks subdirectories in parallel and skips directories the patterns can't match anything in, instead of
+ * listing them and filtering afterwards.
+ *
+ * Results are sorted, so they don't depend on the order the walk happened to finish in.
+ */
+public class ParallelFileScanner {
+
+	private static final ForkJoinPool POOL = new ForkJoinPool();
+	private static final String[] ALL_FILES = { "**" };
+	private static final String ANY_DEPTH = "**";
+
+	public List<File> scan(File directory, String includes, String excludes) throws IOException {
+		if(!directory.isDirectory()) {
+			throw new IllegalArgumentException(directory+" is not a directory");
+		}
+		Patterns patterns = new Patterns(includes, excludes);
+		List<File> files;
+		try {
+			files = POOL.invoke(new ScanTask(directory.toPath(), "", patterns));
+		} catch (ScanException e) {
+			throw e.getCause();
+		}
+		Collections.sort(files);
+		return files;
+	}
+
+	private static class Patterns {
+		private final String[] includes;
+		private final String[] excludes;
+
+		Patterns(String includes, String excludes) {
+			this.includes = includes != null ? normalize(StringUtils.split(includes, ",")) : ALL_FILES;
+			this.excludes = excludes != null ? normalize(StringUtils.split(excludes, ",")) : new String[0];
+		}
+
+		private static String[] normalize(String[] patterns) {
+			String[] normalized = new String[patterns.length];
+			for (int i = 0; i < patterns.length; i++) {
+				String pattern = patterns[i].trim().replace('/', File.separatorChar).replace('\\', File.separatorChar);
+				normalized[i] = pattern.endsWith(File.separator) ? pattern + ANY_DEPTH : pattern;
+			}
+			return normalized;
+		}
+
+		boolean matches(String name) {
+			return matchesAny(includes, name) && !matchesAny(excludes, name);
+		}
+
+		/**
+		 * A directory is worth walking unless no include could match below it, or an exclude ending in
+		 * 	** excludes everything below it.
+		 */
+		boolean couldMatchInside(String directoryName) {
+			for (String exclude : excludes) {
+				if(exclude.endsWith(ANY_DEPTH) && SelectorUtils.matchPath(exclude, directoryName, true)) {
+					return false;
+				}
+			}
+			for (String include : includes) {
+				if(SelectorUtils.matchPatternStart(include, directoryName, true)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		private boolean matchesAny(String[] patterns, String name) {
+			for (String pattern : patterns) {
+				if(SelectorUtils.matchPath(pattern, name, true)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	private static class ScanTask extends RecursiveTask<List<File>> {
+		private static final long serialVersionUID = 1L;
+
+		private final Path directory;
+		private final String relativeName;
+		private final Patterns patterns;
+
+		ScanTask(Path directory, String relativeName, Patterns patterns) {
+			this.directory = directory;
+			this.relativeName = relativeName;
+			this.patterns = patterns;
+		}
+
+		@Override
+		protected List<File> compute() {
+			List<File> files = new ArrayList<File>();
+			List<ScanTask> subdirectories = new ArrayList<ScanTask>();
+			try {
+				DirectoryStream<Path> entries = Files.newDirectoryStream(directory);
+				try {
+					for (Path entry : entries) {
+						String name = relativeName + entry.getFileName().toString();
+						if(Files.isDirectory(entry)) {
+							if(patterns.couldMatchInside(name)) {
+								ScanTask subdirectory = new ScanTask(entry, name + File.separator, patterns);
+								subdirectory.fork();
+								subdirectories.add(subdirectory);
+							}
+						} else if(patterns.matches(name)) {
+							files.add(entry.toFile());
+						}
+					}
+				} finally {
+					entries.close();
+				}
+			} catch (IOException e) {
+				throw new ScanException(e);
+			}
+			for (ScanTask subdirectory : subdirectories) {
+				files.addAll(subdirectory.join());
+			}
+			return files;
+		}
+	}
+
+	private static class ScanException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		ScanException(IOException cause) {
+			super(cause);
+		}
+
+		@Override
+		public synchronized IOException getCause() {
+			return (IOException) super.getCause();
+		}
+	}
+
+}
@@ -0,0 +1,187 @@
+package searls.jasmine.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.codehaus.plexus.util.StringUtils;
+
+/**
+ * The phase metrics of every goal run against one ${jasmineTargetDir} in this build (the latest run of each
+ * goal), written as JSON and, optionally, in the Prometheus text format for node-exporter's textfile collector.
+ *
+ * Modules of a reactor build that share a Prometheus file all end up in it, each labelled with its project.
+ */
+public class BuildMetrics {
+
+	private static final Map<File, BuildMetrics> BUILDS = new HashMap<File, BuildMetrics>();
+	private static final Map<File, Map<BuildMetrics, String>> PROMETHEUS_FILES = new HashMap<File, Map<BuildMetrics, String>>();
+	private static final String ENCODING = "UTF-8";
+
+	private final Map<String, List<PhaseMetrics.Phase>> goals = new LinkedHashMap<String, List<PhaseMetrics.Phase>>();
+
+	public static synchronized BuildMetrics forDirectory(File jasmineTargetDir) {
+		File key = jasmineTargetDir.getAbsoluteFile();
+		BuildMetrics build = BUILDS.get(key);
+		if(build == null) {
+			build = new BuildMetrics();
+			BUILDS.put(key, build);
+		}
+		return build;
+	}
+
+	/**
+	 * Records a goal's phases, followed by its total, replacing any earlier run of the same goal.
+	 */
+	public synchronized void record(String goal, PhaseMetrics metrics) {
+		List<PhaseMetrics.Phase> phases = metrics.getPhases();
+		phases.add(metrics.total());
+		goals.remove(goal);
+		goals.put(goal, phases);
+	}
+
+	public synchronized String toJson(String project) {
+		StringBuilder json = new StringBuilder("{\n  \"project\": ").append(quote(project)).append(",\n  \"goals\": {");
+		String goalSeparator = "\n";
+		for (Map.Entry<String, List<PhaseMetrics.Phase>> goal : goals.entrySet()) {
+			json.append(goalSeparator).append("    ").append(quote(goal.getKey())).append(": {");
+			String phaseSeparator = "\n";
+			for (PhaseMetrics.Phase phase : goal.getValue()) {
+				json.append(phaseSeparator).append("      ").append(quote(phase.getName())).append(": { ")
+					.append("\"count\": ").append(phase.getCount())
+					.append(", \"wallMillis\": ").append(millis(phase.getWallNanos()))
+					.append(", \"cpuMillis\": ").append(millis(phase.getCpuNanos()))
+					.append(", \"allocatedBytes\": ").append(phase.getAllocatedBytes())
+					.append(" }");
+				phaseSeparator = ",\n";
+			}
+			json.append("\n    }");
+			goalSeparator = ",\n";
+		}
+		return json.append("\n  }\n}\n").toString();
+	}
+
+	public String toPrometheus(String project) {
+		Map<BuildMetrics, String> builds = new LinkedHashMap<BuildMetrics, String>();
+		builds.put(this, project);
+		return toPrometheus(builds);
+	}
+
+	/**
+	 * @param builds the builds to render, each with its project label
+	 */
+	private static String toPrometheus(Map<BuildMetrics, String> builds) {
+		StringBuilder text = new StringBuilder();
+		appendGauge(text, builds, "jasmine_phase_runs", "How many times each phase ran in the latest run of each jasmine-maven-plugin goal.", new Value() {
+			public String of(PhaseMetrics.Phase phase) { return String.valueOf(phase.getCount()); }
+		});
+		appendGauge(text, builds, "jasmine_phase_wall_seconds", "Wall time spent in each phase of the latest run of each jasmine-maven-plugin goal.", new Value() {
+			public String of(PhaseMetrics.Phase phase) { return seconds(phase.getWallNanos()); }
+		});
+		appendGauge(text, builds, "jasmine_phase_cpu_seconds", "CPU time spent in each phase of the latest run of each jasmine-maven-plugin goal.", new Value() {
+			public String of(PhaseMetrics.Phase phase) { return phase.getCpuNanos() != PhaseMetrics.UNAVAILABLE ? seconds(phase.getCpuNanos()) : null; }
+		});
+		appendGauge(text, builds, "jasmine_phase_allocated_bytes", "Bytes allocated in each phase of the latest run of each jasmine-maven-plugin goal.", new Value() {
+			public String of(PhaseMetrics.Phase phase) { return phase.getAllocatedBytes() != PhaseMetrics.UNAVAILABLE ? String.valueOf(phase.getAllocatedBytes()) : null; }
+		});
+		return text.toString();
+	}
+
+	/**
+	 * @return one line listing each phase of the goal as wall/CPU milliseconds and allocated megabytes
+	 */
+	public synchronized String summarize(String goal) {
+		List<String> phases = new ArrayList<String>();
+		List<PhaseMetrics.Phase> recorded = goals.get(goal);
+		if(recorded != null) {
+			for (PhaseMetrics.Phase phase : recorded) {
+				phases.add(phase.getName()+" "+millis(phase.getWallNanos())+"/"+(phase.getCpuNanos() != PhaseMetrics.UNAVAILABLE ? millis(phase.getCpuNanos()) : "?")+"ms/"+
+						(phase.getAllocatedBytes() != PhaseMetrics.UNAVAILABLE ? String.valueOf(phase.getAllocatedBytes() / (1024 * 1024)) : "?")+"MB");
+			}
+		}
+		return "jasmine:"+goal+" phases (wall/CPU, allocated): "+StringUtils.join(phases.iterator(), ", ");
+	}
+
+	public void writeJson(File file, String project) throws IOException {
+		FileUtils.writeStringToFile(file, toJson(project), ENCODING);
+	}
+
+	/**
+	 * Writes the gauges of every build that has written to the same file so far, this one included. Writes go to a
+	 * uniquely named temporary file first, which is then renamed, so the textfile collector never reads half a file
+	 * and concurrent writers never overwrite each other's half-written files.
+	 */
+	public void writePrometheus(File file, String project) throws IOException {
+		File key = file.getAbsoluteFile();
+		synchronized (BuildMetrics.class) {
+			Map<BuildMetrics, String> builds = PROMETHEUS_FILES.get(key);
+			if(builds == null) {
+				builds = new LinkedHashMap<BuildMetrics, String>();
+				PROMETHEUS_FILES.put(key, builds);
+			}
+			builds.put(this, project);
+
+			File directory = key.getParentFile();
+			FileUtils.forceMkdir(directory);
+			File temporary = File.createTempFile(key.getName()+".", ".tmp", directory);
+			try {
+				FileUtils.writeStringToFile(temporary, toPrometheus(builds), ENCODING);
+				if(!temporary.renameTo(key)) {
+					FileUtils.deleteQuietly(key);
+					if(!temporary.renameTo(key)) {
+						throw new IOException("Failed to rename "+temporary+" to "+key);
+					}
+				}
+			} finally {
+				FileUtils.deleteQuietly(temporary);
+			}
+		}
+	}
+
+	private interface Value {
+		String of(PhaseMetrics.Phase phase);
+	}
+
+	private static void appendGauge(StringBuilder text, Map<BuildMetrics, String> builds, String name, String help, Value value) {
+		text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+		text.append("# TYPE ").append(name).append(" gauge\n");
+		for (Map.Entry<BuildMetrics, String> build : builds.entrySet()) {
+			build.getKey().appendSamples(text, build.getValue(), name, value);
+		}
+	}
+
+	private synchronized void appendSamples(StringBuilder text, String project, String name, Value value) {
+		for (Map.Entry<String, List<PhaseMetrics.Phase>> goal : goals.entrySet()) {
+			for (PhaseMetrics.Phase phase : goal.getValue()) {
+				String sample = value.of(phase);
+				if(sample != null) {
+					text.append(name).append("{project=").append(quote(project)).append(",goal=").append(quote(goal.getKey()))
+						.append(",phase=").append(quote(phase.getName())).append("} ").append(sample).append('\n');
+				}
+			}
+		}
+	}
+
+	private static String millis(long nanos) {
+		return nanos == PhaseMetrics.UNAVAILABLE ? String.valueOf(PhaseMetrics.UNAVAILABLE) : String.valueOf(nanos / 1000000);
+	}
+
+	private static String seconds(long nanos) {
+		return String.format(Locale.US, "%.6f", nanos / 1e9);
+	}
+
+	/**
+	 * Quotes a string the same way for JSON and Prometheus label values (both escape backslashes and quotes).
+	 */
+	private static String quote(String value) {
+		String string = value != null ? value : "";
+		return "\""+string.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n")+"\"";
+	}
+
+}
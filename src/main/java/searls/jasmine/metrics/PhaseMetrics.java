@@ -0,0 +1,192 @@
+package searls.jasmine.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the wall time, CPU time and allocated bytes of the phases of one goal (copying, generating,
+ * loading, running, reporting...). CPU time and allocation are measured on the thread that runs a phase, plus
+ * any threads it hands its work to, so phases run on several threads at once (e.g. parallel shards) are summed
+ * across those threads.
+ *
+ * Where the JVM can't measure CPU time or allocation, they're reported as -1.
+ */
+public class PhaseMetrics {
+
+	public static final long UNAVAILABLE = -1;
+
+	private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+	private final Map<String, Phase> phases = new LinkedHashMap<String, Phase>();
+	private final Timer total = new Timer(null);
+
+	/**
+	 * Starts timing a phase on the current thread; {@link Timer#stop()} it on the same thread.
+	 */
+	public Timer start(String phase) {
+		return new Timer(phase);
+	}
+
+	/**
+	 * Starts timing a phase whose work is (partly) done by the given other threads, e.g. a WebClient's JavaScript
+	 * event loop, counting their CPU time and allocation too. Null threads are ignored.
+	 */
+	public Timer start(String phase, Thread... workers) {
+		return new Timer(phase, workers);
+	}
+
+	/**
+	 * @return the phases recorded so far, in the order they were first stopped
+	 */
+	public synchronized List<Phase> getPhases() {
+		List<Phase> copies = new ArrayList<Phase>();
+		for (Phase phase : phases.values()) {
+			copies.add(phase.copy());
+		}
+		return copies;
+	}
+
+	/**
+	 * @return everything measured on the thread that created these metrics since they were created; only
+	 * 	meaningful when called from that thread
+	 */
+	public Phase total() {
+		Phase phase = new Phase("total");
+		total.addTo(phase);
+		return phase;
+	}
+
+	private synchronized void record(Timer timer) {
+		Phase phase = phases.get(timer.phase);
+		if(phase == null) {
+			phase = new Phase(timer.phase);
+			phases.put(timer.phase, phase);
+		}
+		timer.addTo(phase);
+	}
+
+	public class Timer {
+		private final String phase;
+		private final Thread[] threads;
+		private final long startWall = System.nanoTime();
+		private final long startCpu;
+		private final long startAllocated;
+
+		private Timer(String phase, Thread... workers) {
+			this.phase = phase;
+			List<Thread> measured = new ArrayList<Thread>();
+			measured.add(Thread.currentThread());
+			for (Thread worker : workers) {
+				if(worker != null && worker != Thread.currentThread()) {
+					measured.add(worker);
+				}
+			}
+			threads = measured.toArray(new Thread[measured.size()]);
+			startCpu = cpuTime(threads);
+			startAllocated = allocatedBytes(threads);
+		}
+
+		public void stop() {
+			record(this);
+		}
+
+		private void addTo(Phase phase) {
+			phase.count++;
+			phase.wallNanos += System.nanoTime() - startWall;
+			phase.cpuNanos = add(phase.cpuNanos, startCpu, cpuTime(threads));
+			phase.allocatedBytes = add(phase.allocatedBytes, startAllocated, allocatedBytes(threads));
+		}
+
+		private long add(long sum, long start, long end) {
+			return sum == UNAVAILABLE || start == UNAVAILABLE || end == UNAVAILABLE ? UNAVAILABLE : sum + end - start;
+		}
+	}
+
+	public static class Phase {
+		private final String name;
+		private int count;
+		private long wallNanos;
+		private long cpuNanos;
+		private long allocatedBytes;
+
+		Phase(String name) {
+			this.name = name;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		/**
+		 * @return how many times the phase ran
+		 */
+		public int getCount() {
+			return count;
+		}
+
+		public long getWallNanos() {
+			return wallNanos;
+		}
+
+		public long getCpuNanos() {
+			return cpuNanos;
+		}
+
+		public long getAllocatedBytes() {
+			return allocatedBytes;
+		}
+
+		private Phase copy() {
+			Phase copy = new Phase(name);
+			copy.count = count;
+			copy.wallNanos = wallNanos;
+			copy.cpuNanos = cpuNanos;
+			copy.allocatedBytes = allocatedBytes;
+			return copy;
+		}
+	}
+
+	/**
+	 * @return the CPU time of all the threads, or {@link #UNAVAILABLE} if it can't be measured for one of them
+	 * 	(e.g. because it has died)
+	 */
+	private static long cpuTime(Thread[] threads) {
+		long sum = 0;
+		for (Thread thread : threads) {
+			long cpuTime;
+			if(thread == Thread.currentThread()) {
+				cpuTime = THREADS.isCurrentThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled() ? THREADS.getCurrentThreadCpuTime() : UNAVAILABLE;
+			} else {
+				cpuTime = THREADS.isThreadCpuTimeSupported() && THREADS.isThreadCpuTimeEnabled() ? THREADS.getThreadCpuTime(thread.getId()) : UNAVAILABLE;
+			}
+			if(cpuTime == UNAVAILABLE) {
+				return UNAVAILABLE;
+			}
+			sum += cpuTime;
+		}
+		return sum;
+	}
+
+	private static long allocatedBytes(Thread[] threads) {
+		if(THREADS instanceof com.sun.management.ThreadMXBean) {
+			com.sun.management.ThreadMXBean mxBean = (com.sun.management.ThreadMXBean) THREADS;
+			if(mxBean.isThreadAllocatedMemorySupported() && mxBean.isThreadAllocatedMemoryEnabled()) {
+				long sum = 0;
+				for (Thread thread : threads) {
+					long allocated = mxBean.getThreadAllocatedBytes(thread.getId());
+					if(allocated == UNAVAILABLE) {
+						return UNAVAILABLE;
+					}
+					sum += allocated;
+				}
+				return sum;
+			}
+		}
+		return UNAVAILABLE;
+	}
+
+}
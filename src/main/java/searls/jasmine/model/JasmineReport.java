@@ -0,0 +1,121 @@
+package searls.jasmine.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The tree of suites and specs of a finished spec runner, along with the totals of their results.
+ */
+public class JasmineReport {
+
+	private final List<ReportItem> suites = new ArrayList<ReportItem>();
+	private int specCount;
+	private int failureCount;
+	private int skippedCount;
+	private long durationMillis = -1;
+
+	public List<ReportItem> getSuites() {
+		return suites;
+	}
+
+	public void addSuite(ReportItem suite) {
+		suites.add(suite);
+	}
+
+	/**
+	 * @return the number of specs with a result
+	 */
+	public int getSpecCount() {
+		return specCount;
+	}
+
+	public void setSpecCount(int specCount) {
+		this.specCount = specCount;
+	}
+
+	public int getFailureCount() {
+		return failureCount;
+	}
+
+	public void setFailureCount(int failureCount) {
+		this.failureCount = failureCount;
+	}
+
+	/**
+	 * @return the number of specs in the tree without a result
+	 */
+	public int getSkippedCount() {
+		return skippedCount;
+	}
+
+	public void setSkippedCount(int skippedCount) {
+		this.skippedCount = skippedCount;
+	}
+
+	/**
+	 * @return how long the whole runner took, or -1 when that isn't known
+	 */
+	public long getDurationMillis() {
+		return durationMillis;
+	}
+
+	public void setDurationMillis(long durationMillis) {
+		this.durationMillis = durationMillis;
+	}
+
+	/**
+	 * @return the id, status and duration of every spec in the tree, in the order they appear
+	 */
+	public SpecRecords getSpecRecords() {
+		SpecRecords records = new SpecRecords(specCount + skippedCount);
+		addSpecRecords(records, suites);
+		return records;
+	}
+
+	private void addSpecRecords(SpecRecords records, List<ReportItem> items) {
+		for (ReportItem item : items) {
+			if(item.isSpec()) {
+				SpecStatus status = !item.hasResult() ? SpecStatus.SKIPPED : item.didFail() ? SpecStatus.FAILED : SpecStatus.PASSED;
+				records.add(item.getId(), status, item.getDurationMillis());
+			}
+			addSpecRecords(records, item.getChildren());
+		}
+	}
+
+	/**
+	 * @return the duration of every spec and suite in the tree with a known duration, by full name, and of
+	 * 	every spec file its top-level suites are known to come from
+	 */
+	public SpecTimings getSpecTimings() {
+		SpecTimings timings = new SpecTimings();
+		addSpecTimings(timings, suites, "");
+		Map<String, Long> fileDurations = new LinkedHashMap<String, Long>();
+		for (ReportItem suite : suites) {
+			if(suite.getSpecFile() != null && suite.hasTiming()) {
+				Long duration = fileDurations.get(suite.getSpecFile());
+				fileDurations.put(suite.getSpecFile(), (duration != null ? duration : 0L) + suite.getDurationMillis());
+			}
+		}
+		for (Map.Entry<String, Long> file : fileDurations.entrySet()) {
+			timings.addFile(file.getKey(), file.getValue());
+		}
+		return timings;
+	}
+
+	private void addSpecTimings(SpecTimings timings, List<ReportItem> items, String runningName) {
+		for (ReportItem item : items) {
+			String name = (runningName.length() > 0 ? runningName+" " : "")+item.getName();
+			if(item.hasTiming()) {
+				if(item.isSpec()) {
+					timings.addSpec(name, item.getDurationMillis());
+				} else {
+					timings.addSuite(name, item.getDurationMillis());
+				}
+			}
+			addSpecTimings(timings, item.getChildren(), name);
+		}
+	}
+
+}
@@ -1,23 +1,95 @@
 package searls.jasmine.model;
 
+import java.util.List;
 
 public class JasmineResult {
-	private String description;
+	private int specCount;
+	private int failureCount;
+	private int skippedCount;
+	private SpecRecords specs = new SpecRecords();
+	private SpecTimings specTimings = new SpecTimings();
 	private String details;
 	
-	public String getDescription() {
-		return description;
+	/**
+	 * Combines the results of several runs (e.g. spec runner shards) into one.
+	 */
+	public static JasmineResult merge(List<JasmineResult> results) {
+		JasmineResult merged = new JasmineResult();
+		int totalSpecRecords = 0;
+		for (JasmineResult result : results) {
+			totalSpecRecords += result.getSpecs().size();
+		}
+		merged.specs = new SpecRecords(totalSpecRecords);
+		StringBuilder details = new StringBuilder();
+		for (JasmineResult result : results) {
+			merged.specCount += result.specCount;
+			merged.failureCount += result.failureCount;
+			merged.skippedCount += result.skippedCount;
+			merged.specs.addAll(result.specs);
+			merged.specTimings.addAll(result.specTimings);
+			if(result.details != null) {
+				details.append(result.details);
+			}
+		}
+		merged.details = details.toString();
+		return merged;
 	}
 
-	public void setDescription(String description) {
-		this.description = description;
+	public String getDescription() {
+		return specCount+" specs, "+failureCount+" failures"+(skippedCount > 0 ? ", "+skippedCount+" skipped" : "");
 	}
 
 	public boolean didPass() {
-		if(description == null) {
-			throw new IllegalStateException("Can only determine success after description is set.");
-		}
-		return description.contains("0 failures");
+		return failureCount == 0;
+	}
+
+	/**
+	 * @return the number of specs that ran
+	 */
+	public int getSpecCount() {
+		return specCount;
+	}
+
+	public void setSpecCount(int specCount) {
+		this.specCount = specCount;
+	}
+
+	public int getFailureCount() {
+		return failureCount;
+	}
+
+	public void setFailureCount(int failureCount) {
+		this.failureCount = failureCount;
+	}
+
+	/**
+	 * @return the number of specs that didn't run
+	 */
+	public int getSkippedCount() {
+		return skippedCount;
+	}
+
+	public void setSkippedCount(int skippedCount) {
+		this.skippedCount = skippedCount;
+	}
+
+	public SpecRecords getSpecs() {
+		return specs;
+	}
+
+	public void setSpecs(SpecRecords specs) {
+		this.specs = specs;
+	}
+
+	/**
+	 * @return the durations of the specs and suites that ran, which aren't kept when a result is cached
+	 */
+	public SpecTimings getSpecTimings() {
+		return specTimings;
+	}
+
+	public void setSpecTimings(SpecTimings specTimings) {
+		this.specTimings = specTimings;
 	}
 	
 	public String getDetails() {
@@ -0,0 +1,119 @@
+package searls.jasmine.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A suite or spec as summarized by Jasmine's JsApiReporter, with the result of the spec attached.
+ */
+public class ReportItem {
+
+	public static final String PASSED = "passed";
+	public static final String FAILED = "failed";
+
+	public enum Type { SUITE, SPEC }
+
+	private final Type type;
+	private final int id;
+	private final String name;
+	private final List<ReportItem> children = new ArrayList<ReportItem>();
+	private String result;
+	private List<ReportMessage> messages = Collections.emptyList();
+	private long startedAt = -1;
+	private long finishedAt = -1;
+	private String specFile;
+
+	public ReportItem(Type type, int id, String name) {
+		this.type = type;
+		this.id = id;
+		this.name = name;
+	}
+
+	public Type getType() {
+		return type;
+	}
+
+	public boolean isSpec() {
+		return type == Type.SPEC;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public List<ReportItem> getChildren() {
+		return children;
+	}
+
+	public void addChild(ReportItem child) {
+		children.add(child);
+	}
+
+	/**
+	 * @return "passed", "failed", or null when the spec has no result (e.g. it wasn't run)
+	 */
+	public String getResult() {
+		return result;
+	}
+
+	public void setResult(String result) {
+		this.result = result;
+	}
+
+	public boolean hasResult() {
+		return result != null;
+	}
+
+	public boolean didFail() {
+		return FAILED.equals(result);
+	}
+
+	public List<ReportMessage> getMessages() {
+		return messages;
+	}
+
+	public void setMessages(List<ReportMessage> messages) {
+		this.messages = messages;
+	}
+
+	public void setTiming(long startedAt, long finishedAt) {
+		this.startedAt = startedAt;
+		this.finishedAt = finishedAt;
+	}
+
+	public long getStartedAt() {
+		return startedAt;
+	}
+
+	public long getFinishedAt() {
+		return finishedAt;
+	}
+
+	public boolean hasTiming() {
+		return startedAt >= 0 && finishedAt >= startedAt;
+	}
+
+	/**
+	 * @return how long the spec (or, for a suite, all of its specs) took to run, or -1 when that isn't known
+	 */
+	public long getDurationMillis() {
+		return hasTiming() ? finishedAt - startedAt : -1;
+	}
+
+	/**
+	 * @return the key of the spec file a top-level suite was declared in, or null when that isn't known
+	 */
+	public String getSpecFile() {
+		return specFile;
+	}
+
+	public void setSpecFile(String specFile) {
+		this.specFile = specFile;
+	}
+
+}
@@ -0,0 +1,30 @@
+package searls.jasmine.model;
+
+/**
+ * One message (usually a failed expectation) reported for a spec.
+ */
+public class ReportMessage {
+
+	private final String message;
+	private final String type;
+	private final String matcherName;
+
+	public ReportMessage(String message, String type, String matcherName) {
+		this.message = message;
+		this.type = type;
+		this.matcherName = matcherName;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	public String getType() {
+		return type;
+	}
+
+	public String getMatcherName() {
+		return matcherName;
+	}
+
+}
@@ -0,0 +1,119 @@
+package searls.jasmine.model;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The id, status and duration of every spec of a run, kept in parallel primitive arrays (9 bytes a spec)
+ * rather than one object per spec, so that even 100k specs stay small and merge with a few array copies.
+ *
+ * Spec ids are the ids Jasmine assigned within one runner, so records merged from several shards may
+ * share ids.
+ */
+public class SpecRecords {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	private int[] ids;
+	private byte[] statuses;
+	private int[] durations;
+	private int size;
+
+	public SpecRecords() {
+		this(INITIAL_CAPACITY);
+	}
+
+	public SpecRecords(int capacity) {
+		ids = new int[Math.max(capacity, 1)];
+		statuses = new byte[ids.length];
+		durations = new int[ids.length];
+	}
+
+	public void add(int id, SpecStatus status, long durationMillis) {
+		ensureCapacity(size + 1);
+		ids[size] = id;
+		statuses[size] = status.code();
+		durations[size] = (int) Math.min(durationMillis, Integer.MAX_VALUE);
+		size++;
+	}
+
+	public void addAll(SpecRecords other) {
+		ensureCapacity(size + other.size);
+		System.arraycopy(other.ids, 0, ids, size, other.size);
+		System.arraycopy(other.statuses, 0, statuses, size, other.size);
+		System.arraycopy(other.durations, 0, durations, size, other.size);
+		size += other.size;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getId(int index) {
+		checkIndex(index);
+		return ids[index];
+	}
+
+	public SpecStatus getStatus(int index) {
+		checkIndex(index);
+		return SpecStatus.fromCode(statuses[index]);
+	}
+
+	/**
+	 * @return the duration of the spec, or -1 when it isn't known
+	 */
+	public long getDurationMillis(int index) {
+		checkIndex(index);
+		return durations[index];
+	}
+
+	public int count(SpecStatus status) {
+		byte code = status.code();
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			if(statuses[i] == code) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	public void writeTo(DataOutput out) throws IOException {
+		out.writeInt(size);
+		for (int i = 0; i < size; i++) {
+			out.writeInt(ids[i]);
+			out.writeByte(statuses[i]);
+			out.writeInt(durations[i]);
+		}
+	}
+
+	public static SpecRecords readFrom(DataInput in) throws IOException {
+		int size = in.readInt();
+		SpecRecords records = new SpecRecords(size);
+		for (int i = 0; i < size; i++) {
+			records.ids[i] = in.readInt();
+			records.statuses[i] = in.readByte();
+			records.durations[i] = in.readInt();
+		}
+		records.size = size;
+		return records;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if(capacity > ids.length) {
+			int newCapacity = Math.max(capacity, ids.length * 2);
+			ids = Arrays.copyOf(ids, newCapacity);
+			statuses = Arrays.copyOf(statuses, newCapacity);
+			durations = Arrays.copyOf(durations, newCapacity);
+		}
+	}
+
+	private void checkIndex(int index) {
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index: "+index+", Size: "+size);
+		}
+	}
+
+}
@@ -0,0 +1,15 @@
+package searls.jasmine.model;
+
+public enum SpecStatus {
+	PASSED, FAILED, SKIPPED;
+
+	private static final SpecStatus[] VALUES = values();
+
+	static SpecStatus fromCode(byte code) {
+		return VALUES[code];
+	}
+
+	byte code() {
+		return (byte) ordinal();
+	}
+}
@@ -0,0 +1,99 @@
+package searls.jasmine.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * How long each spec and suite of a run took, by full name (the names of its suites and its own, separated
+ * by spaces, as in the JUnit XML report), and each spec file, by its key (its path in the spec directory).
+ * Anything without a known duration isn't included.
+ */
+public class SpecTimings {
+
+	private static final Comparator<Timing> FASTEST_FIRST = new Comparator<Timing>() {
+		public int compare(Timing a, Timing b) {
+			return a.durationMillis < b.durationMillis ? -1 : a.durationMillis == b.durationMillis ? 0 : 1;
+		}
+	};
+
+	private final List<Timing> specs = new ArrayList<Timing>();
+	private final List<Timing> suites = new ArrayList<Timing>();
+	private final List<Timing> files = new ArrayList<Timing>();
+
+	public void addSpec(String fullName, long durationMillis) {
+		specs.add(new Timing(fullName, durationMillis));
+	}
+
+	public void addSuite(String fullName, long durationMillis) {
+		suites.add(new Timing(fullName, durationMillis));
+	}
+
+	public void addFile(String specFileKey, long durationMillis) {
+		files.add(new Timing(specFileKey, durationMillis));
+	}
+
+	public void addAll(SpecTimings other) {
+		specs.addAll(other.specs);
+		suites.addAll(other.suites);
+		files.addAll(other.files);
+	}
+
+	public List<Timing> getSpecs() {
+		return specs;
+	}
+
+	public List<Timing> getSuites() {
+		return suites;
+	}
+
+	public List<Timing> getFiles() {
+		return files;
+	}
+
+	public boolean isEmpty() {
+		return specs.isEmpty() && suites.isEmpty() && files.isEmpty();
+	}
+
+	/**
+	 * @return the count slowest timings, slowest first, without sorting all of them
+	 */
+	public static List<Timing> slowest(List<Timing> timings, int count) {
+		if(count <= 0) {
+			return Collections.emptyList();
+		}
+		PriorityQueue<Timing> slowest = new PriorityQueue<Timing>(count, FASTEST_FIRST);
+		for (Timing timing : timings) {
+			if(slowest.size() < count) {
+				slowest.add(timing);
+			} else if(timing.durationMillis > slowest.peek().durationMillis) {
+				slowest.poll();
+				slowest.add(timing);
+			}
+		}
+		List<Timing> sorted = new ArrayList<Timing>(slowest);
+		Collections.sort(sorted, Collections.reverseOrder(FASTEST_FIRST));
+		return sorted;
+	}
+
+	public static class Timing {
+		private final String fullName;
+		private final long durationMillis;
+
+		public Timing(String fullName, long durationMillis) {
+			this.fullName = fullName;
+			this.durationMillis = durationMillis;
+		}
+
+		public String getFullName() {
+			return fullName;
+		}
+
+		public long getDurationMillis() {
+			return durationMillis;
+		}
+	}
+
+}
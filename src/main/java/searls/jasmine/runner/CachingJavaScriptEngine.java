@@ -0,0 +1,40 @@
+package searls.jasmine.runner;
+
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+
+import net.sourceforge.htmlunit.corejs.javascript.Script;
+
+/**
+ * Hands out already compiled scripts for the plugin's registered JavaScript dependencies, so their
+ * inlined text is only compiled by Rhino the first time any page in the JVM loads it.
+ * Everything else on the page is compiled as usual.
+ */
+public class CachingJavaScriptEngine extends ListeningJavaScriptEngine {
+
+	private final CompiledScriptCache compiledScriptCache;
+
+	public CachingJavaScriptEngine(WebClient webClient, CompiledScriptCache compiledScriptCache) {
+		super(webClient);
+		this.compiledScriptCache = compiledScriptCache;
+	}
+
+	@Override
+	public Script compile(HtmlPage htmlPage, String sourceCode, String sourceName, int startLine) {
+		String key = compiledScriptCache.keyFor(sourceCode);
+		if(key == null) {
+			return super.compile(htmlPage, sourceCode, sourceName, startLine);
+		}
+
+		Script script = compiledScriptCache.get(key);
+		if(script == null) {
+			long start = System.nanoTime();
+			script = super.compile(htmlPage, sourceCode, sourceName, startLine);
+			if(script != null) {
+				script = compiledScriptCache.put(key, script, System.nanoTime() - start);
+			}
+		}
+		return script;
+	}
+
+}
@@ -0,0 +1,119 @@
+package searls.jasmine.runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.maven.artifact.Artifact;
+
+import searls.jasmine.io.FileUtilsWrapper;
+
+import net.sourceforge.htmlunit.corejs.javascript.Script;
+
+/**
+ * Holds the plugin's own JavaScript dependencies (jasmine.js, json2.js, ...) compiled once per JVM.
+ *
+ * Scripts are keyed by artifact coordinates plus a checksum of their contents, so two modules that
+ * declare the same artifact share one compiled script while a changed file is simply compiled again.
+ */
+public class CompiledScriptCache {
+
+	private static final CompiledScriptCache SHARED = new CompiledScriptCache();
+
+	private FileUtilsWrapper fileUtilsWrapper = new FileUtilsWrapper();
+
+	private final Map<Integer, List<RegisteredSource>> sourcesByLength = new ConcurrentHashMap<Integer, List<RegisteredSource>>();
+	private final ConcurrentMap<String, Script> compiledScripts = new ConcurrentHashMap<String, Script>();
+
+	private final AtomicLong compilations = new AtomicLong();
+	private final AtomicLong compileNanos = new AtomicLong();
+	private final AtomicLong reuses = new AtomicLong();
+
+	public static CompiledScriptCache shared() {
+		return SHARED;
+	}
+
+	public void register(List<Artifact> artifacts, String type) throws IOException {
+		for (Artifact artifact : artifacts) {
+			if(type.equals(artifact.getType())) {
+				register(artifact.getId(), artifact.getFile());
+			}
+		}
+	}
+
+	public String register(String coordinates, File file) throws IOException {
+		String source = fileUtilsWrapper.readFileToString(file);
+		String key = coordinates+"@"+fileUtilsWrapper.contentHash(file);
+		register(key, source);
+		//HTML parsing may normalize line endings of the inlined script text
+		register(key, source.replace("\r\n", "\n"));
+		return key;
+	}
+
+	/**
+	 * @return the cache key of the registered source with exactly this text, or null when the text is not a registered dependency
+	 */
+	public String keyFor(String source) {
+		List<RegisteredSource> candidates = sourcesByLength.get(source.length());
+		if(candidates != null) {
+			for (RegisteredSource candidate : candidates) {
+				if(candidate.source.equals(source)) {
+					return candidate.key;
+				}
+			}
+		}
+		return null;
+	}
+
+	public Script get(String key) {
+		Script script = compiledScripts.get(key);
+		if(script != null) {
+			reuses.incrementAndGet();
+		}
+		return script;
+	}
+
+	public Script put(String key, Script script, long nanosToCompile) {
+		compilations.incrementAndGet();
+		compileNanos.addAndGet(nanosToCompile);
+		Script existing = compiledScripts.putIfAbsent(key, script);
+		return existing != null ? existing : script;
+	}
+
+	public int size() {
+		return compiledScripts.size();
+	}
+
+	public String describeTimings() {
+		long compiled = compilations.get();
+		long averageMillis = compiled > 0 ? compileNanos.get() / compiled / 1000000L : 0;
+		return "Compiled plugin scripts: "+compiled+" compilations taking "+(compileNanos.get()/1000000L)+" ms in total, " +
+				reuses.get()+" reuses saving roughly "+(reuses.get()*averageMillis)+" ms";
+	}
+
+	private synchronized void register(String key, String source) {
+		if(key.equals(keyFor(source))) {
+			return;
+		}
+		List<RegisteredSource> candidates = sourcesByLength.get(source.length());
+		List<RegisteredSource> updated = candidates == null ? new ArrayList<RegisteredSource>() : new ArrayList<RegisteredSource>(candidates);
+		updated.add(new RegisteredSource(key, source));
+		sourcesByLength.put(source.length(), updated);
+	}
+
+	private static class RegisteredSource {
+		private final String key;
+		private final String source;
+
+		public RegisteredSource(String key, String source) {
+			this.key = key;
+			this.source = source;
+		}
+	}
+
+}
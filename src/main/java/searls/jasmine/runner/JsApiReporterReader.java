@@ -0,0 +1,199 @@
+package searls.jasmine.runner;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.htmlunit.corejs.javascript.Context;
+import net.sourceforge.htmlunit.corejs.javascript.NativeArray;
+import net.sourceforge.htmlunit.corejs.javascript.Scriptable;
+import net.sourceforge.htmlunit.corejs.javascript.ScriptableObject;
+import net.sourceforge.htmlunit.corejs.javascript.Undefined;
+
+import searls.jasmine.model.JasmineReport;
+import searls.jasmine.model.ReportItem;
+import searls.jasmine.model.ReportMessage;
+
+import com.gargoylesoftware.htmlunit.html.HtmlPage;
+
+/**
+ * Walks the suites and results of a finished JsApiReporter once, from Java, into a {@link JasmineReport}.
+ */
+public class JsApiReporterReader {
+
+	private static final String SUITES_JS = "reporter.suites()";
+	private static final String RESULTS_JS = "reporter.results()";
+	private static final String TIMINGS_JS = "typeof jasmineMavenPluginTimings == 'undefined' ? null : jasmineMavenPluginTimings";
+
+	private ScriptBundler scriptBundler;
+
+	public void setScriptBundler(ScriptBundler scriptBundler) {
+		this.scriptBundler = scriptBundler;
+	}
+
+	public JasmineReport read(HtmlPage page) {
+		Scriptable suites = (Scriptable) page.executeJavaScript(SUITES_JS).getJavaScriptResult();
+		Scriptable results = (Scriptable) page.executeJavaScript(RESULTS_JS).getJavaScriptResult();
+		Object timings = page.executeJavaScript(TIMINGS_JS).getJavaScriptResult();
+		return read(suites, results, timings instanceof Scriptable ? (Scriptable) timings : null);
+	}
+
+	/**
+	 * @param timings what timingReporter.js recorded, or null when the runner didn't include it
+	 */
+	protected JasmineReport read(Scriptable suites, Scriptable results, Scriptable timings) {
+		JasmineReport report = new JasmineReport();
+		Object specTimingsProperty = timings != null ? property(timings, "specs") : null;
+		Scriptable specTimings = specTimingsProperty instanceof Scriptable ? (Scriptable) specTimingsProperty : null;
+		Object suiteFilesProperty = timings != null ? property(timings, "suiteFiles") : null;
+		Scriptable suiteFiles = suiteFilesProperty instanceof Scriptable ? (Scriptable) suiteFilesProperty : null;
+		Map<Scriptable, Boolean> alreadyRead = new IdentityHashMap<Scriptable, Boolean>();
+		int[] specsWithoutResult = new int[1];
+		for (Scriptable suite : elements(suites)) {
+			ReportItem item = readItem(suite, results, specTimings, alreadyRead, specsWithoutResult);
+			if(item != null) {
+				if(suiteFiles != null && !item.isSpec()) {
+					item.setSpecFile(string(suiteFiles, item.getId()));
+				}
+				report.addSuite(item);
+			}
+		}
+		countResults(report, results);
+		report.setSkippedCount(specsWithoutResult[0]);
+		if(timings != null) {
+			long started = time(property(timings, "runnerStarted"));
+			long finished = time(property(timings, "runnerFinished"));
+			report.setDurationMillis(started >= 0 && finished >= started ? finished - started : -1);
+		}
+		return report;
+	}
+
+	private ReportItem readItem(Scriptable summary, Scriptable results, Scriptable specTimings, Map<Scriptable, Boolean> alreadyRead, int[] specsWithoutResult) {
+		if(alreadyRead.put(summary, Boolean.TRUE) != null) {
+			return null;
+		}
+		ReportItem.Type type = "spec".equals(string(summary, "type")) ? ReportItem.Type.SPEC : ReportItem.Type.SUITE;
+		ReportItem item = new ReportItem(type, number(summary, "id"), string(summary, "name"));
+		if(item.isSpec()) {
+			readResult(item, results);
+			readTiming(item, specTimings);
+			if(!item.hasResult()) {
+				specsWithoutResult[0]++;
+			}
+		}
+		long suiteStartedAt = Long.MAX_VALUE;
+		long suiteFinishedAt = -1;
+		for (Scriptable child : elements(property(summary, "children"))) {
+			ReportItem childItem = readItem(child, results, specTimings, alreadyRead, specsWithoutResult);
+			if(childItem != null) {
+				item.addChild(childItem);
+				if(childItem.hasTiming()) {
+					suiteStartedAt = Math.min(suiteStartedAt, childItem.getStartedAt());
+					suiteFinishedAt = Math.max(suiteFinishedAt, childItem.getFinishedAt());
+				}
+			}
+		}
+		if(!item.isSpec() && suiteFinishedAt >= 0) {
+			item.setTiming(suiteStartedAt, suiteFinishedAt);
+		}
+		return item;
+	}
+
+	private void readTiming(ReportItem spec, Scriptable specTimings) {
+		if(specTimings != null) {
+			Object timing = ScriptableObject.getProperty(specTimings, spec.getId());
+			if(timing instanceof NativeArray) {
+				List<Object> startAndFinish = values(timing);
+				if(startAndFinish.size() == 2) {
+					spec.setTiming(time(startAndFinish.get(0)), time(startAndFinish.get(1)));
+				}
+			}
+		}
+	}
+
+	private void readResult(ReportItem spec, Scriptable results) {
+		Object result = ScriptableObject.getProperty(results, spec.getId());
+		if(result instanceof Scriptable) {
+			spec.setResult(string((Scriptable) result, "result"));
+			List<ReportMessage> messages = new ArrayList<ReportMessage>();
+			for (Scriptable message : elements(property((Scriptable) result, "messages"))) {
+				String text = string(message, "message");
+				text = text != null ? text : logText(message);
+				messages.add(new ReportMessage(scriptBundler != null ? scriptBundler.translate(text) : text, string(message, "type"), string(message, "matcherName")));
+			}
+			spec.setMessages(messages);
+		}
+	}
+
+	/**
+	 * Log messages (from jasmine.log()) have no message, only the values that were logged.
+	 */
+	private String logText(Scriptable message) {
+		StringBuilder text = new StringBuilder();
+		for (Object value : values(property(message, "values"))) {
+			text.append(text.length() > 0 ? " " : "").append(value instanceof Scriptable ? "[object]" : Context.toString(value));
+		}
+		return text.toString();
+	}
+
+	private void countResults(JasmineReport report, Scriptable results) {
+		int specCount = 0;
+		int failureCount = 0;
+		for (Object id : results.getIds()) {
+			Object result = id instanceof Number ? ScriptableObject.getProperty(results, ((Number) id).intValue()) : ScriptableObject.getProperty(results, id.toString());
+			specCount++;
+			if(result instanceof Scriptable && ReportItem.FAILED.equals(string((Scriptable) result, "result"))) {
+				failureCount++;
+			}
+		}
+		report.setSpecCount(specCount);
+		report.setFailureCount(failureCount);
+	}
+
+	private List<Scriptable> elements(Object array) {
+		List<Scriptable> elements = new ArrayList<Scriptable>();
+		for (Object element : values(array)) {
+			if(element instanceof Scriptable) {
+				elements.add((Scriptable) element);
+			}
+		}
+		return elements;
+	}
+
+	private List<Object> values(Object array) {
+		List<Object> values = new ArrayList<Object>();
+		if(array instanceof NativeArray) {
+			NativeArray nativeArray = (NativeArray) array;
+			for (int i = 0; i < nativeArray.getLength(); i++) {
+				values.add(ScriptableObject.getProperty(nativeArray, i));
+			}
+		}
+		return values;
+	}
+
+	private Object property(Scriptable object, String name) {
+		Object value = ScriptableObject.getProperty(object, name);
+		return value == Scriptable.NOT_FOUND || value instanceof Undefined || value == null ? null : value;
+	}
+
+	private String string(Scriptable object, String name) {
+		Object value = property(object, name);
+		return value != null ? value.toString() : null;
+	}
+
+	private String string(Scriptable object, int index) {
+		Object value = ScriptableObject.getProperty(object, index);
+		return value == Scriptable.NOT_FOUND || value instanceof Undefined || value == null ? null : value.toString();
+	}
+
+	private long time(Object value) {
+		return value instanceof Number ? ((Number) value).longValue() : -1;
+	}
+
+	private int number(Scriptable object, String name) {
+		Object value = property(object, name);
+		return value instanceof Number ? ((Number) value).intValue() : -1;
+	}
+
+}
@@ -0,0 +1,87 @@
+package searls.jasmine.runner;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.gargoylesoftware.htmlunit.ScriptException;
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.javascript.JavaScriptEngine;
+import com.gargoylesoftware.htmlunit.javascript.background.JavaScriptExecutor;
+
+/**
+ * Tells a listener about every uncaught script error before HtmlUnit handles it, including errors in
+ * timers and other background jobs, which HtmlUnit otherwise only logs.
+ */
+public class ListeningJavaScriptEngine extends JavaScriptEngine {
+
+	private static final long EVENT_LOOP_START_MILLIS = 1000;
+
+	public interface ScriptErrorListener {
+		void scriptError(ScriptException e);
+	}
+
+	private volatile ScriptErrorListener scriptErrorListener;
+	private volatile Thread eventLoopThread;
+	private volatile CountDownLatch eventLoopRunning;
+
+	public ListeningJavaScriptEngine(WebClient webClient) {
+		super(webClient);
+	}
+
+	/**
+	 * @param scriptErrorListener notified of script errors from now on, or null to stop notifying
+	 */
+	public void setScriptErrorListener(ScriptErrorListener scriptErrorListener) {
+		this.scriptErrorListener = scriptErrorListener;
+	}
+
+	/**
+	 * @return the thread running the WebClient's timers and other background jobs (which is where Jasmine 1.x
+	 * 	runs most specs), or null while none has been started
+	 */
+	public Thread getEventLoopThread() {
+		CountDownLatch running = eventLoopRunning;
+		if(running != null) {
+			//HtmlUnit starts the thread itself, so it's only known once it's begun running
+			try {
+				running.await(EVENT_LOOP_START_MILLIS, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		return eventLoopThread;
+	}
+
+	@Override
+	protected JavaScriptExecutor createJavaScriptExecutor() {
+		final CountDownLatch running = new CountDownLatch(1);
+		eventLoopThread = null;
+		eventLoopRunning = null;
+		return new JavaScriptExecutor(getWebClient()) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void startThreadIfNeeded() {
+				super.startThreadIfNeeded();
+				eventLoopRunning = running;
+			}
+
+			@Override
+			public void run() {
+				eventLoopThread = Thread.currentThread();
+				running.countDown();
+				super.run();
+			}
+		};
+	}
+
+	@Override
+	protected void handleJavaScriptException(ScriptException e) {
+		ScriptErrorListener listener = scriptErrorListener;
+		if(listener != null) {
+			listener.scriptError(e);
+		}
+		super.handleJavaScriptException(e);
+	}
+
+}
@@ -0,0 +1,75 @@
+package searls.jasmine.runner;
+
+import java.io.File;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import searls.jasmine.format.JunitXmlReportMerger;
+import searls.jasmine.model.JasmineResult;
+
+/**
+ * Executes several spec runners (one per shard) concurrently on a bounded pool of worker threads,
+ * each in its own WebClient, and merges their results and JUnit XML reports.
+ */
+public class ParallelSpecRunnerExecutor {
+
+	private SpecRunnerExecutor specRunnerExecutor;
+	private JunitXmlReportMerger junitXmlReportMerger = new JunitXmlReportMerger();
+	private long[] shardMillis = new long[0];
+
+	public ParallelSpecRunnerExecutor(SpecRunnerExecutor specRunnerExecutor) {
+		this.specRunnerExecutor = specRunnerExecutor;
+	}
+
+	public JasmineResult execute(List<URL> runnerUrls, List<File> shardJunitXmlReports, File junitXmlReport, final String browserVersion, int threads) {
+		ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, runnerUrls.size())));
+		final long[] shardMillis = new long[runnerUrls.size()];
+		this.shardMillis = shardMillis;
+		try {
+			List<Future<JasmineResult>> shardResults = new ArrayList<Future<JasmineResult>>();
+			for (int i = 0; i < runnerUrls.size(); i++) {
+				final int shard = i;
+				final URL runnerUrl = runnerUrls.get(i);
+				final File shardJunitXmlReport = shardJunitXmlReports.get(i);
+				shardResults.add(workers.submit(new Callable<JasmineResult>() {
+					public JasmineResult call() {
+						long start = System.currentTimeMillis();
+						try {
+							return specRunnerExecutor.execute(runnerUrl, shardJunitXmlReport, browserVersion);
+						} finally {
+							shardMillis[shard] = System.currentTimeMillis() - start;
+						}
+					}
+				}));
+			}
+
+			List<JasmineResult> results = new ArrayList<JasmineResult>();
+			for (Future<JasmineResult> shardResult : shardResults) {
+				results.add(shardResult.get());
+			}
+			junitXmlReportMerger.merge(shardJunitXmlReports, junitXmlReport);
+			return JasmineResult.merge(results);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("Interrupted while waiting for spec runner shards to finish", e);
+		} catch (ExecutionException e) {
+			throw new RuntimeException("A spec runner shard failed", e.getCause());
+		} finally {
+			workers.shutdownNow();
+		}
+	}
+
+	/**
+	 * @return how long each shard of the last {@link #execute} took, in the order the runners were given
+	 */
+	public long[] getShardMillis() {
+		return shardMillis.clone();
+	}
+
+}
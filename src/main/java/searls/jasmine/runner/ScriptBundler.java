@@ -0,0 +1,255 @@
+package searls.jasmine.runner;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+import searls.jasmine.cache.CacheKeyBuilder;
+
+/**
+ * Concatenates scripts into a few chunk files, so a runner loads a handful of scripts instead of one per source
+ * and spec. Chunks are named after a hash of their inputs (names and contents), so a chunk is only rewritten when
+ * one of its scripts changes, even if the change keeps the script's size and modification time.
+ *
+ * Next to every chunk is a line map recording the line each script starts on, which
+ * {@link #translate(String)} uses to point messages like "in .../bundle-x.js (line N)" back at the original script.
+ */
+public class ScriptBundler {
+
+	private static final String CHUNK_PREFIX = "bundle-";
+	private static final String CHUNK_SUFFIX = ".js";
+	private static final String LINE_MAP_SUFFIX = ".lines";
+	private static final String SCRIPT_SEPARATOR = ";\n";
+	private static final Pattern LOCATION = Pattern.compile("in (\\S+) \\(line (\\d+)\\)");
+
+	private final File bundleDirectory;
+	private final long maxChunkBytes;
+	private final Map<String, LineMap> lineMaps = new ConcurrentHashMap<String, LineMap>();
+	private final AtomicInteger chunksWritten = new AtomicInteger();
+	private final AtomicInteger chunksReused = new AtomicInteger();
+
+	public ScriptBundler(File bundleDirectory, long maxChunkBytes) {
+		this.bundleDirectory = bundleDirectory;
+		this.maxChunkBytes = maxChunkBytes;
+	}
+
+	/**
+	 * @param files the scripts to bundle, in load order
+	 * @param names how each script is addressed in the runner, which is how translated messages refer to it
+	 * @return the chunks to load in place of the scripts, in load order
+	 */
+	public List<File> bundle(List<File> files, List<String> names, String encoding) throws IOException {
+		return bundle(files, names, null, encoding);
+	}
+
+	/**
+	 * @param prologues a line of script to run before each script (null for none), or null for no prologues at all
+	 */
+	public List<File> bundle(List<File> files, List<String> names, List<String> prologues, String encoding) throws IOException {
+		if(prologues == null) {
+			prologues = new ArrayList<String>(Collections.<String>nCopies(files.size(), null));
+		}
+		List<File> chunks = new ArrayList<File>();
+		int chunkStart = 0;
+		long chunkBytes = 0;
+		for (int i = 0; i < files.size(); i++) {
+			long length = files.get(i).length();
+			if(i > chunkStart && chunkBytes + length > maxChunkBytes) {
+				chunks.add(chunk(files.subList(chunkStart, i), names.subList(chunkStart, i), prologues.subList(chunkStart, i), encoding));
+				chunkStart = i;
+				chunkBytes = 0;
+			}
+			chunkBytes += length;
+		}
+		if(chunkStart < files.size()) {
+			chunks.add(chunk(files.subList(chunkStart, files.size()), names.subList(chunkStart, files.size()), prologues.subList(chunkStart, files.size()), encoding));
+		}
+		return chunks;
+	}
+
+	private File chunk(List<File> files, List<String> names, List<String> prologues, String encoding) throws IOException {
+		CacheKeyBuilder key = new CacheKeyBuilder().add(encoding);
+		for (int i = 0; i < files.size(); i++) {
+			key.add(names.get(i)).addFile(files.get(i));
+			if(prologues.get(i) != null) {
+				key.add(prologues.get(i));
+			}
+		}
+		String chunkName = CHUNK_PREFIX+key.build()+CHUNK_SUFFIX;
+		File chunk = new File(bundleDirectory, chunkName);
+		File lineMapFile = new File(bundleDirectory, chunkName+LINE_MAP_SUFFIX);
+
+		if(chunk.isFile() && lineMapFile.isFile()) {
+			lineMaps.put(chunkName, LineMap.load(lineMapFile));
+			chunksReused.incrementAndGet();
+		} else {
+			lineMaps.put(chunkName, write(chunk, lineMapFile, files, names, prologues, encoding));
+			chunksWritten.incrementAndGet();
+		}
+		return chunk;
+	}
+
+	private LineMap write(File chunk, File lineMapFile, List<File> files, List<String> names, List<String> prologues, String encoding) throws IOException {
+		LineMap lineMap = new LineMap();
+		FileUtils.forceMkdir(bundleDirectory);
+		Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(chunk), encoding));
+		try {
+			char[] buffer = new char[8192];
+			int line = 1;
+			for (int i = 0; i < files.size(); i++) {
+				if(prologues.get(i) != null) {
+					out.write(prologues.get(i));
+					out.write('\n');
+					line++;
+				}
+				lineMap.add(line, names.get(i));
+				Reader in = new InputStreamReader(new FileInputStream(files.get(i)), encoding);
+				try {
+					char last = '\n';
+					int read;
+					while((read = in.read(buffer)) != -1) {
+						out.write(buffer, 0, read);
+						for (int c = 0; c < read; c++) {
+							if(buffer[c] == '\n') {
+								line++;
+							}
+						}
+						if(read > 0) {
+							last = buffer[read - 1];
+						}
+					}
+					if(last != '\n') {
+						out.write('\n');
+						line++;
+					}
+				} finally {
+					IOUtils.closeQuietly(in);
+				}
+				//Keeps a script that doesn't end in a semicolon from running into the next one
+				out.write(SCRIPT_SEPARATOR);
+				line++;
+			}
+		} finally {
+			IOUtils.closeQuietly(out);
+		}
+		lineMap.save(lineMapFile);
+		return lineMap;
+	}
+
+	/**
+	 * Rewrites every "in [chunk URL] (line N)" in the message to the script and line the chunk's line N came from.
+	 */
+	public String translate(String message) {
+		if(message == null || message.indexOf(CHUNK_PREFIX) < 0) {
+			return message;
+		}
+		Matcher matcher = LOCATION.matcher(message);
+		StringBuffer translated = new StringBuffer();
+		while(matcher.find()) {
+			String url = matcher.group(1);
+			LineMap lineMap = lineMaps.get(url.substring(url.lastIndexOf('/') + 1));
+			String location = lineMap != null ? lineMap.locate(Integer.parseInt(matcher.group(2))) : null;
+			matcher.appendReplacement(translated, Matcher.quoteReplacement(location != null ? location : matcher.group()));
+		}
+		matcher.appendTail(translated);
+		return translated.toString();
+	}
+
+	/**
+	 * @return every chunk returned by {@link #bundle} so far
+	 */
+	public List<File> getChunks() {
+		List<File> chunks = new ArrayList<File>();
+		for (String chunkName : lineMaps.keySet()) {
+			chunks.add(new File(bundleDirectory, chunkName));
+		}
+		return chunks;
+	}
+
+	/**
+	 * Deletes the chunks (and line maps) left over from earlier bundles that {@link #bundle} hasn't returned.
+	 */
+	public void deleteUnusedChunks() {
+		File[] files = bundleDirectory.listFiles();
+		if(files != null) {
+			for (File file : files) {
+				String chunkName = file.getName().endsWith(LINE_MAP_SUFFIX) ? file.getName().substring(0, file.getName().length() - LINE_MAP_SUFFIX.length()) : file.getName();
+				if(chunkName.startsWith(CHUNK_PREFIX) && !lineMaps.containsKey(chunkName)) {
+					FileUtils.deleteQuietly(file);
+				}
+			}
+		}
+	}
+
+	public String describe() {
+		int written = chunksWritten.get();
+		int reused = chunksReused.get();
+		return "Bundled scripts into "+(written+reused)+" chunk(s): "+written+" rewritten, "+reused+" unchanged";
+	}
+
+	/**
+	 * The first line of each script in a chunk, in order.
+	 */
+	static class LineMap {
+		private final List<Integer> firstLines = new ArrayList<Integer>();
+		private final List<String> names = new ArrayList<String>();
+
+		void add(int firstLine, String name) {
+			firstLines.add(firstLine);
+			names.add(name);
+		}
+
+		String locate(int line) {
+			for (int i = firstLines.size() - 1; i >= 0; i--) {
+				if(firstLines.get(i) <= line) {
+					return "in "+names.get(i)+" (line "+(line - firstLines.get(i) + 1)+")";
+				}
+			}
+			return null;
+		}
+
+		void save(File file) throws IOException {
+			StringBuilder lines = new StringBuilder();
+			for (int i = 0; i < firstLines.size(); i++) {
+				lines.append(firstLines.get(i)).append('\t').append(names.get(i)).append('\n');
+			}
+			FileUtils.writeStringToFile(file, lines.toString(), "UTF-8");
+		}
+
+		static LineMap load(File file) throws IOException {
+			LineMap lineMap = new LineMap();
+			BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+			try {
+				String line;
+				while((line = in.readLine()) != null) {
+					int tab = line.indexOf('\t');
+					if(tab > 0) {
+						lineMap.add(Integer.parseInt(line.substring(0, tab)), line.substring(tab + 1));
+					}
+				}
+			} finally {
+				IOUtils.closeQuietly(in);
+			}
+			return lineMap;
+		}
+	}
+
+}
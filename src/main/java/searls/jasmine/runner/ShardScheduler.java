@@ -0,0 +1,153 @@
+package searls.jasmine.runner;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Splits spec files into shards of about the same expected running time, longest-processing-time first: the
+ * most expensive file goes to the least loaded shard, then the next most expensive, and so on.
+ *
+ * A file's expected cost is its recorded duration. Files without one are estimated from their size, at the
+ * milliseconds per byte of the files that have one; when no file has one, shards are balanced by size alone.
+ */
+public class ShardScheduler {
+
+	public Schedule schedule(List<File> specFiles, int shardCount, Map<File, Long> recordedMillis) {
+		if(shardCount < 1) {
+			throw new IllegalArgumentException("Shard count must be at least 1, but was "+shardCount);
+		}
+		final long[] costs = new long[specFiles.size()];
+		boolean inMillis = estimateCosts(specFiles, recordedMillis, costs);
+
+		List<Integer> mostExpensiveFirst = new ArrayList<Integer>();
+		for (int i = 0; i < specFiles.size(); i++) {
+			mostExpensiveFirst.add(i);
+		}
+		Collections.sort(mostExpensiveFirst, new Comparator<Integer>() {
+			public int compare(Integer a, Integer b) {
+				return costs[a] != costs[b] ? (costs[a] > costs[b] ? -1 : 1) : a.compareTo(b);
+			}
+		});
+
+		int shards = Math.min(shardCount, specFiles.size());
+		PriorityQueue<Shard> leastLoadedFirst = new PriorityQueue<Shard>();
+		List<Shard> allShards = new ArrayList<Shard>();
+		for (int i = 0; i < shards; i++) {
+			Shard shard = new Shard(i);
+			allShards.add(shard);
+			leastLoadedFirst.add(shard);
+		}
+		for (Integer file : mostExpensiveFirst) {
+			Shard shard = leastLoadedFirst.poll();
+			shard.files.add(file);
+			shard.load += costs[file];
+			leastLoadedFirst.add(shard);
+		}
+
+		List<List<File>> partitions = new ArrayList<List<File>>();
+		long[] predicted = new long[shards];
+		for (Shard shard : allShards) {
+			//Keep each shard's files in the order they'd have run in anyway
+			Collections.sort(shard.files);
+			List<File> files = new ArrayList<File>();
+			for (Integer file : shard.files) {
+				files.add(specFiles.get(file));
+			}
+			partitions.add(files);
+			predicted[shard.index] = shard.load;
+		}
+		return new Schedule(partitions, predicted, inMillis);
+	}
+
+	/**
+	 * @return whether the costs are in milliseconds (rather than bytes)
+	 */
+	private boolean estimateCosts(List<File> specFiles, Map<File, Long> recordedMillis, long[] costs) {
+		long knownMillis = 0;
+		long knownBytes = 0;
+		boolean anyKnown = false;
+		long[] sizes = new long[specFiles.size()];
+		for (int i = 0; i < specFiles.size(); i++) {
+			sizes[i] = specFiles.get(i).length();
+			Long recorded = recordedMillis.get(specFiles.get(i));
+			if(recorded != null) {
+				anyKnown = true;
+				knownMillis += recorded;
+				knownBytes += sizes[i];
+			}
+		}
+		double millisPerByte = anyKnown ? (double) knownMillis / Math.max(knownBytes, 1) : 1;
+		for (int i = 0; i < specFiles.size(); i++) {
+			Long recorded = recordedMillis.get(specFiles.get(i));
+			costs[i] = recorded != null ? recorded : Math.round(sizes[i] * millisPerByte);
+		}
+		return anyKnown;
+	}
+
+	private static class Shard implements Comparable<Shard> {
+		private final int index;
+		private final List<Integer> files = new ArrayList<Integer>();
+		private long load;
+
+		Shard(int index) {
+			this.index = index;
+		}
+
+		/**
+		 * Least loaded first; among equally loaded shards, the one with the fewest files, so no shard stays empty.
+		 */
+		public int compareTo(Shard other) {
+			if(load != other.load) {
+				return load < other.load ? -1 : 1;
+			}
+			if(files.size() != other.files.size()) {
+				return files.size() < other.files.size() ? -1 : 1;
+			}
+			return index < other.index ? -1 : index == other.index ? 0 : 1;
+		}
+	}
+
+	public static class Schedule {
+		private final List<List<File>> shards;
+		private final long[] predictedCosts;
+		private final boolean predictedInMillis;
+
+		Schedule(List<List<File>> shards, long[] predictedCosts, boolean predictedInMillis) {
+			this.shards = shards;
+			this.predictedCosts = predictedCosts;
+			this.predictedInMillis = predictedInMillis;
+		}
+
+		public List<List<File>> getShards() {
+			return shards;
+		}
+
+		/**
+		 * @return each shard's expected cost, in milliseconds or (when no durations were recorded) bytes
+		 */
+		public long[] getPredictedCosts() {
+			return predictedCosts;
+		}
+
+		public boolean isPredictedInMillis() {
+			return predictedInMillis;
+		}
+
+		/**
+		 * @return the cost of the most expensive shard, which is what the shards take to run in parallel
+		 */
+		public long getPredictedMakespan() {
+			long makespan = 0;
+			for (long cost : predictedCosts) {
+				makespan = Math.max(makespan, cost);
+			}
+			return makespan;
+		}
+	}
+
+}
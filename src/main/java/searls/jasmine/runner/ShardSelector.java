@@ -0,0 +1,87 @@
+package searls.jasmine.runner;
+
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Picks one shard's share of the spec files, when a build's specs are split across several machines (e.g. CI
+ * agents). Given the same spec files, every shard picks a different share, and together they pick each file once.
+ *
+ * Files are told apart by their key (their path in the spec directory), so it doesn't matter where each
+ * machine checked the project out.
+ */
+public class ShardSelector {
+
+	/** Picks the files whose key hashes to the shard, so adding or removing a file moves no other file. */
+	public static final String HASH = "hash";
+	/** Balances the shards by recorded duration, as {@link ShardScheduler} does; every shard must see the same durations. */
+	public static final String DURATION = "duration";
+
+	private final int shardIndex;
+	private final int shardCount;
+	private final String strategy;
+	private Map<String, Long> recordedMillis = new HashMap<String, Long>();
+
+	public ShardSelector(int shardIndex, int shardCount, String strategy) {
+		if(shardCount < 1) {
+			throw new IllegalArgumentException("Shard count must be at least 1, but was "+shardCount);
+		}
+		if(shardIndex < 0 || shardIndex >= shardCount) {
+			throw new IllegalArgumentException("Shard index must be from 0 to "+(shardCount - 1)+", but was "+shardIndex);
+		}
+		if(!HASH.equals(strategy) && !DURATION.equals(strategy)) {
+			throw new IllegalArgumentException("Unknown shard selection '"+strategy+"'. Use "+HASH+" or "+DURATION+".");
+		}
+		this.shardIndex = shardIndex;
+		this.shardCount = shardCount;
+		this.strategy = strategy;
+	}
+
+	/**
+	 * @param recordedMillis the recorded duration of spec files, by key
+	 */
+	public void setRecordedMillis(Map<String, Long> recordedMillis) {
+		this.recordedMillis = recordedMillis;
+	}
+
+	/**
+	 * @param keys the key of each spec file
+	 * @return this shard's spec files, in their original order
+	 */
+	public List<File> select(List<File> specFiles, List<String> keys) {
+		if(HASH.equals(strategy)) {
+			List<File> selected = new ArrayList<File>();
+			for (int i = 0; i < specFiles.size(); i++) {
+				if(hash(keys.get(i)) % shardCount == shardIndex) {
+					selected.add(specFiles.get(i));
+				}
+			}
+			return selected;
+		}
+		Map<File, Long> recorded = new HashMap<File, Long>();
+		for (int i = 0; i < specFiles.size(); i++) {
+			Long millis = recordedMillis.get(keys.get(i));
+			if(millis != null) {
+				recorded.put(specFiles.get(i), millis);
+			}
+		}
+		List<List<File>> shards = new ShardScheduler().schedule(specFiles, shardCount, recorded).getShards();
+		return shardIndex < shards.size() ? shards.get(shardIndex) : new ArrayList<File>();
+	}
+
+	private long hash(String key) {
+		CRC32 crc = new CRC32();
+		try {
+			crc.update(key.getBytes("UTF-8"));
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+		return crc.getValue();
+	}
+
+}
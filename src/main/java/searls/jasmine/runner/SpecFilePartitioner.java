@@ -0,0 +1,28 @@
+package searls.jasmine.runner;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SpecFilePartitioner {
+
+	/**
+	 * Deals the spec files out round-robin into at most shardCount shards, so that neighbouring
+	 * (and typically similarly sized) files end up on different shards. Never returns an empty shard.
+	 */
+	public List<List<File>> partition(List<File> specFiles, int shardCount) {
+		if(shardCount < 1) {
+			throw new IllegalArgumentException("Shard count must be at least 1, but was "+shardCount);
+		}
+		int shards = Math.min(shardCount, specFiles.size());
+		List<List<File>> partitions = new ArrayList<List<File>>(shards);
+		for (int i = 0; i < shards; i++) {
+			partitions.add(new ArrayList<File>());
+		}
+		for (int i = 0; i < specFiles.size(); i++) {
+			partitions.get(i % shards).add(specFiles.get(i));
+		}
+		return partitions;
+	}
+
+}
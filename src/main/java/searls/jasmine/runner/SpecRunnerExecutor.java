@@ -3,83 +3,271 @@ package searls.jasmine.runner;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import searls.jasmine.io.FileUtilsWrapper;
-import searls.jasmine.io.IOUtilsWrapper;
+import net.sourceforge.htmlunit.corejs.javascript.RhinoException;
+
+import searls.jasmine.format.JasmineReportFormatter;
+import searls.jasmine.format.JunitXmlReportWriter;
+import searls.jasmine.metrics.PhaseMetrics;
+import searls.jasmine.model.JasmineReport;
 import searls.jasmine.model.JasmineResult;
 
-import com.gargoylesoftware.htmlunit.BrowserVersion;
-import com.gargoylesoftware.htmlunit.IncorrectnessListener;
-import com.gargoylesoftware.htmlunit.NicelyResynchronizingAjaxController;
+import com.gargoylesoftware.htmlunit.Page;
+import com.gargoylesoftware.htmlunit.ScriptException;
 import com.gargoylesoftware.htmlunit.ScriptResult;
+import com.gargoylesoftware.htmlunit.StatusHandler;
 import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.WebConnection;
+import com.gargoylesoftware.htmlunit.WebWindowImpl;
 import com.gargoylesoftware.htmlunit.html.HtmlPage;
 
 public class SpecRunnerExecutor {
 	
-	public static final String BUILD_REPORT_JS = "/buildReport.js";
-	public static final String BUILD_CONCLUSION_JS = "/buildConclusion.js";
-	public static final String CREATE_JUNIT_XML = "/createJunitXml.js";
+	public static final long DEFAULT_TIMEOUT_MILLIS = 300000; //5 minutes
+	public static final long DEFAULT_STALL_TIMEOUT_MILLIS = 10000;
 
-	private static final long MAX_EXECUTION_MILLIS = 300000; //5 minutes - TODO make this configurable
+	private static final String FINISHED_STATUS = "jasmine-maven-plugin:finished";
+	private static final String PROGRESS_STATUS = "jasmine-maven-plugin:progress";
+	private static final String SIGNAL_PROGRESS_JS = 
+		"(function() {" +
+		"  var signal = function(status) { window.status = status; };" +
+		"  if(reporter.finished) { signal('"+FINISHED_STATUS+"'); return; }" +
+		"  var reportRunnerStarting = reporter.reportRunnerStarting;" +
+		"  reporter.reportRunnerStarting = function() { reportRunnerStarting.apply(this, arguments); signal('"+PROGRESS_STATUS+"'); };" +
+		"  var reportSpecResults = reporter.reportSpecResults;" +
+		"  reporter.reportSpecResults = function() { reportSpecResults.apply(this, arguments); signal('"+PROGRESS_STATUS+"'); };" +
+		"  var reportRunnerResults = reporter.reportRunnerResults;" +
+		"  reporter.reportRunnerResults = function() { reportRunnerResults.apply(this, arguments); signal('"+FINISHED_STATUS+"'); };" +
+		"})();";
+	private static final String RUNNER_LOADED_JS = "typeof jasmine != 'undefined' && typeof reporter != 'undefined'";
+	private static final String START_SYNCHRONOUS_RUNNER_JS = 
+		"if(typeof jasmineMavenPluginSynchronousRunner != 'undefined') { jasmineMavenPluginSynchronousRunner.start(); }";
+	private static final long POLL_MILLIS = 250;
+	private static final String FAIL_FAST_JS = 
+		"(function(maxFailures) {" +
+		"  var env = jasmine.getEnv(), failures = 0, results = reporter.results();" +
+		"  for(var id in results) { if(results[id].result == 'failed') { failures++; } }" +
+		"  var specFilter = env.specFilter;" +
+		"  env.specFilter = function(spec) { return failures < maxFailures && specFilter.apply(this, arguments); };" +
+		"  var reportSpecResults = reporter.reportSpecResults;" +
+		"  reporter.reportSpecResults = function(spec) {" +
+		"    if(failures >= maxFailures && spec.results().skipped) { return; }" +
+		"    reportSpecResults.apply(this, arguments);" +
+		"    if(spec.results().failedCount > 0) { failures++; }" +
+		"  };" +
+		"})(%d);";
+	
+	private WebClientFactory webClientFactory = new WebClientFactory();
+	private JsApiReporterReader reporterReader = new JsApiReporterReader();
+	private JasmineReportFormatter reportFormatter = new JasmineReportFormatter();
+	private JunitXmlReportWriter junitXmlReportWriter = new JunitXmlReportWriter();
+	private WebClientPool webClientPool;
+	private CompiledScriptCache compiledScriptCache;
+	private VirtualHost virtualHost;
+	private String virtualHostEncoding;
+	private ScriptBundler scriptBundler;
+	private long timeout = DEFAULT_TIMEOUT_MILLIS;
+	private long stallTimeout = DEFAULT_STALL_TIMEOUT_MILLIS;
+	private int failFastAfter;
+	private boolean virtualClock;
+	private PhaseMetrics phaseMetrics = new PhaseMetrics();
+	
+	public void setTimeout(long timeoutInMillis) {
+		this.timeout = timeoutInMillis;
+	}
+	
+	/**
+	 * How long the runner may go without starting before execution is aborted instead of waiting out the
+	 * timeout. Once the specs are running, only the timeout applies, since a spec may wait on purpose.
+	 */
+	public void setStallTimeout(long stallTimeoutInMillis) {
+		this.stallTimeout = stallTimeoutInMillis;
+	}
+	
+	/**
+	 * Stops running specs once this many have failed, leaving the rest without results (so they're reported
+	 * as skipped). 0 runs every spec.
+	 */
+	public void setFailFastAfter(int failures) {
+		this.failFastAfter = failures;
+	}
+	
+	/**
+	 * Runs the runner's timers on a {@link VirtualClockJobManager}, so waits and timeouts take no real time.
+	 */
+	public void setVirtualClock(boolean virtualClock) {
+		this.virtualClock = virtualClock;
+	}
+	
+	/**
+	 * Records the time spent loading runners, running their specs and reading and writing their results as
+	 * "load", "run" and "report" phases.
+	 */
+	public void setPhaseMetrics(PhaseMetrics phaseMetrics) {
+		this.phaseMetrics = phaseMetrics;
+	}
+	
+	public void setWebClientPool(WebClientPool webClientPool) {
+		this.webClientPool = webClientPool;
+	}
 	
-	private IOUtilsWrapper ioUtilsWrapper = new IOUtilsWrapper();
-	private FileUtilsWrapper fileUtilsWrapper = new FileUtilsWrapper();
+	public void setCompiledScriptCache(CompiledScriptCache compiledScriptCache) {
+		this.compiledScriptCache = compiledScriptCache;
+	}
+	
+	/**
+	 * Serves runners and scripts addressed on the virtual host from memory instead of loading them from disk.
+	 */
+	public void setVirtualHost(VirtualHost virtualHost, String encoding) {
+		this.virtualHost = virtualHost;
+		this.virtualHostEncoding = encoding;
+	}
+	
+	/**
+	 * Points messages about lines in bundled chunks back at the original scripts.
+	 */
+	public void setScriptBundler(ScriptBundler scriptBundler) {
+		this.scriptBundler = scriptBundler;
+		reporterReader.setScriptBundler(scriptBundler);
+	}
 	
 	public JasmineResult execute(URL runnerUrl, File junitXmlReport, String browserVersion) {
+		WebClient webClient = webClientPool != null ? webClientPool.borrow(browserVersion) : webClientFactory.create(browserVersion);
+		WebConnection webConnection = webClient.getWebConnection();
+		ListeningJavaScriptEngine javaScriptEngine = useListeningJavaScriptEngine(webClient);
 		try {
-			BrowserVersion htmlUnitBrowserVersion = (BrowserVersion) BrowserVersion.class.getField(browserVersion).get(BrowserVersion.class);
-			WebClient webClient = new WebClient(htmlUnitBrowserVersion);
-			webClient.setJavaScriptEnabled(true);
-			webClient.setAjaxController(new NicelyResynchronizingAjaxController());
-			quietIncorrectnessListener(webClient);
+			if(virtualHost != null) {
+				webClient.setWebConnection(new VirtualHostWebConnection(webConnection, virtualHost, virtualHostEncoding));
+			}
+			RunnerStatusHandler runnerStatusHandler = new RunnerStatusHandler();
+			webClient.setStatusHandler(runnerStatusHandler);
+			ScriptErrors scriptErrors = new ScriptErrors();
+			javaScriptEngine.setScriptErrorListener(scriptErrors);
 			
-		    HtmlPage page = webClient.getPage(runnerUrl);
-		    waitForRunnerToFinish(page);
-		    JasmineResult jasmineResult = new JasmineResult();
-		    jasmineResult.setDescription(buildRunnerDescription(page));
-		    jasmineResult.setDetails(buildReport(page));
-		    fileUtilsWrapper.writeStringToFile(junitXmlReport, buildJunitXmlReport(page), "UTF-8");
-		    webClient.closeAllWindows();
+		    PhaseMetrics.Timer load = phaseMetrics.start("load");
+		    HtmlPage page = loadRunner(webClient, runnerUrl, scriptErrors);
+		    load.stop();
+		    //Jasmine 1.x runs most specs in setTimeout callbacks, on the WebClient's event loop rather than this thread
+		    PhaseMetrics.Timer run = phaseMetrics.start("run", javaScriptEngine.getEventLoopThread());
+		    waitForRunnerToFinish(page, runnerStatusHandler, scriptErrors);
+		    run.stop();
+		    PhaseMetrics.Timer report = phaseMetrics.start("report");
+		    JasmineResult jasmineResult = buildResult(page, junitXmlReport);
+		    report.stop();
 	    
 		    return jasmineResult;
 		} catch (Exception e) {
 			throw new RuntimeException(e);
+		} finally {
+			javaScriptEngine.setScriptErrorListener(null);
+			if(virtualHost != null) {
+				webClient.setWebConnection(webConnection);
+			}
+			if(webClientPool != null) {
+				webClientPool.release(webClient);
+			} else {
+				webClient.closeAllWindows();
+			}
 		}
 	}
 
+	private JasmineResult buildResult(HtmlPage page, File junitXmlReport) throws IOException {
+		JasmineReport report = reporterReader.read(page);
+		JasmineResult jasmineResult = new JasmineResult();
+		jasmineResult.setSpecCount(report.getSpecCount());
+		jasmineResult.setFailureCount(report.getFailureCount());
+		jasmineResult.setSkippedCount(report.getSkippedCount());
+		jasmineResult.setSpecs(report.getSpecRecords());
+		jasmineResult.setSpecTimings(report.getSpecTimings());
+		jasmineResult.setDetails(reportFormatter.format(report));
+		junitXmlReportWriter.write(report, junitXmlReport);
+		return jasmineResult;
+	}
 
-	private String buildReport(HtmlPage page) throws IOException {
-		ScriptResult report = page.executeJavaScript(ioUtilsWrapper.toString(getClass().getResourceAsStream(BUILD_REPORT_JS)));
-		return report.getJavaScriptResult().toString();
+	private ListeningJavaScriptEngine useListeningJavaScriptEngine(WebClient webClient) {
+		boolean needsEngine = !(webClient.getJavaScriptEngine() instanceof ListeningJavaScriptEngine) ||
+				(compiledScriptCache != null && !(webClient.getJavaScriptEngine() instanceof CachingJavaScriptEngine));
+		if(needsEngine) {
+			webClient.getJavaScriptEngine().shutdownJavaScriptExecutor();
+			webClient.setJavaScriptEngine(compiledScriptCache != null ? new CachingJavaScriptEngine(webClient, compiledScriptCache) : new ListeningJavaScriptEngine(webClient));
+		}
+		return (ListeningJavaScriptEngine) webClient.getJavaScriptEngine();
 	}
 
-	private String buildRunnerDescription(HtmlPage page) throws IOException {
-		ScriptResult description = page.executeJavaScript(ioUtilsWrapper.toString(getClass().getResourceAsStream(BUILD_CONCLUSION_JS)));
-		return description.getJavaScriptResult().toString();
+	private HtmlPage loadRunner(WebClient webClient, URL runnerUrl, ScriptErrors scriptErrors) throws IOException {
+		if(virtualClock) {
+			((WebWindowImpl) webClient.getCurrentWindow()).setJobManager(new VirtualClockJobManager());
+		}
+		HtmlPage page;
+		try {
+			page = webClient.getPage(runnerUrl);
+		} catch (ScriptException e) {
+			throw new IllegalStateException("The spec runner failed to load: "+describe(e)+". Aborting test execution.", e);
+		}
+		if(!Boolean.TRUE.equals(page.executeJavaScript(RUNNER_LOADED_JS).getJavaScriptResult())) {
+			throw new IllegalStateException("Jasmine or its reporter never loaded"+describeErrors(scriptErrors)+". Aborting test execution.");
+		}
+		return page;
 	}
 
-	private String buildJunitXmlReport(HtmlPage page) throws IOException {
-		ScriptResult junitReport = page.executeJavaScript(ioUtilsWrapper.toString(getClass().getResourceAsStream(CREATE_JUNIT_XML)) + "junitXmlReporter.report(reporter);"); 
-		return junitReport.getJavaScriptResult().toString();
+	private void waitForRunnerToFinish(HtmlPage page, RunnerStatusHandler runnerStatusHandler, ScriptErrors scriptErrors) throws InterruptedException {
+		if(failFastAfter > 0) {
+			//Specs that ran while the page loaded are counted too, so a failure among them stops the rest
+			page.executeJavaScript(String.format(FAIL_FAST_JS, failFastAfter));
+		}
+		page.executeJavaScript(SIGNAL_PROGRESS_JS);
+		if(Boolean.TRUE.equals(page.executeJavaScript("reporter.started").getJavaScriptResult())) {
+			runnerStatusHandler.progressed();
+		}
+		//A synchronous runner waits for its hooks to be installed, then runs its synchronous specs before this returns
+		startSynchronousRunner(page);
+		long deadline = System.currentTimeMillis() + timeout;
+		while(!runnerStatusHandler.awaitFinished(Math.max(Math.min(POLL_MILLIS, deadline - System.currentTimeMillis()), 1))) {
+			if(System.currentTimeMillis() >= deadline) {
+				if(executionFinished(page)) {
+					return;
+				}
+				throw new IllegalStateException("Attempted to wait for the test to complete processing over the course of "+(timeout/1000)+" seconds," +
+						"but it still appears to be running"+describeErrors(scriptErrors)+". Aborting test execution.");
+			}
+			if(!runnerStatusHandler.isStarted() && runnerStatusHandler.millisSinceProgress() >= stallTimeout) {
+				throw new IllegalStateException("Jasmine never started running the specs"+describeErrors(scriptErrors)+
+						". Aborted after "+(stallTimeout/1000)+" seconds.");
+			}
+		}
 	}
 
-	private void waitForRunnerToFinish(HtmlPage page) throws InterruptedException {		
-		page.getWebClient().waitForBackgroundJavaScript(5000);
-		int waitInMillis = 500;
-		for (int i = 0; i < MAX_EXECUTION_MILLIS/waitInMillis; i++) {
-			if(executionFinished(page)) {
-				return;
-			} else {
-        		synchronized (page) {
-					page.wait(waitInMillis);
-        		}
-            }
-        }
-		if(!executionFinished(page)) {
-			throw new IllegalStateException("Attempted to wait for the test to complete processing over the course of "+(MAX_EXECUTION_MILLIS/1000)+" seconds," +
-					"but it still appears to be running. Aborting test execution.");
+	private void startSynchronousRunner(HtmlPage page) {
+		try {
+			page.executeJavaScript(START_SYNCHRONOUS_RUNNER_JS);
+		} catch (ScriptException e) {
+			throw new IllegalStateException("The spec runner failed while running the specs: "+describe(e)+". Aborting test execution.", e);
+		}
+	}
+
+	private String describeErrors(ScriptErrors scriptErrors) {
+		ScriptException first = scriptErrors.first();
+		if(first == null) {
+			return "";
+		}
+		return " after "+scriptErrors.count()+" script error(s), the first being: "+describe(first);
+	}
+
+	/**
+	 * @return the error's message and, where Rhino knows it, the script and line it happened in
+	 */
+	private String describe(ScriptException e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if(cause instanceof RhinoException) {
+				RhinoException rhinoException = (RhinoException) cause;
+				String description = rhinoException.details()+(rhinoException.sourceName() != null ? " in "+rhinoException.sourceName()+" (line "+rhinoException.lineNumber()+")" : "");
+				return scriptBundler != null ? scriptBundler.translate(description) : description;
+			}
 		}
+		return e.getMessage();
 	}
 
 	private Boolean executionFinished(HtmlPage page) {
@@ -87,10 +275,61 @@ public class SpecRunnerExecutor {
 		return (Boolean) result .getJavaScriptResult();
 	}
 
-	private void quietIncorrectnessListener(WebClient webClient) {
-		//Disables stuff like this "com.gargoylesoftware.htmlunit.IncorrectnessListenerImpl notify WARNING: Obsolete content type encountered: 'text/javascript'."
-		webClient.setIncorrectnessListener(new IncorrectnessListener() {
-			public void notify(String arg0, Object arg1) {}
-		});
+	/**
+	 * The uncaught script errors in one execution, including those HtmlUnit only logs (e.g. from timers).
+	 */
+	private static class ScriptErrors implements ListeningJavaScriptEngine.ScriptErrorListener {
+		private final AtomicInteger count = new AtomicInteger();
+		private volatile ScriptException first;
+
+		public void scriptError(ScriptException e) {
+			if(first == null) {
+				first = e;
+			}
+			count.incrementAndGet();
+		}
+
+		public int count() {
+			return count.get();
+		}
+
+		public ScriptException first() {
+			return first;
+		}
+	}
+
+	/**
+	 * Wakes the executor as soon as the reporter's reportRunnerResults() sets the finished status,
+	 * instead of polling the page for it, and notes when the runner last started or finished a spec.
+	 */
+	private static class RunnerStatusHandler implements StatusHandler {
+		private final CountDownLatch finished = new CountDownLatch(1);
+		private volatile boolean started;
+		private volatile long lastProgressAt = System.currentTimeMillis();
+
+		public void statusMessageChanged(Page page, String message) {
+			if(FINISHED_STATUS.equals(message)) {
+				finished.countDown();
+			} else if(PROGRESS_STATUS.equals(message)) {
+				progressed();
+			}
+		}
+
+		public void progressed() {
+			started = true;
+			lastProgressAt = System.currentTimeMillis();
+		}
+
+		public boolean isStarted() {
+			return started;
+		}
+
+		public long millisSinceProgress() {
+			return System.currentTimeMillis() - lastProgressAt;
+		}
+
+		public boolean awaitFinished(long timeoutInMillis) throws InterruptedException {
+			return finished.await(timeoutInMillis, TimeUnit.MILLISECONDS);
+		}
 	}
 }
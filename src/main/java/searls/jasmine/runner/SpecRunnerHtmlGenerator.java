@@ -2,16 +2,28 @@ package searls.jasmine.runner;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import org.antlr.stringtemplate.NoIndentWriter;
 import org.antlr.stringtemplate.StringTemplate;
 import org.antlr.stringtemplate.language.DefaultTemplateLexer;
 import org.apache.maven.artifact.Artifact;
 import org.codehaus.plexus.util.StringUtils;
 
+import searls.jasmine.cache.CacheKeyBuilder;
 import searls.jasmine.io.FileUtilsWrapper;
 import searls.jasmine.io.IOUtilsWrapper;
 
@@ -19,6 +31,9 @@ public class SpecRunnerHtmlGenerator {
 
 	public static final String DEFAULT_RUNNER_HTML_TEMPLATE_FILE = "/jasmine-templates/SpecRunner.htmltemplate";
 	public static final String DEFAULT_SOURCE_ENCODING = "UTF-8";
+	public static final String TIMING_REPORTER_JS = "/timingReporter.js";
+	public static final String SYNCHRONOUS_RUNNER_JS = "/synchronousRunner.js";
+	public static final String SPEC_FILE_JS_VARIABLE = "jasmineMavenPluginSpecFile";
 
 	private static final String SOURCE_ENCODING = "sourceEncoding";
 	private static final String CSS_DEPENDENCIES_TEMPLATE_ATTR_NAME = "cssDependencies";
@@ -29,6 +44,19 @@ public class SpecRunnerHtmlGenerator {
 
 	private static final String JAVASCRIPT_TYPE = "js";
 	private static final String CSS_TYPE = "css";
+	private static final String FILE_PROTOCOL = "file";
+
+	private static final int MAX_COMPILED_TEMPLATES = 16;
+	private static final Map<String, StringTemplate> COMPILED_TEMPLATES = Collections.synchronizedMap(
+			new LinkedHashMap<String, StringTemplate>(MAX_COMPILED_TEMPLATES, 0.75f, true) {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, StringTemplate> eldest) {
+					return size() > MAX_COMPILED_TEMPLATES;
+				}
+			});
+	private static volatile String defaultHtmlTemplate;
 
 
 	private FileUtilsWrapper fileUtilsWrapper;
@@ -36,10 +64,17 @@ public class SpecRunnerHtmlGenerator {
 	private File sourceDir;
 	private File specDir;
 	private List<String> sourcesToLoadFirst;
-	private List<String> fileNamesAlreadyWrittenAsScriptTags = new ArrayList<String>();
+	private Set<String> fileNamesAlreadyWrittenAsScriptTags;
 	private final String includes;
 	private final String excludes;
 	private String sourceEncoding;
+	private VirtualHost virtualHost;
+	private ScriptBundler scriptBundler;
+	private Map<String, File> scriptFiles = new HashMap<String, File>();
+	private boolean synchronous;
+	private boolean trackSpecFiles;
+	private Map<String, String> specFileKeys = new HashMap<String, String>();
+	private ShardSelector shardSelector;
 
 	public SpecRunnerHtmlGenerator(File sourceDir, File specDir, List<String> sourcesToLoadFirst, 
 			String sourceEncoding, String includes, String excludes) {
@@ -57,29 +92,117 @@ public class SpecRunnerHtmlGenerator {
 		this.fileUtilsWrapper = fileUtilsWrapper;
 	}
 
-	public String generate(List<Artifact> dependencies, ReporterType reporterType, File customRunnerTemplate) {
-		try {
-			String htmlTemplate = resolveHtmlTemplate(customRunnerTemplate);
-			StringTemplate template = new StringTemplate(htmlTemplate, DefaultTemplateLexer.class);
+	/**
+	 * Addresses sources and specs on the given virtual host instead of with file: URLs.
+	 */
+	public void setVirtualHost(VirtualHost virtualHost) {
+		this.virtualHost = virtualHost;
+	}
+
+	/**
+	 * Loads the preload sources, sources and specs from a few concatenated chunks instead of one script tag each.
+	 */
+	public void setScriptBundler(ScriptBundler scriptBundler) {
+		this.scriptBundler = scriptBundler;
+	}
 
-			includeJavaScriptAndCssDependencies(dependencies, template);
-			setJavaScriptSourcesAttribute(template);
-			template.setAttribute(REPORTER_ATTR_NAME, reporterType.name());
-			template.setAttribute(SOURCE_ENCODING, StringUtils.isNotBlank(sourceEncoding) ? sourceEncoding : DEFAULT_SOURCE_ENCODING);
+	/**
+	 * Generates runners that run every synchronous spec in one pass, without yielding to the event loop
+	 * between specs, and that wait for {@link SpecRunnerExecutor} to start them instead of starting themselves.
+	 * Only meant for runners executed headless.
+	 */
+	public void setSynchronous(boolean synchronous) {
+		this.synchronous = synchronous;
+	}
+
+	/**
+	 * Sets {@value #SPEC_FILE_JS_VARIABLE} to each spec file's {@link #specFileKey(File) key} before the file runs,
+	 * so the timing reporter can tell which spec file each top-level suite came from.
+	 */
+	public void setTrackSpecFiles(boolean trackSpecFiles) {
+		this.trackSpecFiles = trackSpecFiles;
+	}
+
+	/**
+	 * Limits the runner (and {@link #listSpecFiles()}) to the spec files the selector picks for its shard.
+	 */
+	public void setShardSelector(ShardSelector shardSelector) {
+		this.shardSelector = shardSelector;
+	}
+
+	/**
+	 * @return the spec file's path relative to the spec directory, with forward slashes
+	 */
+	public String specFileKey(File specFile) {
+		String specPath = specDir.getAbsolutePath() + File.separator;
+		String path = specFile.getAbsolutePath();
+		return (path.startsWith(specPath) ? path.substring(specPath.length()) : path).replace(File.separatorChar, '/');
+	}
 
-			return template.toString();
+	public String generate(List<Artifact> dependencies, ReporterType reporterType, File customRunnerTemplate) {
+		return generate(dependencies, reporterType, customRunnerTemplate, null);
+	}
+
+	/**
+	 * Generates a runner that only includes the given spec files (in the given order) instead of
+	 * every script found in the spec directory. A null list means "all specs".
+	 */
+	public String generate(List<Artifact> dependencies, ReporterType reporterType, File customRunnerTemplate, List<File> specFiles) {
+		try {
+			StringWriter html = new StringWriter();
+			generate(dependencies, reporterType, customRunnerTemplate, specFiles, html);
+			return html.toString();
 		} catch (IOException e) {
 			throw new RuntimeException("Failed to load file names for dependencies or scripts", e);
 		}
 	}
 
+	/**
+	 * Streams the runner to the given writer, rather than assembling all of it in memory first.
+	 */
+	public void generate(List<Artifact> dependencies, ReporterType reporterType, File customRunnerTemplate, List<File> specFiles, Writer out) throws IOException {
+		StringTemplate template = compiledTemplate(customRunnerTemplate).getInstanceOf();
+
+		includeJavaScriptAndCssDependencies(dependencies, reporterType, template);
+		setJavaScriptSourcesAttribute(template, specFiles);
+		template.setAttribute(REPORTER_ATTR_NAME, reporterType.name());
+		template.setAttribute(SOURCE_ENCODING, StringUtils.isNotBlank(sourceEncoding) ? sourceEncoding : DEFAULT_SOURCE_ENCODING);
+
+		//Don't indent the inlined dependencies, so they reach the browser exactly as they are in their artifacts
+		template.write(new NoIndentWriter(out));
+		out.flush();
+	}
+
+	/**
+	 * Templates are only parsed once per template path and content; each runner gets a fresh instance of the parsed one.
+	 * Only the {@value #MAX_COMPILED_TEMPLATES} most recently used templates are kept.
+	 */
+	private StringTemplate compiledTemplate(File customRunnerTemplate) throws IOException {
+		String htmlTemplate = resolveHtmlTemplate(customRunnerTemplate);
+		String templatePath = customRunnerTemplate != null ? customRunnerTemplate.getAbsolutePath() : DEFAULT_RUNNER_HTML_TEMPLATE_FILE;
+		if(htmlTemplate == null) {
+			throw new IOException("Failed to read the spec runner template "+templatePath);
+		}
+		String key = templatePath+"@"+new CacheKeyBuilder().add(htmlTemplate).build();
+		StringTemplate compiled = COMPILED_TEMPLATES.get(key);
+		if(compiled == null) {
+			compiled = new StringTemplate(htmlTemplate, DefaultTemplateLexer.class);
+			COMPILED_TEMPLATES.put(key, compiled);
+		}
+		return compiled;
+	}
+
 	private String resolveHtmlTemplate(File customRunnerTemplate) throws IOException {
-		return customRunnerTemplate != null ? 
-				fileUtilsWrapper.readFileToString(customRunnerTemplate) 
-				: ioUtilsWrapper.toString(getClass().getResourceAsStream(DEFAULT_RUNNER_HTML_TEMPLATE_FILE));
+		if(customRunnerTemplate != null) {
+			return fileUtilsWrapper.readFileToString(customRunnerTemplate);
+		}
+		if(defaultHtmlTemplate == null) {
+			defaultHtmlTemplate = ioUtilsWrapper.toString(getClass().getResourceAsStream(DEFAULT_RUNNER_HTML_TEMPLATE_FILE));
+		}
+		return defaultHtmlTemplate;
 	}
 
-	private void includeJavaScriptAndCssDependencies(List<Artifact> dependencies, StringTemplate template) throws IOException {
+	private void includeJavaScriptAndCssDependencies(List<Artifact> dependencies, ReporterType reporterType, StringTemplate template) throws IOException {
 		StringBuilder javaScriptDependencies = new StringBuilder();
 		StringBuilder cssDependencies = new StringBuilder();
 		for (Artifact dep : dependencies) {
@@ -89,16 +212,95 @@ public class SpecRunnerHtmlGenerator {
 				cssDependencies.append("<style type=\"text/css\">").append(fileUtilsWrapper.readFileToString(dep.getFile())).append("</style>");
 			}
 		}
+		if(reporterType == ReporterType.JsApiReporter) {
+			//Records when each spec starts and finishes, so the executor can report real durations
+			javaScriptDependencies.append("<script type=\"text/javascript\">").append(ioUtilsWrapper.toString(getClass().getResourceAsStream(TIMING_REPORTER_JS))).append("</script>");
+		}
+		if(synchronous) {
+			javaScriptDependencies.append("<script type=\"text/javascript\">").append(ioUtilsWrapper.toString(getClass().getResourceAsStream(SYNCHRONOUS_RUNNER_JS))).append("</script>");
+		}
 		template.setAttribute(JAVASCRIPT_DEPENDENCIES_TEMPLATE_ATTR_NAME, javaScriptDependencies.toString());
 		template.setAttribute(CSS_DEPENDENCIES_TEMPLATE_ATTR_NAME, cssDependencies.toString());
 	}
 
-	private void setJavaScriptSourcesAttribute(StringTemplate template) throws IOException {
-		StringBuilder scriptTags = new StringBuilder();
-		appendScriptTagsForFiles(scriptTags, expandSourcesToLoadFirstRelativeToSourceDir());
-		appendScriptTagsForFiles(scriptTags, filesForScriptsInDirectory(sourceDir));
-		appendScriptTagsForFiles(scriptTags, filesForScriptsInDirectory(specDir));
-		template.setAttribute(SOURCES_TEMPLATE_ATTR_NAME, scriptTags.toString());
+	/**
+	 * Lists the spec scripts (honoring the include and exclude patterns) in the order they'd appear in the runner.
+	 */
+	public List<File> listSpecFiles() throws IOException {
+		List<File> specFiles = scriptsInDirectory(specDir);
+		if(shardSelector == null) {
+			return specFiles;
+		}
+		List<String> keys = new ArrayList<String>();
+		for (File specFile : specFiles) {
+			keys.add(specFileKey(specFile));
+		}
+		return shardSelector.select(specFiles, keys);
+	}
+
+	/**
+	 * Lists the source scripts (honoring the include and exclude patterns) in the order they'd appear in the runner.
+	 */
+	public List<File> listSourceFiles() throws IOException {
+		return scriptsInDirectory(sourceDir);
+	}
+
+	private void setJavaScriptSourcesAttribute(StringTemplate template, List<File> specFiles) throws IOException {
+		fileNamesAlreadyWrittenAsScriptTags = new HashSet<String>();
+		scriptFiles = new HashMap<String, File>();
+		specFileKeys = new HashMap<String, String>();
+		List<String> scripts = new ArrayList<String>();
+		scripts.addAll(expandSourcesToLoadFirstRelativeToSourceDir());
+		scripts.addAll(filesForScriptsInDirectory(sourceDir));
+		List<File> specs = specFiles != null ? specFiles : listSpecFiles();
+		if(trackSpecFiles) {
+			for (File spec : specs) {
+				specFileKeys.put(fileToString(spec), specFileKey(spec));
+			}
+		}
+		scripts.addAll(filesToStrings(specs));
+
+		//A list attribute is written one tag at a time, so the tags are never joined into one big string
+		List<String> scriptTags = new ArrayList<String>();
+		appendScriptTagsForFiles(scriptTags, scriptBundler != null ? bundle(scripts) : scripts);
+		template.setAttribute(SOURCES_TEMPLATE_ATTR_NAME, scriptTags);
+	}
+
+	/**
+	 * Replaces each run of local scripts with its chunks, leaving scripts that aren't local files (e.g. preload
+	 * sources on other hosts) where they are.
+	 */
+	private List<String> bundle(List<String> scripts) throws IOException {
+		List<String> bundled = new ArrayList<String>();
+		List<File> files = new ArrayList<File>();
+		List<String> names = new ArrayList<String>();
+		List<String> prologues = new ArrayList<String>();
+		for (String script : new LinkedHashSet<String>(scripts)) {
+			File file = scriptFiles.get(script);
+			if(file != null) {
+				files.add(file);
+				names.add(script);
+				prologues.add(specFileKeys.containsKey(script) ? specFileStatement(specFileKeys.get(script)) : null);
+			} else {
+				bundled.addAll(bundleChunks(files, names, prologues));
+				bundled.add(script);
+			}
+		}
+		bundled.addAll(bundleChunks(files, names, prologues));
+		return bundled;
+	}
+
+	private List<String> bundleChunks(List<File> files, List<String> names, List<String> prologues) throws IOException {
+		List<String> chunks = files.isEmpty() ? Collections.<String>emptyList()
+				: filesToStrings(scriptBundler.bundle(files, names, prologues, StringUtils.isNotBlank(sourceEncoding) ? sourceEncoding : DEFAULT_SOURCE_ENCODING));
+		files.clear();
+		names.clear();
+		prologues.clear();
+		return chunks;
+	}
+
+	private String specFileStatement(String specFileKey) {
+		return SPEC_FILE_JS_VARIABLE+" = \""+specFileKey.replace("\\", "\\\\").replace("\"", "\\\"")+"\";";
 	}
 
 	private List<String> expandSourcesToLoadFirstRelativeToSourceDir() {
@@ -108,9 +310,9 @@ public class SpecRunnerHtmlGenerator {
 				File file = new File(sourceDir, sourceToLoadFirst);
 				File specFile = new File(specDir, sourceToLoadFirst);
 				if(file.exists()) {
-					files.add(fileToString(file));
+					files.add(scriptFileToString(file));
 				} else if(specFile.exists()) {
-					files.add(fileToString(specFile));
+					files.add(scriptFileToString(specFile));
 				} else {
 					files.add(sourceToLoadFirst);
 				}
@@ -120,30 +322,57 @@ public class SpecRunnerHtmlGenerator {
 	}
 
 	private List<String> filesForScriptsInDirectory(File directory) throws IOException {
-		List<String> fileNames = new ArrayList<String>();
+		return filesToStrings(scriptsInDirectory(directory));
+	}
+
+	private List<File> scriptsInDirectory(File directory) throws IOException {
+		List<File> files = new ArrayList<File>();
 		if (directory != null) {
 			fileUtilsWrapper.forceMkdir(directory);
-			List<File> files = new ArrayList<File>(fileUtilsWrapper.listFiles(directory, includes, excludes));
+			files.addAll(fileUtilsWrapper.listFiles(directory, includes, excludes));
 			Collections.sort(files);
-			for (File file : files) {
-				fileNames.add(fileToString(file));
-			}
+		}
+		return files;
+	}
+
+	private List<String> filesToStrings(List<File> files) {
+		List<String> fileNames = new ArrayList<String>();
+		for (File file : files) {
+			fileNames.add(scriptFileToString(file));
 		}
 		return fileNames;
 	}
 
-	private void appendScriptTagsForFiles(StringBuilder sb, List<String> sourceFiles) {
+	private String scriptFileToString(File file) {
+		String script = fileToString(file);
+		scriptFiles.put(script, file);
+		return script;
+	}
+
+	private void appendScriptTagsForFiles(List<String> scriptTags, List<String> sourceFiles) {
 		for (String sourceFile : sourceFiles) {
-			if (!fileNamesAlreadyWrittenAsScriptTags.contains(sourceFile)) {
-				sb.append("<script type=\"text/javascript\" src=\"").append(sourceFile).append("\"></script>");
-				fileNamesAlreadyWrittenAsScriptTags.add(sourceFile);
+			if (fileNamesAlreadyWrittenAsScriptTags.add(sourceFile)) {
+				if(specFileKeys.containsKey(sourceFile)) {
+					scriptTags.add("<script type=\"text/javascript\">" + specFileStatement(specFileKeys.get(sourceFile)) + "</script>");
+				}
+				scriptTags.add("<script type=\"text/javascript\" src=\"" + sourceFile + "\"></script>");
 			}
 		}
 	}
 
+	/**
+	 * Same as file.toURI().toURL(), minus the check whether the file is a directory (which costs a
+	 * 	file system call per script).
+	 */
 	private String fileToString(File file) {
+		if(virtualHost != null) {
+			return virtualHost.urlFor(file).toString();
+		}
+		String path = file.getAbsolutePath().replace(File.separatorChar, '/');
 		try {
-			return file.toURI().toURL().toString();
+			return new URI(FILE_PROTOCOL, null, path.startsWith("/") ? path : "/" + path, null).toURL().toString();
+		} catch (URISyntaxException e) {
+			throw new RuntimeException(e);
 		} catch (MalformedURLException e) {
 			throw new RuntimeException(e);
 		}
@@ -0,0 +1,165 @@
+package searls.jasmine.runner;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.gargoylesoftware.htmlunit.Page;
+import com.gargoylesoftware.htmlunit.javascript.background.JavaScriptJob;
+import com.gargoylesoftware.htmlunit.javascript.background.JavaScriptJobManager;
+
+/**
+ * Runs a window's timers (setTimeout and setInterval, and so Jasmine's waits() and waitsFor()) on a virtual
+ * clock: whenever no script is running, the clock jumps straight to the next job that's due and runs it, instead
+ * of waiting for it in real time. Jobs still run in order of their due time (and, for jobs due at the same time,
+ * the order they were scheduled in), just as they would on a real clock.
+ *
+ * Only timers are virtual. Scripts that read the time from Date still see the real time.
+ */
+public class VirtualClockJobManager implements JavaScriptJobManager {
+
+	private static final long serialVersionUID = 1L;
+	private static final AtomicInteger NEXT_JOB_ID = new AtomicInteger(1);
+
+	private final PriorityQueue<ScheduledJob> scheduledJobs = new PriorityQueue<ScheduledJob>();
+	private final Set<Integer> stoppedJobs = new HashSet<Integer>();
+	private ScheduledJob runningJob;
+	private long now;
+	private long nextSequence;
+	private boolean shutdown;
+
+	public synchronized int addJob(JavaScriptJob job, Page page) {
+		if(shutdown) {
+			return 0;
+		}
+		int id = NEXT_JOB_ID.getAndIncrement();
+		job.setId(id);
+		//HtmlUnit's event loop sleeps until a job's target time, so tell it every job is due now
+		job.setTargetExecutionTime(0);
+		scheduledJobs.add(new ScheduledJob(job, now + Math.max(job.getInitialDelay(), 0), nextSequence++));
+		notifyAll();
+		return id;
+	}
+
+	public synchronized JavaScriptJob getEarliestJob() {
+		ScheduledJob earliest = scheduledJobs.peek();
+		return earliest != null ? earliest.job : null;
+	}
+
+	public boolean runSingleJob(JavaScriptJob job) {
+		ScheduledJob scheduled;
+		synchronized (this) {
+			scheduled = scheduledJobs.peek();
+			if(scheduled == null || scheduled.job != job) {
+				return false;
+			}
+			scheduledJobs.poll();
+			now = Math.max(now, scheduled.dueTime);
+			runningJob = scheduled;
+		}
+		try {
+			job.run();
+		} catch (RuntimeException e) {
+			//Script errors have already been reported by the JavaScriptEngine; carry on with the next job
+		} finally {
+			synchronized (this) {
+				runningJob = null;
+				if(job.isPeriodic() && !stoppedJobs.remove(job.getId()) && !shutdown) {
+					scheduledJobs.add(new ScheduledJob(job, scheduled.dueTime + Math.max(job.getPeriod(), 1), nextSequence++));
+				}
+				notifyAll();
+			}
+		}
+		return true;
+	}
+
+	public synchronized int getJobCount() {
+		return scheduledJobs.size() + (runningJob != null ? 1 : 0);
+	}
+
+	public synchronized void removeJob(int id) {
+		for (Iterator<ScheduledJob> scheduled = scheduledJobs.iterator(); scheduled.hasNext();) {
+			if(scheduled.next().job.getId() == id) {
+				scheduled.remove();
+			}
+		}
+		notifyAll();
+	}
+
+	public synchronized void stopJob(int id) {
+		removeJob(id);
+		if(runningJob != null && runningJob.job.getId() == id) {
+			stoppedJobs.add(id);
+		}
+	}
+
+	public synchronized void removeAllJobs() {
+		scheduledJobs.clear();
+		if(runningJob != null) {
+			stoppedJobs.add(runningJob.job.getId());
+		}
+		notifyAll();
+	}
+
+	public synchronized int waitForJobs(long timeoutMillis) {
+		long deadline = System.currentTimeMillis() + timeoutMillis;
+		while(getJobCount() > 0 && System.currentTimeMillis() < deadline) {
+			waitForChange(deadline - System.currentTimeMillis());
+		}
+		return getJobCount();
+	}
+
+	/**
+	 * Waits for the jobs due within delayMillis of virtual time, which don't wait for anything but each other.
+	 */
+	public synchronized int waitForJobsStartingBefore(long delayMillis) {
+		long limit = now + delayMillis;
+		while(runningJob != null || (!scheduledJobs.isEmpty() && scheduledJobs.peek().dueTime <= limit)) {
+			waitForChange(0);
+		}
+		return getJobCount();
+	}
+
+	public synchronized void shutdown() {
+		shutdown = true;
+		removeAllJobs();
+	}
+
+	/**
+	 * @return the virtual time (in milliseconds since the first job was scheduled) of the last job to start
+	 */
+	public synchronized long getVirtualTime() {
+		return now;
+	}
+
+	private void waitForChange(long timeoutMillis) {
+		try {
+			wait(Math.max(timeoutMillis, 0));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for JavaScript jobs", e);
+		}
+	}
+
+	private static class ScheduledJob implements Comparable<ScheduledJob> {
+		private final JavaScriptJob job;
+		private final long dueTime;
+		private final long sequence;
+
+		ScheduledJob(JavaScriptJob job, long dueTime, long sequence) {
+			this.job = job;
+			this.dueTime = dueTime;
+			this.sequence = sequence;
+		}
+
+		public int compareTo(ScheduledJob other) {
+			if(dueTime != other.dueTime) {
+				return dueTime < other.dueTime ? -1 : 1;
+			}
+			return sequence < other.sequence ? -1 : sequence == other.sequence ? 0 : 1;
+		}
+	}
+
+}
@@ -0,0 +1,119 @@
+package searls.jasmine.runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import searls.jasmine.io.FileUtilsWrapper;
+
+/**
+ * An immutable, in-memory copy of the files under a root directory, addressed by URLs on a virtual host
+ * that only exists inside the executor's WebClients (see {@link VirtualHostWebConnection}).
+ *
+ * Contents are loaded from disk once. {@link #with(Map)} returns a new host that shares the already loaded
+ * contents, so several spec runners (e.g. one per shard) can be served from the same cache.
+ */
+public class VirtualHost {
+
+	public static final String HOST_NAME = "jasmine-maven-plugin.localhost";
+	public static final String BASE_URL = "http://"+HOST_NAME+"/";
+
+	private static final String ALL_FILES = "**";
+
+	private final String rootPath;
+	private final Map<String, byte[]> contents;
+
+	private VirtualHost(String rootPath, Map<String, byte[]> contents) {
+		this.rootPath = rootPath;
+		this.contents = Collections.unmodifiableMap(contents);
+	}
+
+	/**
+	 * Loads every file in the given directories (which should be inside of rootDir) into memory.
+	 */
+	public static VirtualHost load(File rootDir, File... directories) throws IOException {
+		return load(rootDir, new FileUtilsWrapper(), directories);
+	}
+
+	protected static VirtualHost load(File rootDir, FileUtilsWrapper fileUtilsWrapper, File... directories) throws IOException {
+		String rootPath = rootDir.getAbsolutePath();
+		Map<String, byte[]> contents = new HashMap<String, byte[]>();
+		for (File directory : directories) {
+			if(directory.isDirectory()) {
+				for (File file : fileUtilsWrapper.listFiles(directory, ALL_FILES, null)) {
+					contents.put(pathFor(rootPath, file), fileUtilsWrapper.readFileToByteArray(file));
+				}
+			}
+		}
+		return new VirtualHost(rootPath, contents);
+	}
+
+	public VirtualHost with(File file, byte[] content) {
+		return with(Collections.singletonMap(file, content));
+	}
+
+	public VirtualHost without(File file) {
+		return with(Collections.singletonMap(file, (byte[]) null));
+	}
+
+	/**
+	 * Applies several changes with a single copy of the contents. A null content removes the file.
+	 */
+	public VirtualHost with(Map<File, byte[]> changes) {
+		Map<String, byte[]> updated = new HashMap<String, byte[]>(contents);
+		for (Map.Entry<File, byte[]> change : changes.entrySet()) {
+			if(change.getValue() != null) {
+				updated.put(pathFor(change.getKey()), change.getValue());
+			} else {
+				updated.remove(pathFor(change.getKey()));
+			}
+		}
+		return new VirtualHost(rootPath, updated);
+	}
+
+	public byte[] get(URL url) {
+		if(!HOST_NAME.equals(url.getHost())) {
+			return null;
+		}
+		try {
+			return contents.get(url.toURI().getPath());
+		} catch (URISyntaxException e) {
+			return null;
+		}
+	}
+
+	public boolean serves(URL url) {
+		return "http".equals(url.getProtocol()) && HOST_NAME.equals(url.getHost());
+	}
+
+	public URL urlFor(File file) {
+		try {
+			return new URI("http", HOST_NAME, pathFor(file), null).toURL();
+		} catch (Exception e) {
+			throw new IllegalArgumentException("Can't address "+file+" on the virtual host", e);
+		}
+	}
+
+	public String pathFor(File file) {
+		return pathFor(rootPath, file);
+	}
+
+	private static String pathFor(String rootPath, File file) {
+		String path = file.getAbsolutePath();
+		if(!path.startsWith(rootPath + File.separator)) {
+			throw new IllegalArgumentException(file+" is not inside of "+rootPath+", so it can't be served from memory");
+		}
+		return path.substring(rootPath.length()).replace(File.separatorChar, '/');
+	}
+
+	public Collection<String> paths() {
+		return contents.keySet();
+	}
+
+}
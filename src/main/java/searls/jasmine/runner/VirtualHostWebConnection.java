@@ -0,0 +1,64 @@
+package searls.jasmine.runner;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.gargoylesoftware.htmlunit.WebConnection;
+import com.gargoylesoftware.htmlunit.WebRequest;
+import com.gargoylesoftware.htmlunit.WebResponse;
+import com.gargoylesoftware.htmlunit.WebResponseData;
+import com.gargoylesoftware.htmlunit.util.NameValuePair;
+import com.gargoylesoftware.htmlunit.util.WebConnectionWrapper;
+
+/**
+ * Serves requests for the {@link VirtualHost} straight from its in-memory contents, and hands any other
+ * request to the WebClient's regular connection.
+ */
+public class VirtualHostWebConnection extends WebConnectionWrapper {
+
+	private static final String CONTENT_TYPE_HEADER = "Content-Type";
+
+	private final VirtualHost virtualHost;
+	private final String encoding;
+
+	public VirtualHostWebConnection(WebConnection webConnection, VirtualHost virtualHost, String encoding) {
+		super(webConnection);
+		this.virtualHost = virtualHost;
+		this.encoding = encoding;
+	}
+
+	@Override
+	public WebResponse getResponse(WebRequest request) throws IOException {
+		URL url = request.getUrl();
+		if(!virtualHost.serves(url)) {
+			return super.getResponse(request);
+		}
+
+		long start = System.currentTimeMillis();
+		byte[] content = virtualHost.get(url);
+		List<NameValuePair> headers = new ArrayList<NameValuePair>();
+		WebResponseData data;
+		if(content != null) {
+			headers.add(new NameValuePair(CONTENT_TYPE_HEADER, contentTypeFor(url.getPath())+"; charset="+encoding));
+			data = new WebResponseData(content, 200, "OK", headers);
+		} else {
+			headers.add(new NameValuePair(CONTENT_TYPE_HEADER, "text/plain"));
+			data = new WebResponseData(("Not found: "+url).getBytes(encoding), 404, "Not Found", headers);
+		}
+		return new WebResponse(data, request, System.currentTimeMillis() - start);
+	}
+
+	private String contentTypeFor(String path) {
+		if(path.endsWith(".js")) {
+			return "text/javascript";
+		} else if(path.endsWith(".css")) {
+			return "text/css";
+		} else if(path.endsWith(".html") || path.endsWith(".htm")) {
+			return "text/html";
+		}
+		return "application/octet-stream";
+	}
+
+}
@@ -0,0 +1,34 @@
+package searls.jasmine.runner;
+
+import com.gargoylesoftware.htmlunit.BrowserVersion;
+import com.gargoylesoftware.htmlunit.IncorrectnessListener;
+import com.gargoylesoftware.htmlunit.NicelyResynchronizingAjaxController;
+import com.gargoylesoftware.htmlunit.WebClient;
+
+public class WebClientFactory {
+
+	public WebClient create(String browserVersion) {
+		WebClient webClient = new WebClient(resolveBrowserVersion(browserVersion));
+		webClient.setJavaScriptEnabled(true);
+		webClient.setAjaxController(new NicelyResynchronizingAjaxController());
+		quietIncorrectnessListener(webClient);
+		return webClient;
+	}
+
+	public BrowserVersion resolveBrowserVersion(String browserVersion) {
+		try {
+			return (BrowserVersion) BrowserVersion.class.getField(browserVersion).get(BrowserVersion.class);
+		} catch (Exception e) {
+			throw new IllegalArgumentException("Unknown browser version '"+browserVersion+"'. Expected the name of one of the " +
+					"public static fields of "+BrowserVersion.class.getName()+", like FIREFOX_3", e);
+		}
+	}
+
+	private void quietIncorrectnessListener(WebClient webClient) {
+		//Disables stuff like this "com.gargoylesoftware.htmlunit.IncorrectnessListenerImpl notify WARNING: Obsolete content type encountered: 'text/javascript'."
+		webClient.setIncorrectnessListener(new IncorrectnessListener() {
+			public void notify(String arg0, Object arg1) {}
+		});
+	}
+
+}
@@ -0,0 +1,172 @@
+package searls.jasmine.runner;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.Map;
+
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.javascript.JavaScriptEngine;
+
+/**
+ * A JVM-wide pool of warm WebClients, kept per browser version, so that consecutive executions
+ * (e.g. the modules of a reactor build) don't pay HtmlUnit's start-up and JIT warm-up every time.
+ * 
+ * Clients are reset when they're given back, and evicted once they've served maxUses runs or when the
+ * used heap crosses maxHeapPercent of the maximum heap. They're closed when the next Maven session starts using
+ * the pool (see {@link #startSession(Object)}), so JVMs that outlive sessions (mvnd, embedded Maven, IDEs) don't
+ * carry them from one build to the next, and as a fallback when the JVM exits.
+ */
+public class WebClientPool {
+
+	public static final int DEFAULT_MAX_USES = 25;
+	public static final int DEFAULT_MAX_HEAP_PERCENT = 75;
+
+	private static final WebClientPool SHARED = new WebClientPool();
+
+	private WebClientFactory webClientFactory = new WebClientFactory();
+	private final Map<String, LinkedList<WebClient>> idleClients = new HashMap<String, LinkedList<WebClient>>();
+	private final Map<WebClient, PooledClient> pooledClients = new IdentityHashMap<WebClient, PooledClient>();
+	private int maxUses = DEFAULT_MAX_USES;
+	private int maxHeapPercent = DEFAULT_MAX_HEAP_PERCENT;
+	private boolean shutdownHookRegistered;
+	private Object session;
+
+	public static WebClientPool shared() {
+		return SHARED;
+	}
+
+	public synchronized void setMaxUses(int maxUses) {
+		this.maxUses = maxUses;
+	}
+
+	public synchronized void setMaxHeapPercent(int maxHeapPercent) {
+		this.maxHeapPercent = maxHeapPercent;
+	}
+
+	/**
+	 * Closes the clients pooled by earlier sessions once a different session starts using the pool. Clients
+	 * still borrowed by an earlier session are closed when they're given back.
+	 * 
+	 * @param session identifies the current Maven session (e.g. its start time), or null when unknown
+	 */
+	public synchronized void startSession(Object session) {
+		if(session != null && !session.equals(this.session)) {
+			closeIdleClients();
+			this.session = session;
+		}
+	}
+
+	public synchronized WebClient borrow(String browserVersion) {
+		registerShutdownHook();
+		LinkedList<WebClient> idle = idleClients.get(browserVersion);
+		if(idle != null && !idle.isEmpty()) {
+			WebClient webClient = idle.removeFirst();
+			pooledClients.get(webClient).uses++;
+			return webClient;
+		}
+		WebClient webClient = webClientFactory.create(browserVersion);
+		pooledClients.put(webClient, new PooledClient(browserVersion, session));
+		return webClient;
+	}
+
+	public synchronized void release(WebClient webClient) {
+		PooledClient pooledClient = pooledClients.get(webClient);
+		if(pooledClient == null) {
+			throw new IllegalArgumentException("WebClient was not borrowed from this pool");
+		}
+		reset(webClient);
+		if(heapAboveThreshold()) {
+			evict(webClient);
+			closeIdleClients();
+		} else if(pooledClient.uses >= maxUses || !sameSession(pooledClient.session, session)) {
+			evict(webClient);
+		} else {
+			idleClientsFor(pooledClient.browserVersion).addLast(webClient);
+		}
+	}
+
+	public synchronized void closeIdleClients() {
+		for (LinkedList<WebClient> idle : idleClients.values()) {
+			for (WebClient webClient : idle) {
+				pooledClients.remove(webClient);
+				close(webClient);
+			}
+			idle.clear();
+		}
+	}
+
+	public synchronized int idleCount() {
+		int count = 0;
+		for (LinkedList<WebClient> idle : idleClients.values()) {
+			count += idle.size();
+		}
+		return count;
+	}
+
+	private void reset(WebClient webClient) {
+		webClient.closeAllWindows();
+		webClient.getCookieManager().clearCookies();
+		webClient.getCache().clear();
+		webClient.setStatusHandler(null);
+		webClient.setAlertHandler(null);
+	}
+
+	private void evict(WebClient webClient) {
+		pooledClients.remove(webClient);
+		close(webClient);
+	}
+
+	/**
+	 * Closes the client's windows and stops its JavaScript executor thread, so that it holds on to
+	 * neither pages nor background jobs once it leaves the pool.
+	 */
+	private void close(WebClient webClient) {
+		webClient.closeAllWindows();
+		JavaScriptEngine javaScriptEngine = webClient.getJavaScriptEngine();
+		if(javaScriptEngine != null) {
+			javaScriptEngine.shutdownJavaScriptExecutor();
+		}
+	}
+
+	private boolean sameSession(Object a, Object b) {
+		return a == null ? b == null : a.equals(b);
+	}
+
+	private boolean heapAboveThreshold() {
+		Runtime runtime = Runtime.getRuntime();
+		long used = runtime.totalMemory() - runtime.freeMemory();
+		return used * 100 > runtime.maxMemory() * maxHeapPercent;
+	}
+
+	private LinkedList<WebClient> idleClientsFor(String browserVersion) {
+		LinkedList<WebClient> idle = idleClients.get(browserVersion);
+		if(idle == null) {
+			idle = new LinkedList<WebClient>();
+			idleClients.put(browserVersion, idle);
+		}
+		return idle;
+	}
+
+	private void registerShutdownHook() {
+		if(!shutdownHookRegistered) {
+			Runtime.getRuntime().addShutdownHook(new Thread("jasmine-webclient-pool-shutdown") {
+				public void run() {
+					closeIdleClients();
+				}
+			});
+			shutdownHookRegistered = true;
+		}
+	}
+
+	private static class PooledClient {
+		private final String browserVersion;
+		private final Object session;
+		private int uses = 1;
+
+		private PooledClient(String browserVersion, Object session) {
+			this.browserVersion = browserVersion;
+			this.session = session;
+		}
+	}
+}
@@ -0,0 +1,18 @@
+var jasmineMavenPluginSynchronousRunner = (function(env) {
+	var execute = env.execute, started = false;
+
+	//Nothing repaints in a headless browser, so don't yield to the event loop between specs
+	env.updateInterval = 0;
+
+	//The executor starts the runner itself, once it's ready to follow it
+	env.execute = function() {};
+
+	return {
+		start: function() {
+			if(!started) {
+				started = true;
+				execute.apply(env);
+			}
+		}
+	};
+})(jasmine.getEnv());
@@ -0,0 +1,38 @@
+var jasmineMavenPluginTimings = { specs: {}, suiteFiles: {}, runnerStarted: null, runnerFinished: null };
+
+(function(timings) {
+	var env = jasmine.getEnv();
+	var now = function() {
+		return new Date().getTime();
+	};
+
+	//Notes the spec file each top-level suite is declared in, when the runner says which file is running
+	var describe = env.describe;
+	env.describe = function() {
+		var suite = describe.apply(this, arguments);
+		if(suite && !suite.parentSuite && typeof jasmineMavenPluginSpecFile != 'undefined') {
+			timings.suiteFiles[suite.id] = jasmineMavenPluginSpecFile;
+		}
+		return suite;
+	};
+
+	env.addReporter({
+		reportRunnerStarting: function(runner) {
+			timings.runnerStarted = now();
+		},
+		reportSpecStarting: function(spec) {
+			timings.specs[spec.id] = [now(), null];
+		},
+		reportSpecResults: function(spec) {
+			var timing = timings.specs[spec.id];
+			if(timing) {
+				timing[1] = now();
+			}
+		},
+		reportSuiteResults: function(suite) {},
+		reportRunnerResults: function(runner) {
+			timings.runnerFinished = now();
+		},
+		log: function() {}
+	});
+})(jasmineMavenPluginTimings);
@@ -16,6 +16,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import searls.jasmine.io.CopyResult;
+import searls.jasmine.io.CopyStrategy;
 import searls.jasmine.io.DirectoryCopier;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -40,7 +42,22 @@ public class ProcessResourcesMojoTest {
 		
 		processTestResourcesMojo.execute();
 		
-		verify(directoryCopier).copyDirectory(eq(srcDir), isA(File.class), eq(expectedSuffix));
+		verify(directoryCopier).copyDirectory(eq(srcDir), isA(File.class), eq(expectedSuffix), eq(CopyStrategy.STREAM));
+	}
+	
+	@Test
+	public void shouldCopyIncrementallyWhenEnabled() throws IOException, MojoExecutionException, MojoFailureException {
+		File srcDir = mock(File.class);
+		when(srcDir.exists()).thenReturn(true);
+		when(directoryCopier.copyDirectoryIncrementally(eq(srcDir), isA(File.class), eq(".js"), isA(File.class), eq(false), eq(CopyStrategy.STREAM))).thenReturn(new CopyResult());
+		processTestResourcesMojo.jsTestSrcDir = srcDir;
+		processTestResourcesMojo.specDirectoryName = "anything";
+		processTestResourcesMojo.incrementalCopy = true;
+		
+		processTestResourcesMojo.execute();
+		
+		verify(directoryCopier).copyDirectoryIncrementally(eq(srcDir), isA(File.class), eq(".js"), isA(File.class), eq(false), eq(CopyStrategy.STREAM));
+		verify(directoryCopier,never()).copyDirectory(isA(File.class), isA(File.class), anyString(), isA(CopyStrategy.class));
 	}
 	
 	
@@ -0,0 +1,255 @@
+package searls.jasmine;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.DefaultArtifactHandler;
+import org.apache.maven.artifact.versioning.VersionRange;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+import org.codehaus.plexus.util.StringUtils;
+
+import searls.jasmine.scalability.ScalabilityChart;
+import searls.jasmine.scalability.SyntheticProject;
+
+/**
+ * Drives the real resources, testResources and test goals against synthetic projects of increasing size, and
+ * records the wall time and peak heap of each phase. It's a macro benchmark rather than a unit test (runs take
+ * minutes at the larger sizes), so it isn't named *Test and only runs when invoked directly, e.g.
+ *
+ * <pre>
+ * mvn test-compile exec:java -Dexec.mainClass=searls.jasmine.ScalabilityHarness -Dexec.classpathScope=test \
+ *   -Dscalability.specs=100,1000,10000,100000
+ * </pre>
+ *
+ * Results are written to target/scalability: results.csv, plus wall-time.svg and peak-heap.svg plotting each
+ * phase against the number of specs.
+ *
+ * <ul>
+ * <li><code>scalability.specs</code> - the project sizes to run, in specs (default 100,1000,10000,100000)</li>
+ * <li><code>scalability.specsPerSuite</code> - specs per suite, and so per spec file (default 10)</li>
+ * <li><code>scalability.sourceFiles</code> - source files per project (default one per suite)</li>
+ * <li><code>scalability.sourceFileBytes</code> - approximate size of each source file (default 1000)</li>
+ * <li><code>scalability.asyncSpecRate</code> - fraction of specs that wait for a timeout (default 0.05)</li>
+ * <li><code>scalability.failureRate</code> - fraction of specs that fail (default 0.01)</li>
+ * <li><code>scalability.outputDirectory</code> - where projects and results go (default target/scalability)</li>
+ * <li><code>scalability.localRepository</code> - where to find jasmine and the other plugin scripts (default ~/.m2/repository)</li>
+ * <li><code>scalability.mojo.&lt;parameter&gt;</code> - sets any plugin parameter, e.g. <code>-Dscalability.mojo.parallel=true</code></li>
+ * </ul>
+ */
+public class ScalabilityHarness {
+
+	private static final String PROPERTY_PREFIX = "scalability.";
+	private static final String MOJO_PROPERTY_PREFIX = PROPERTY_PREFIX+"mojo.";
+	private static final String[] PHASES = { "generate", "resources", "testResources", "test" };
+	private static final String TOTAL = "total";
+
+	private final File outputDirectory;
+	private final List<Artifact> pluginArtifacts;
+	private final Log log = new SystemStreamLog();
+	private final Map<String, Map<Integer, long[]>> measurements = new LinkedHashMap<String, Map<Integer, long[]>>();
+
+	public ScalabilityHarness(File outputDirectory, List<Artifact> pluginArtifacts) {
+		this.outputDirectory = outputDirectory;
+		this.pluginArtifacts = pluginArtifacts;
+	}
+
+	public static void main(String[] args) throws Exception {
+		ScalabilityHarness harness = new ScalabilityHarness(new File(property("outputDirectory", "target/scalability")),
+				pluginArtifacts(new File(property("localRepository", System.getProperty("user.home")+"/.m2/repository"))));
+		int specsPerSuite = Integer.parseInt(property("specsPerSuite", "10"));
+		for (String specs : StringUtils.split(property("specs", "100,1000,10000,100000"), ",")) {
+			int suites = Math.max(Integer.parseInt(specs.trim()) / specsPerSuite, 1);
+			harness.run(new SyntheticProject()
+				.suites(suites)
+				.specsPerSuite(specsPerSuite)
+				.sourceFiles(Integer.parseInt(property("sourceFiles", String.valueOf(suites))))
+				.sourceFileBytes(Integer.parseInt(property("sourceFileBytes", "1000")))
+				.asyncSpecRate(Double.parseDouble(property("asyncSpecRate", "0.05")))
+				.failureRate(Double.parseDouble(property("failureRate", "0.01"))));
+		}
+		harness.writeResults();
+	}
+
+	public void run(SyntheticProject project) throws Exception {
+		File projectDir = new File(outputDirectory, "project-"+project.getSpecCount());
+		FileUtils.deleteDirectory(projectDir);
+		log.info("Running "+project);
+
+		long start = System.nanoTime();
+		startPhase();
+		project.writeTo(new File(projectDir, "src/main/javascript"), new File(projectDir, "src/test/javascript"));
+		endPhase(PHASES[0], project.getSpecCount(), start);
+
+		AbstractJasmineMojo[] mojos = { new ProcessResourcesMojo(), new ProcessTestResourcesMojo(), new TestMojo() };
+		for (int i = 0; i < mojos.length; i++) {
+			configure(mojos[i], projectDir);
+			long phaseStart = startPhase();
+			mojos[i].execute();
+			endPhase(PHASES[i + 1], project.getSpecCount(), phaseStart);
+		}
+		record(TOTAL, project.getSpecCount(), System.nanoTime() - start, 0);
+		log.info(project.getSpecCount()+" specs took "+(System.nanoTime() - start) / 1000000+" ms");
+	}
+
+	private long startPhase() {
+		System.gc();
+		for (MemoryPoolMXBean pool : heapPools()) {
+			pool.resetPeakUsage();
+		}
+		return System.nanoTime();
+	}
+
+	private void endPhase(String phase, int specs, long start) {
+		long wallTime = System.nanoTime() - start;
+		long peakHeap = 0;
+		for (MemoryPoolMXBean pool : heapPools()) {
+			peakHeap += pool.getPeakUsage().getUsed();
+		}
+		record(phase, specs, wallTime, peakHeap);
+		log.info(String.format(Locale.US, "  %-14s %8d ms  %6d MB peak heap", phase, wallTime / 1000000, peakHeap / (1024 * 1024)));
+	}
+
+	private void record(String phase, int specs, long wallTime, long peakHeap) {
+		Map<Integer, long[]> bySpecs = measurements.get(phase);
+		if(bySpecs == null) {
+			measurements.put(phase, bySpecs = new LinkedHashMap<Integer, long[]>());
+		}
+		bySpecs.put(specs, new long[] { wallTime, peakHeap });
+	}
+
+	private static List<MemoryPoolMXBean> heapPools() {
+		List<MemoryPoolMXBean> heapPools = new ArrayList<MemoryPoolMXBean>();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if(pool.getType() == MemoryType.HEAP && pool.isValid()) {
+				heapPools.add(pool);
+			}
+		}
+		return heapPools;
+	}
+
+	public void writeResults() throws IOException {
+		StringBuilder csv = new StringBuilder("specs,phase,wallTimeMillis,peakHeapBytes\n");
+		ScalabilityChart wallTime = new ScalabilityChart("Wall time by phase", "specs", "milliseconds");
+		ScalabilityChart peakHeap = new ScalabilityChart("Peak heap by phase", "specs", "megabytes");
+		for (Map.Entry<String, Map<Integer, long[]>> phase : measurements.entrySet()) {
+			for (Map.Entry<Integer, long[]> measurement : phase.getValue().entrySet()) {
+				long millis = measurement.getValue()[0] / 1000000;
+				csv.append(measurement.getKey()).append(',').append(phase.getKey()).append(',')
+					.append(millis).append(',').append(measurement.getValue()[1]).append('\n');
+				wallTime.add(phase.getKey(), measurement.getKey(), millis);
+				if(!TOTAL.equals(phase.getKey())) {
+					peakHeap.add(phase.getKey(), measurement.getKey(), measurement.getValue()[1] / (1024.0 * 1024.0));
+				}
+			}
+		}
+		FileUtils.writeStringToFile(new File(outputDirectory, "results.csv"), csv.toString(), "UTF-8");
+		wallTime.writeTo(new File(outputDirectory, "wall-time.svg"));
+		peakHeap.writeTo(new File(outputDirectory, "peak-heap.svg"));
+		log.info("Wrote scalability results to "+outputDirectory.getAbsolutePath());
+	}
+
+	/**
+	 * Sets the parameters Maven would have injected, with their default values, then any overrides
+	 * given as scalability.mojo.* system properties.
+	 */
+	private void configure(AbstractJasmineMojo mojo, File projectDir) throws Exception {
+		mojo.setLog(log);
+		mojo.jsSrcDir = new File(projectDir, "src/main/javascript");
+		mojo.jsTestSrcDir = new File(projectDir, "src/test/javascript");
+		mojo.include = "**/*.js";
+		mojo.browserVersion = "FIREFOX_3";
+		mojo.packageJavaScriptPath = "js";
+		mojo.jasmineTargetDir = new File(projectDir, "target/jasmine");
+		mojo.haltOnFailure = false;
+		mojo.timeout = 300;
+		mojo.stallTimeout = 10;
+		mojo.resultCacheDirectory = new File(projectDir, "target/result-cache");
+		mojo.webClientMaxUses = 25;
+		mojo.webClientMaxHeapPercent = 75;
+		mojo.cachePluginScripts = true;
+		mojo.bundleChunkKilobytes = 1024;
+		mojo.incrementalCopy = true;
+		mojo.copyStrategy = "stream";
+		mojo.packageDir = new File(projectDir, "target/package");
+		mojo.specRunnerHtmlFileName = "SpecRunner.html";
+		mojo.manualSpecRunnerHtmlFileName = "ManualSpecRunner.html";
+		mojo.junitXmlReportFileName = "TEST-jasmine.xml";
+		mojo.specDirectoryName = "spec";
+		mojo.srcDirectoryName = "src";
+		mojo.sourceEncoding = "UTF-8";
+		mojo.pluginArtifacts = pluginArtifacts;
+
+		for (String name : System.getProperties().stringPropertyNames()) {
+			if(name.startsWith(MOJO_PROPERTY_PREFIX)) {
+				set(mojo, name.substring(MOJO_PROPERTY_PREFIX.length()), System.getProperty(name));
+			}
+		}
+	}
+
+	private static void set(AbstractJasmineMojo mojo, String parameter, String value) throws Exception {
+		for (Class<?> type = mojo.getClass(); type != null; type = type.getSuperclass()) {
+			try {
+				Field field = type.getDeclaredField(parameter);
+				field.setAccessible(true);
+				if(field.getType() == boolean.class) {
+					field.setBoolean(mojo, Boolean.parseBoolean(value));
+				} else if(field.getType() == int.class) {
+					field.setInt(mojo, Integer.parseInt(value));
+				} else if(field.getType() == long.class) {
+					field.setLong(mojo, Long.parseLong(value));
+				} else if(field.getType() == File.class) {
+					field.set(mojo, new File(value));
+				} else {
+					field.set(mojo, value);
+				}
+				return;
+			} catch (NoSuchFieldException e) {
+				//Keep looking in the superclass
+			}
+		}
+		throw new IllegalArgumentException("No plugin parameter named "+parameter);
+	}
+
+	/**
+	 * The scripts the plugin depends on, found in a local repository the way Maven would lay them out.
+	 */
+	private static List<Artifact> pluginArtifacts(File localRepository) {
+		String jasmineVersion = property("jasmineVersion", "1.0.1");
+		List<Artifact> artifacts = new ArrayList<Artifact>();
+		artifacts.add(artifact(localRepository, "com.pivotallabs", "jasmine", jasmineVersion, "js"));
+		artifacts.add(artifact(localRepository, "com.pivotallabs", "jasmine-css", jasmineVersion, "css"));
+		artifacts.add(artifact(localRepository, "com.pivotallabs", "jasmine-html", jasmineVersion, "js"));
+		artifacts.add(artifact(localRepository, "org.json", "json2", "2010-03-20", "js"));
+		artifacts.add(artifact(localRepository, "com.jaredgrippe", "consolex", "2010-02-03", "js"));
+		return artifacts;
+	}
+
+	private static Artifact artifact(File localRepository, String groupId, String artifactId, String version, String type) {
+		DefaultArtifact artifact = new DefaultArtifact(groupId, artifactId, VersionRange.createFromVersion(version), Artifact.SCOPE_COMPILE,
+				type, null, new DefaultArtifactHandler(type));
+		File file = new File(localRepository, groupId.replace('.', '/')+"/"+artifactId+"/"+version+"/"+artifactId+"-"+version+"."+type);
+		if(!file.isFile()) {
+			throw new IllegalStateException("Couldn't find "+artifact.getId()+" at "+file+". Set scalability.localRepository to a repository containing it.");
+		}
+		artifact.setFile(file);
+		return artifact;
+	}
+
+	private static String property(String name, String defaultValue) {
+		return System.getProperty(PROPERTY_PREFIX+name, defaultValue);
+	}
+
+}
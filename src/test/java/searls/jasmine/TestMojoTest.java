@@ -0,0 +1,79 @@
+package searls.jasmine;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import searls.jasmine.affected.SpecDependencyGraph;
+import searls.jasmine.format.JasmineResultFile;
+import searls.jasmine.model.JasmineResult;
+
+public class TestMojoTest {
+
+	private TestMojo sut = new TestMojo();
+
+	private File jasmineTargetDir;
+	private File junitXmlReport;
+
+	@Before
+	public void createProject() throws IOException {
+		jasmineTargetDir = File.createTempFile("testMojo", "");
+		jasmineTargetDir.delete();
+		File source = write("src/cart.js", "Cart = function() {};");
+		File spec = write("spec/cartSpec.js", "describe('Cart', function() { new Cart(); });");
+		junitXmlReport = write("TEST-jasmine.xml", "<testsuite tests=\"1\"/>");
+
+		sut.setLog(mock(Log.class));
+		sut.jasmineTargetDir = jasmineTargetDir;
+		sut.srcDirectoryName = "src";
+		sut.specDirectoryName = "spec";
+		sut.include = "**/*.js";
+		sut.sourceEncoding = "UTF-8";
+		sut.junitXmlReportFileName = junitXmlReport.getName();
+		sut.resultFileName = "jasmine-result.bin";
+		sut.specRunnerHtmlFileName = "SpecRunner.html";
+		sut.pluginArtifacts = new ArrayList<Artifact>();
+		sut.affectedSpecsOnly = true;
+
+		SpecDependencyGraph.build(jasmineTargetDir, Arrays.asList(source), Arrays.asList(spec), "UTF-8")
+			.save(new File(jasmineTargetDir, ".spec-dependency-graph.properties"));
+		JasmineResult previous = new JasmineResult();
+		previous.setSpecCount(1);
+		previous.setDetails("describe Cart");
+		new JasmineResultFile().write(previous, new File(jasmineTargetDir, sut.resultFileName));
+	}
+
+	@After
+	public void deleteProject() {
+		FileUtils.deleteQuietly(jasmineTargetDir);
+	}
+
+	@Test
+	public void shouldKeepThePreviousResultsWhenNoSpecIsAffected() throws IOException {
+		JasmineResult result = sut.executeSpecs();
+
+		assertThat(result.getDescription(), is("1 specs, 0 failures"));
+		assertThat(result.getDetails(), is("describe Cart"));
+		assertThat(FileUtils.readFileToString(junitXmlReport), is("<testsuite tests=\"1\"/>"));
+		assertThat(new File(jasmineTargetDir, sut.specRunnerHtmlFileName).exists(), is(false));
+	}
+
+	private File write(String path, String script) throws IOException {
+		File file = new File(jasmineTargetDir, path);
+		FileUtils.writeStringToFile(file, script);
+		return file;
+	}
+
+}
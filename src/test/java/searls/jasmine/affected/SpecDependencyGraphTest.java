@@ -0,0 +1,184 @@
+package searls.jasmine.affected;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SpecDependencyGraphTest {
+
+	private File root;
+	private File model;
+	private File view;
+	private File library;
+	private File modelSpec;
+	private File viewSpec;
+
+	@Before
+	public void createScripts() throws IOException {
+		root = File.createTempFile("specDependencyGraph", "");
+		root.delete();
+		model = write("src/model.js", "App.Model = function() {};");
+		view = write("src/view.js", "App.View = function() { this.model = new App.Model(); };");
+		library = write("src/library.js", "(function() { window.lib = {}; })();");
+		modelSpec = write("spec/modelSpec.js", "describe('App.Model', function() { new App.Model(); });");
+		viewSpec = write("spec/viewSpec.js", "describe('App.View', function() { new App.View(); });");
+	}
+
+	@After
+	public void deleteScripts() {
+		FileUtils.deleteQuietly(root);
+	}
+
+	@Test
+	public void shouldFindDependenciesBetweenScripts() throws IOException {
+		SpecDependencyGraph sut = build();
+
+		assertThat(sut.getDependencies("spec/modelSpec.js"), is(paths("src/model.js", "src/library.js")));
+		assertThat(sut.getDependencies("src/view.js"), is(paths("src/model.js")));
+	}
+
+	@Test
+	public void shouldSelectEverySpecWithoutPreviousGraph() throws IOException {
+		assertThat(build().affectedSpecs(null), is(paths("spec/modelSpec.js", "spec/viewSpec.js")));
+	}
+
+	@Test
+	public void shouldSelectNothingWhenNothingChanged() throws IOException {
+		SpecDependencyGraph previous = build();
+
+		assertThat(build().affectedSpecs(previous).isEmpty(), is(true));
+	}
+
+	@Test
+	public void shouldSelectNothingWhenFilesWereOnlyTouched() throws IOException {
+		SpecDependencyGraph previous = build();
+		model.setLastModified(model.lastModified() + 60000);
+		modelSpec.setLastModified(modelSpec.lastModified() + 60000);
+
+		assertThat(build().affectedSpecs(previous).isEmpty(), is(true));
+	}
+
+	@Test
+	public void shouldSelectSpecsWhenSourceChangesWithoutChangingSizeOrModificationTime() throws IOException {
+		SpecDependencyGraph previous = build();
+		long lastModified = model.lastModified();
+		FileUtils.writeStringToFile(model, "App.Model = function() {}/");
+		model.setLastModified(lastModified);
+
+		assertThat(build().affectedSpecs(previous), is(paths("spec/modelSpec.js", "spec/viewSpec.js")));
+	}
+
+	@Test
+	public void shouldSelectOnlySpecsThatDependOnChangedSource() throws IOException {
+		SpecDependencyGraph previous = build();
+		change(view, "App.View = function() { this.model = new App.Model(); this.el = null; };");
+
+		assertThat(build().affectedSpecs(previous), is(paths("spec/viewSpec.js")));
+	}
+
+	@Test
+	public void shouldSelectSpecsThatDependOnChangedSourceIndirectly() throws IOException {
+		SpecDependencyGraph previous = build();
+		change(model, "App.Model = function() { this.id = 1; };");
+
+		assertThat(build().affectedSpecs(previous), is(paths("spec/modelSpec.js", "spec/viewSpec.js")));
+	}
+
+	@Test
+	public void shouldSelectEverySpecWhenSourceWithoutDeclarationsChanges() throws IOException {
+		SpecDependencyGraph previous = build();
+		change(library, "(function() { window.lib = { version: 2 }; })();");
+
+		assertThat(build().affectedSpecs(previous), is(paths("spec/modelSpec.js", "spec/viewSpec.js")));
+	}
+
+	@Test
+	public void shouldSelectSpecsThatDependedOnDeletedSource() throws IOException {
+		SpecDependencyGraph previous = build();
+		view.delete();
+		SpecDependencyGraph sut = SpecDependencyGraph.build(root, Arrays.asList(library, model), Arrays.asList(modelSpec, viewSpec), "UTF-8");
+
+		assertThat(sut.affectedSpecs(previous), is(paths("spec/viewSpec.js")));
+	}
+
+	@Test
+	public void shouldKeepSelectingPendingSpecsAfterSaveAndLoad() throws IOException {
+		File graphFile = new File(root, "graph.properties");
+		SpecDependencyGraph previous = build();
+		previous.setPendingSpecs(Collections.singleton("spec/modelSpec.js"));
+		previous.save(graphFile);
+
+		SpecDependencyGraph loaded = SpecDependencyGraph.load(graphFile);
+
+		assertThat(loaded.getDependencies("src/view.js"), is(paths("src/model.js")));
+		assertThat(build().affectedSpecs(loaded), is(paths("spec/modelSpec.js")));
+	}
+
+	@Test
+	public void shouldSelectSpecsThatUseAChangedHelper() throws IOException {
+		File matchers = write("spec/matchers.js", "function toBeValid() { return true; }");
+		change(viewSpec, "describe('App.View', function() { toBeValid(new App.View()); });");
+		SpecDependencyGraph previous = SpecDependencyGraph.build(root, Arrays.asList(library, model, view), Arrays.asList(matchers, modelSpec, viewSpec), "UTF-8");
+		change(matchers, "function toBeValid() { return false; }");
+
+		SpecDependencyGraph sut = SpecDependencyGraph.build(root, Arrays.asList(library, model, view), Arrays.asList(matchers, modelSpec, viewSpec), "UTF-8");
+
+		assertThat(sut.getHelpers(), is(paths("spec/matchers.js")));
+		assertThat(sut.affectedSpecs(previous), is(paths("spec/viewSpec.js")));
+	}
+
+	@Test
+	public void shouldSelectEverySpecWhenHelperWithoutDeclarationsChanges() throws IOException {
+		File helper = write("spec/specHelper.js", "beforeEach(function() { this.addMatchers({}); });");
+		SpecDependencyGraph previous = SpecDependencyGraph.build(root, Arrays.asList(library, model, view), Arrays.asList(helper, modelSpec, viewSpec), "UTF-8");
+		change(helper, "beforeEach(function() { this.addMatchers({ toBeValid: null }); });");
+
+		SpecDependencyGraph sut = SpecDependencyGraph.build(root, Arrays.asList(library, model, view), Arrays.asList(helper, modelSpec, viewSpec), "UTF-8");
+
+		assertThat(sut.affectedSpecs(previous), is(paths("spec/modelSpec.js", "spec/viewSpec.js")));
+	}
+
+	@Test
+	public void shouldLoadEveryHelperAlongWithTheAffectedSpecs() throws IOException {
+		File helper = write("spec/specHelper.js", "beforeEach(function() {});");
+		SpecDependencyGraph sut = SpecDependencyGraph.build(root, Arrays.asList(library, model, view), Arrays.asList(helper, modelSpec, viewSpec), "UTF-8");
+
+		assertThat(sut.filesToLoad(root, Arrays.asList(helper, modelSpec, viewSpec), paths("spec/viewSpec.js")), is(Arrays.asList(helper, viewSpec)));
+	}
+
+	@Test
+	public void shouldLoadNothingWhenThereIsNoGraphFile() throws IOException {
+		assertThat(SpecDependencyGraph.load(new File(root, "missing.properties")), is(nullValue()));
+	}
+
+	private SpecDependencyGraph build() throws IOException {
+		return SpecDependencyGraph.build(root, Arrays.asList(library, model, view), Arrays.asList(modelSpec, viewSpec), "UTF-8");
+	}
+
+	private File write(String path, String script) throws IOException {
+		File file = new File(root, path);
+		FileUtils.writeStringToFile(file, script);
+		return file;
+	}
+
+	private void change(File file, String script) throws IOException {
+		FileUtils.writeStringToFile(file, script);
+		file.setLastModified(file.lastModified() + 2000);
+	}
+
+	private Set<String> paths(String... values) {
+		return new HashSet<String>(Arrays.asList(values));
+	}
+
+}
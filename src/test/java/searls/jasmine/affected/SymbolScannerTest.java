@@ -0,0 +1,43 @@
+package searls.jasmine.affected;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class SymbolScannerTest {
+
+	private SymbolScanner sut = new SymbolScanner();
+
+	@Test
+	public void shouldFindTopLevelDeclarations() {
+		String script = "function greet(name) {\n  var local = 1;\n}\nvar counter = 0;\nApp.Models.User = function() {};\nwindow.helper = {};\n";
+
+		assertThat(sut.declaredSymbols(script), is(symbols("greet", "counter", "App.Models.User", "helper")));
+	}
+
+	@Test
+	public void shouldNotMistakeComparisonsForDeclarations() {
+		assertThat(sut.declaredSymbols("counter == 1;\n").isEmpty(), is(true));
+	}
+
+	@Test
+	public void shouldFindReferencesAndTheirNamespaces() {
+		assertThat(sut.referencedSymbols("new App.Models.User();"), is(symbols("new", "App", "App.Models", "App.Models.User")));
+	}
+
+	@Test
+	public void shouldTellSpecsFromHelpers() {
+		assertThat(sut.declaresSuites("describe('Cart', function() {});"), is(true));
+		assertThat(sut.declaresSuites("beforeEach(function() { this.addMatchers({}); });"), is(false));
+	}
+
+	private Set<String> symbols(String... values) {
+		return new HashSet<String>(Arrays.asList(values));
+	}
+
+}
@@ -0,0 +1,70 @@
+package searls.jasmine.cache;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CacheKeyBuilderTest {
+
+	private File directory;
+
+	@Before
+	public void createDirectory() throws IOException {
+		directory = File.createTempFile("cacheKey", "");
+		directory.delete();
+		directory.mkdirs();
+	}
+
+	@After
+	public void deleteDirectory() {
+		FileUtils.deleteQuietly(directory);
+	}
+
+	@Test
+	public void shouldBeStableForSameInputs() {
+		assertThat(new CacheKeyBuilder().add("a").add(Arrays.asList("b")).build(), 
+				is(new CacheKeyBuilder().add("a").add(Arrays.asList("b")).build()));
+	}
+
+	@Test
+	public void shouldNotConfuseConcatenatedValues() {
+		assertThat(new CacheKeyBuilder().add("ab").add("c").build(), 
+				is(not(new CacheKeyBuilder().add("a").add("bc").build())));
+	}
+
+	@Test
+	public void shouldChangeWhenAFileInTheDirectoryChanges() throws IOException {
+		File script = new File(directory, "nested/a.js");
+		FileUtils.writeStringToFile(script, "var a = 1;");
+		String before = new CacheKeyBuilder().addDirectory(directory, ".js").build();
+
+		FileUtils.writeStringToFile(script, "var a = 2;");
+
+		assertThat(new CacheKeyBuilder().addDirectory(directory, ".js").build(), is(not(before)));
+	}
+
+	@Test
+	public void shouldIgnoreFilesWithOtherSuffixes() throws IOException {
+		String before = new CacheKeyBuilder().addDirectory(directory, ".js").build();
+
+		FileUtils.writeStringToFile(new File(directory, "notes.txt"), "ignored");
+
+		assertThat(new CacheKeyBuilder().addDirectory(directory, ".js").build(), is(before));
+	}
+	@Test
+	public void shouldIncludeResourceContents() throws IOException {
+		assertThat(new CacheKeyBuilder().addResource(getClass(), "/HelloWorld.js").build(), 
+				is(not(new CacheKeyBuilder().addResource(getClass(), "/HelloWorldSpec.js").build())));
+		assertThat(new CacheKeyBuilder().addResource(getClass(), "/missing.js").build(), 
+				is(new CacheKeyBuilder().add((String) null).build()));
+	}
+
+}
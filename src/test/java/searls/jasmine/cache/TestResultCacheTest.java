@@ -0,0 +1,87 @@
+package searls.jasmine.cache;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import searls.jasmine.model.JasmineResult;
+import searls.jasmine.model.SpecStatus;
+
+public class TestResultCacheTest {
+
+	private File directory;
+	private TestResultCache sut;
+
+	@Before
+	public void createCache() throws IOException {
+		directory = File.createTempFile("resultCache", "");
+		directory.delete();
+		directory.mkdirs();
+		sut = new TestResultCache(new File(directory, "cache"));
+	}
+
+	@After
+	public void deleteDirectory() {
+		FileUtils.deleteQuietly(directory);
+	}
+
+	@Test
+	public void shouldMissWhenNothingWasStored() throws IOException {
+		int misses = TestResultCache.getMisses();
+
+		assertThat(sut.load("abc", new File(directory, "TEST-jasmine.xml")), is(nullValue()));
+		assertThat(TestResultCache.getMisses(), is(misses + 1));
+	}
+
+	@Test
+	public void shouldReplayStoredResultAndReport() throws IOException {
+		File report = new File(directory, "TEST-jasmine.xml");
+		FileUtils.writeStringToFile(report, "<testsuite/>");
+		JasmineResult result = new JasmineResult();
+		result.setSpecCount(2);
+		result.setSkippedCount(1);
+		result.getSpecs().add(4, SpecStatus.PASSED, 12);
+		result.getSpecs().add(5, SpecStatus.SKIPPED, -1);
+		result.setDetails("describe Something");
+		sut.store("abc", result, report);
+		report.delete();
+		int hits = TestResultCache.getHits();
+
+		JasmineResult replayed = sut.load("abc", report);
+
+		assertThat(replayed.getDescription(), is("2 specs, 0 failures, 1 skipped"));
+		assertThat(replayed.getSpecs().size(), is(2));
+		assertThat(replayed.getSpecs().getId(1), is(5));
+		assertThat(replayed.getSpecs().getStatus(1), is(SpecStatus.SKIPPED));
+		assertThat(replayed.getSpecs().getDurationMillis(0), is(12L));
+		assertThat(replayed.getDetails(), is("describe Something"));
+		assertThat(FileUtils.readFileToString(report), is("<testsuite/>"));
+		assertThat(TestResultCache.getHits(), is(hits + 1));
+	}
+
+	@Test
+	public void shouldPruneLeastRecentlyUsedResults() throws IOException {
+		File report = new File(directory, "TEST-jasmine.xml");
+		FileUtils.writeStringToFile(report, "<testsuite/>");
+		sut.store("old", new JasmineResult(), report);
+		sut.store("used", new JasmineResult(), report);
+		sut.store("new", new JasmineResult(), report);
+		new File(directory, "cache/old").setLastModified(1000000000000L);
+		new File(directory, "cache/used").setLastModified(1000000001000L);
+		new File(directory, "cache/new").setLastModified(1000000002000L);
+		sut.load("used", report);
+
+		sut.prune(2);
+
+		assertThat(new File(directory, "cache/old").exists(), is(false));
+		assertThat(sut.load("used", report), is(notNullValue()));
+		assertThat(sut.load("new", report), is(notNullValue()));
+	}
+}
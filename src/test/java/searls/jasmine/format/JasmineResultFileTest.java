@@ -0,0 +1,92 @@
+package searls.jasmine.format;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import searls.jasmine.model.JasmineResult;
+import searls.jasmine.model.SpecStatus;
+
+public class JasmineResultFileTest {
+
+	private JasmineResultFile sut = new JasmineResultFile();
+
+	private File first = tempFile();
+	private File second = tempFile();
+	private File merged = tempFile();
+
+	@After
+	public void deleteTempFiles() {
+		first.delete();
+		second.delete();
+		merged.delete();
+	}
+
+	@Test
+	public void shouldReadWhatItWrote() throws IOException {
+		sut.write(result(3, 1, 1, "describe Caf\u00e9\n"), first);
+
+		JasmineResult read = sut.read(first);
+
+		assertThat(read.getDescription(), is("3 specs, 1 failures, 1 skipped"));
+		assertThat(read.getDetails(), is("describe Caf\u00e9\n"));
+		assertThat(read.getSpecs().size(), is(3));
+		assertThat(read.getSpecs().getStatus(2), is(SpecStatus.SKIPPED));
+	}
+
+	@Test
+	public void shouldMergeCountsDetailsAndSpecs() throws IOException {
+		sut.write(result(2, 1, 0, "describe A\n"), first);
+		sut.write(result(3, 0, 1, "describe B\n"), second);
+
+		JasmineResult summary = sut.merge(Arrays.asList(first, second), merged);
+		JasmineResult read = sut.read(merged);
+
+		assertThat(summary.getDescription(), is("5 specs, 1 failures, 1 skipped"));
+		assertThat(read.getDescription(), is("5 specs, 1 failures, 1 skipped"));
+		assertThat(read.getDetails(), is("describe A\ndescribe B\n"));
+		assertThat(read.getSpecs().size(), is(5));
+		assertThat(read.getSpecs().getDurationMillis(4), is(20L));
+	}
+
+	@Test
+	public void shouldReadDetailsAlone() throws IOException {
+		sut.write(result(1, 0, 0, "describe A\n"), first);
+
+		assertThat(sut.readDetails(first), is("describe A\n"));
+	}
+
+	@Test(expected=IOException.class)
+	public void shouldRejectOtherFiles() throws IOException {
+		FileUtils.writeStringToFile(first, "<testsuite/>");
+
+		sut.read(first);
+	}
+
+	private JasmineResult result(int specs, int failures, int skipped, String details) {
+		JasmineResult result = new JasmineResult();
+		result.setSpecCount(specs);
+		result.setFailureCount(failures);
+		result.setSkippedCount(skipped);
+		result.setDetails(details);
+		for (int i = 0; i < specs; i++) {
+			result.getSpecs().add(i, i < failures ? SpecStatus.FAILED : i >= specs - skipped ? SpecStatus.SKIPPED : SpecStatus.PASSED, i * 10);
+		}
+		return result;
+	}
+
+	private File tempFile() {
+		try {
+			return File.createTempFile("jasmine", ".bin");
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+}
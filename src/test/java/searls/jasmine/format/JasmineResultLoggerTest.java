@@ -2,9 +2,12 @@ package searls.jasmine.format;
 
 import static org.mockito.Mockito.*;
 
+import java.util.Arrays;
+
 import org.apache.maven.plugin.logging.Log;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
@@ -20,7 +23,6 @@ public class JasmineResultLoggerTest {
 	@Test
 	public void shouldLogHeader() {
 		JasmineResult result = new JasmineResult();
-		result.setDescription("");
 		
 		resultLogger.log(result);
 		
@@ -29,13 +31,66 @@ public class JasmineResultLoggerTest {
 	
 	@Test
 	public void shouldLogEmptyResultInTrivialWay() {
-		String description = "Fake Result";
 		JasmineResult result = new JasmineResult();
-		result.setDescription(description);
 		
 		resultLogger.log(result);
 		
-		verify(log).info("\nResults:\n\n"+description+"\n");
+		verify(log).info("\nResults:\n\n0 specs, 0 failures\n");
+	}
+	
+	@Test
+	public void shouldLogCountsOfResult() {
+		JasmineResult result = new JasmineResult();
+		result.setSpecCount(12);
+		result.setFailureCount(10);
+		result.setSkippedCount(3);
+		
+		resultLogger.log(result);
+		
+		verify(log).info("\nResults:\n\n12 specs, 10 failures, 3 skipped\n");
+	}
+	
+	@Test
+	public void shouldLogEachShardsDetailsAndTheMergedCounts() {
+		JasmineResult merged = new JasmineResult();
+		merged.setSpecCount(2);
+		merged.setFailureCount(1);
+
+		resultLogger.log(merged, Arrays.asList("describe A", "describe B").iterator());
+
+		InOrder inOrder = inOrder(log);
+		inOrder.verify(log).info(JasmineResultLogger.HEADER);
+		inOrder.verify(log).info("describe A");
+		inOrder.verify(log).info("describe B");
+		inOrder.verify(log).info("\nResults:\n\n2 specs, 1 failures\n");
+	}
+	
+	@Test
+	public void shouldLogSlowestSpecsAndSuites() {
+		JasmineResult result = new JasmineResult();
+		result.getSpecTimings().addSpec("suite fast spec", 5);
+		result.getSpecTimings().addSpec("suite slow spec", 1200);
+		result.getSpecTimings().addSpec("suite slower spec", 3400);
+		result.getSpecTimings().addSuite("suite", 4605);
+		resultLogger.setSlowestCount(2);
+		
+		resultLogger.log(result);
+		
+		verify(log).info("Slowest specs:\n"+
+				"      3400 ms  suite slower spec\n"+
+				"      1200 ms  suite slow spec\n"+
+				"Slowest suites:\n"+
+				"      4605 ms  suite\n");
+	}
+	
+	@Test
+	public void shouldNotLogSlowestSpecsByDefault() {
+		JasmineResult result = new JasmineResult();
+		result.getSpecTimings().addSpec("suite spec", 5);
+		
+		resultLogger.log(result);
+		
+		verify(log,times(3)).info(anyString());
 	}
 	
 }
@@ -0,0 +1,75 @@
+package searls.jasmine.format;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Test;
+
+public class JunitXmlReportMergerTest {
+
+	private JunitXmlReportMerger sut = new JunitXmlReportMerger();
+
+	private File first = tempFile();
+	private File second = tempFile();
+	private File merged = tempFile();
+
+	@After
+	public void deleteTempFiles() {
+		first.delete();
+		second.delete();
+		merged.delete();
+	}
+
+	@Test
+	public void shouldSumCountsAndCombineTestcases() throws IOException {
+		FileUtils.writeStringToFile(first, "<testsuite name=\"jasmine.specs\" tests=\"2\" failures=\"1\" skipped=\"0\" errors=\"0\">" +
+				"<testcase name=\"a\"/><testcase name=\"b\"/></testsuite>");
+		FileUtils.writeStringToFile(second, "<testsuite name=\"jasmine.specs\" tests=\"1\" failures=\"1\" skipped=\"0\" errors=\"0\">" +
+				"<testcase name=\"c\"/></testsuite>");
+
+		sut.merge(Arrays.asList(first, second), merged);
+
+		String xml = FileUtils.readFileToString(merged);
+		assertThat(xml, containsString("tests=\"3\""));
+		assertThat(xml, containsString("failures=\"2\""));
+		assertThat(xml, containsString("name=\"jasmine.specs\""));
+		assertThat(xml, containsString("<testcase name=\"a\"/><testcase name=\"b\"/><testcase name=\"c\"/>"));
+	}
+
+	@Test
+	public void shouldUseTheSlowestShardsTime() throws IOException {
+		FileUtils.writeStringToFile(first, "<testsuite tests=\"1\" time=\"1.250\"><testcase name=\"a\"/></testsuite>");
+		FileUtils.writeStringToFile(second, "<testsuite tests=\"1\" time=\"3.500\"><testcase name=\"b\"/></testsuite>");
+
+		sut.merge(Arrays.asList(first, second), merged);
+
+		assertThat(FileUtils.readFileToString(merged), containsString("time=\"3.500\""));
+	}
+
+	@Test
+	public void shouldCopyFailureMessagesAndEscapedText() throws IOException {
+		FileUtils.writeStringToFile(first, "<?xml version=\"1.0\" encoding=\"UTF-8\"?><testsuite tests=\"1\" failures=\"1\">" +
+				"<testcase name=\"a &amp; b\"><failure message=\"&lt;7&gt;\" type=\"failed\">Expected 7 &lt; 6</failure></testcase></testsuite>");
+		FileUtils.writeStringToFile(second, "<testsuite tests=\"0\"></testsuite>");
+
+		sut.merge(Arrays.asList(first, second), merged);
+
+		String xml = FileUtils.readFileToString(merged);
+		assertThat(xml, containsString("<testcase name=\"a &amp; b\"><failure message=\"&lt;7&gt;\" type=\"failed\">Expected 7 &lt; 6</failure></testcase></testsuite>"));
+		assertThat(xml, containsString("tests=\"1\""));
+	}
+
+	private File tempFile() {
+		try {
+			return File.createTempFile("junit", ".xml");
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+	}
+}
@@ -0,0 +1,167 @@
+package searls.jasmine.format;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Test;
+
+import searls.jasmine.model.JasmineReport;
+import searls.jasmine.model.ReportItem;
+import searls.jasmine.model.ReportMessage;
+
+public class JunitXmlReportWriterTest {
+
+	private JunitXmlReportWriter sut = new JunitXmlReportWriter();
+
+	private File directory = new File(System.getProperty("java.io.tmpdir"), "junitXmlReportWriterTest"+System.nanoTime());
+	private File report = new File(directory, "nested/TEST-jasmine.xml");
+
+	@After
+	public void deleteReport() {
+		FileUtils.deleteQuietly(directory);
+	}
+
+	@Test
+	public void shouldWriteCountsAndRunnerDuration() throws IOException {
+		JasmineReport jasmineReport = new JasmineReport();
+		jasmineReport.setSpecCount(2);
+		jasmineReport.setFailureCount(1);
+		jasmineReport.setDurationMillis(2500);
+
+		sut.write(jasmineReport, report);
+
+		String xml = FileUtils.readFileToString(report, "UTF-8");
+		assertThat(xml, containsString("tests=\"2\" failures=\"1\" skipped=\"0\""));
+		assertThat(xml, containsString("time=\"2.500\""));
+	}
+
+	@Test
+	public void shouldWriteSpecDurationsAndFailures() throws IOException {
+		ReportItem suite = new ReportItem(ReportItem.Type.SUITE, 0, "Suite");
+		ReportItem passing = new ReportItem(ReportItem.Type.SPEC, 0, "passes");
+		passing.setResult(ReportItem.PASSED);
+		passing.setTiming(1000, 1042);
+		ReportItem failing = new ReportItem(ReportItem.Type.SPEC, 1, "fails <badly>");
+		failing.setResult(ReportItem.FAILED);
+		failing.setTiming(1042, 2542);
+		failing.setMessages(Arrays.asList(new ReportMessage("Expected 1 to be \"2\".", "expect", "toBe")));
+		suite.addChild(passing);
+		suite.addChild(failing);
+		JasmineReport jasmineReport = new JasmineReport();
+		jasmineReport.addSuite(suite);
+
+		sut.write(jasmineReport, report);
+
+		String xml = FileUtils.readFileToString(report, "UTF-8");
+		assertThat(xml, containsString("<testcase classname=\"jasmine\" name=\"Suite passes\" time=\"0.042\" failure=\"false\""));
+		assertThat(xml, containsString("name=\"Suite fails &lt;badly&gt;\" time=\"1.500\" failure=\"true\"><error type=\"expect.toBe\" message=\"Expected 1 to be &quot;2&quot;.\">"));
+	}
+
+	@Test
+	public void shouldWriteSpecsWithoutResultAsSkipped() throws IOException {
+		ReportItem suite = new ReportItem(ReportItem.Type.SUITE, 0, "Suite");
+		ReportItem failing = new ReportItem(ReportItem.Type.SPEC, 0, "fails");
+		failing.setResult(ReportItem.FAILED);
+		failing.setMessages(Arrays.asList(new ReportMessage("Expected 1 to be 2.", "expect", "toBe")));
+		ReportItem notRun = new ReportItem(ReportItem.Type.SPEC, 1, "never ran");
+		suite.addChild(failing);
+		suite.addChild(notRun);
+		JasmineReport jasmineReport = new JasmineReport();
+		jasmineReport.setSpecCount(1);
+		jasmineReport.setFailureCount(1);
+		jasmineReport.setSkippedCount(1);
+		jasmineReport.addSuite(suite);
+
+		sut.write(jasmineReport, report);
+
+		String xml = FileUtils.readFileToString(report, "UTF-8");
+		assertThat(xml, containsString("tests=\"1\" failures=\"1\" skipped=\"1\""));
+		assertThat(xml, containsString("name=\"Suite fails\" time=\"0.000\" failure=\"true\"><error"));
+		assertThat(xml, containsString("name=\"Suite never ran\" time=\"0.000\" failure=\"false\"><skipped/></testcase>"));
+	}
+
+	@Test
+	public void shouldWriteSuiteAttributes() throws IOException {
+		sut.write(new JasmineReport(), report);
+
+		String xml = FileUtils.readFileToString(report, "UTF-8");
+		assertThat(xml, startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"));
+		assertThat(xml, containsString("<testsuite errors=\"0\" name=\"jasmine.specs\" tests=\"0\" failures=\"0\" skipped=\"0\" hostname=\"localhost\""));
+		assertThat(xml.matches("(?s).*timestamp=\"\\d{4}-\\d{2}-\\d{2}T\\d{2}:\\d{2}:\\d{2}\".*"), is(true));
+	}
+
+	@Test
+	public void shouldNameTestcasesAfterAllTheirSuites() throws IOException {
+		ReportItem project = new ReportItem(ReportItem.Type.SUITE, 0, "Your Project");
+		project.addChild(spec(0, "is named Slice-o-matic", ReportItem.PASSED));
+		ReportItem featureA = new ReportItem(ReportItem.Type.SUITE, 1, "Feature A");
+		featureA.addChild(spec(1, "slices", ReportItem.PASSED));
+		featureA.addChild(spec(2, "does not slice *that*", ReportItem.PASSED));
+		project.addChild(featureA);
+		ReportItem featureB = new ReportItem(ReportItem.Type.SUITE, 2, "Feature B");
+		featureB.addChild(spec(3, "dices", ReportItem.PASSED));
+		ReportItem b1 = new ReportItem(ReportItem.Type.SUITE, 3, "B.1");
+		b1.addChild(spec(4, "dices finely", ReportItem.PASSED));
+		ReportItem b1a = new ReportItem(ReportItem.Type.SUITE, 4, "B.1.a");
+		ReportItem failing = spec(5, "dices just by looking at it the wrong way", ReportItem.FAILED);
+		failing.setMessages(Arrays.asList(new ReportMessage("Expected 'Awesome idea' to contain 'Terrible'.", "expect", "toContain")));
+		b1a.addChild(failing);
+		b1.addChild(b1a);
+		featureB.addChild(b1);
+		project.addChild(featureB);
+		JasmineReport jasmineReport = new JasmineReport();
+		jasmineReport.addSuite(project);
+
+		sut.write(jasmineReport, report);
+
+		String xml = FileUtils.readFileToString(report, "UTF-8");
+		assertThat(xml.split("<testcase ").length - 1, is(6));
+		assertThat(xml, containsString("<testcase classname=\"jasmine\" name=\"Your Project is named Slice-o-matic\" time=\"0.000\" failure=\"false\"/>"));
+		assertThat(xml, containsString("name=\"Your Project Feature A does not slice *that*\""));
+		assertThat(xml, containsString("name=\"Your Project Feature B B.1 B.1.a dices just by looking at it the wrong way\" time=\"0.000\" failure=\"true\">" +
+				"<error type=\"expect.toContain\" message=\"Expected 'Awesome idea' to contain 'Terrible'.\">Expected 'Awesome idea' to contain 'Terrible'.</error></testcase>"));
+	}
+
+	@Test
+	public void shouldEscapeNamesAndMessages() throws IOException {
+		ReportItem suite = new ReportItem(ReportItem.Type.SUITE, 0, "Tom & \"Jerry\"");
+		ReportItem failing = spec(0, "compares <a> & <b>", ReportItem.FAILED);
+		failing.setMessages(Arrays.asList(new ReportMessage("Expected '<a>' & \"b\" to be ']]>'.", "expect", "toBe")));
+		suite.addChild(failing);
+		JasmineReport jasmineReport = new JasmineReport();
+		jasmineReport.addSuite(suite);
+
+		sut.write(jasmineReport, report);
+
+		String xml = FileUtils.readFileToString(report, "UTF-8");
+		assertThat(xml, containsString("name=\"Tom &amp; &quot;Jerry&quot; compares &lt;a&gt; &amp; &lt;b&gt;\""));
+		assertThat(xml, containsString("message=\"Expected '&lt;a&gt;' &amp; &quot;b&quot; to be ']]&gt;'.\">Expected '&lt;a&gt;' &amp; \"b\" to be ']]&gt;'.</error>"));
+	}
+
+	@Test
+	public void shouldWriteZeroTimeWhenDurationIsUnknown() throws IOException {
+		ReportItem suite = new ReportItem(ReportItem.Type.SUITE, 0, "Suite");
+		ReportItem spec = new ReportItem(ReportItem.Type.SPEC, 0, "untimed");
+		spec.setResult(ReportItem.PASSED);
+		suite.addChild(spec);
+		JasmineReport jasmineReport = new JasmineReport();
+		jasmineReport.addSuite(suite);
+
+		sut.write(jasmineReport, report);
+
+		assertThat(FileUtils.readFileToString(report, "UTF-8"), containsString("name=\"Suite untimed\" time=\"0.000\""));
+	}
+
+	private ReportItem spec(int id, String name, String result) {
+		ReportItem spec = new ReportItem(ReportItem.Type.SPEC, id, name);
+		spec.setResult(result);
+		return spec;
+	}
+
+}
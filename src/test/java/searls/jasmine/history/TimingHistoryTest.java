@@ -0,0 +1,85 @@
+package searls.jasmine.history;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import searls.jasmine.model.SpecTimings;
+
+public class TimingHistoryTest {
+
+	private File directory;
+	private TimingHistory sut;
+
+	@Before
+	public void createDirectory() throws IOException {
+		directory = File.createTempFile("timingHistory", "");
+		directory.delete();
+		sut = new TimingHistory(new File(directory, "history/timing-history.tsv"));
+	}
+
+	@After
+	public void deleteDirectory() {
+		FileUtils.deleteQuietly(directory);
+	}
+
+	@Test
+	public void shouldAppendOneLinePerSpecAndSuite() throws IOException {
+		sut.append(timings("cart totals", 120), 1000L, 20);
+
+		assertThat(FileUtils.readFileToString(sut.getFile(), "UTF-8"), is("1000\tspec\t120\tcart totals\n1000\tsuite\t121\tcart\n"));
+	}
+
+	@Test
+	public void shouldReadTheLatestDurations() throws IOException {
+		sut.append(timings("cart totals", 120), 1000L, 20);
+		sut.append(timings("cart totals", 80), 2000L, 20);
+
+		Map<String, Long> durations = sut.latestDurations(TimingHistory.SPEC);
+
+		assertThat(durations.size(), is(1));
+		assertThat(durations.get("cart totals"), is(80L));
+	}
+
+	@Test
+	public void shouldReadNothingWithoutAFile() throws IOException {
+		assertThat(sut.latestDurations(TimingHistory.SPEC).isEmpty(), is(true));
+	}
+
+	@Test
+	public void shouldKeepOnlyTheMostRecentBuilds() throws IOException {
+		sut.append(timings("cart totals", 1), 1000L, 2);
+		sut.append(timings("cart totals", 2), 2000L, 2);
+		sut.append(timings("cart totals", 3), 3000L, 2);
+
+		List<String> lines = FileUtils.readLines(sut.getFile(), "UTF-8");
+
+		assertThat(lines.size(), is(4));
+		assertThat(lines.get(0), startsWith("2000\t"));
+		assertThat(lines.get(3), startsWith("3000\t"));
+	}
+
+	@Test
+	public void shouldKeepNamesOnOneLine() throws IOException {
+		sut.append(timings("cart\ttotals\n", 1), 1000L, 20);
+
+		assertThat(sut.latestDurations(TimingHistory.SPEC).containsKey("cart totals "), is(true));
+	}
+
+	private SpecTimings timings(String spec, long durationMillis) {
+		SpecTimings timings = new SpecTimings();
+		timings.addSpec(spec, durationMillis);
+		timings.addSuite("cart", durationMillis + 1);
+		return timings;
+	}
+
+}
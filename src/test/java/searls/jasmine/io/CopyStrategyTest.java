@@ -0,0 +1,81 @@
+package searls.jasmine.io;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CopyStrategyTest {
+
+	private File root;
+	private File src;
+	private File dest;
+
+	@Before
+	public void createSource() throws IOException {
+		root = File.createTempFile("copyStrategy", "");
+		root.delete();
+		src = new File(root, "src/a.js");
+		dest = new File(root, "dest/nested/a.js");
+		FileUtils.writeStringToFile(src, "var a = 1;");
+	}
+
+	@After
+	public void deleteFiles() {
+		FileUtils.deleteQuietly(root);
+	}
+
+	@Test
+	public void streamShouldCopyContents() throws IOException {
+		CopyStrategy.STREAM.copyFile(src, dest);
+
+		assertThat(FileUtils.readFileToString(dest), is("var a = 1;"));
+	}
+
+	@Test
+	public void channelShouldCopyContentsAndModificationTime() throws IOException {
+		src.setLastModified(1000000000000L);
+
+		CopyStrategy.CHANNEL.copyFile(src, dest);
+
+		assertThat(FileUtils.readFileToString(dest), is("var a = 1;"));
+		assertThat(dest.lastModified(), is(src.lastModified()));
+	}
+
+	@Test
+	public void linkShouldMakeTheContentsAvailable() throws IOException {
+		CopyStrategy.LINK.copyFile(src, dest);
+
+		assertThat(FileUtils.readFileToString(dest), is("var a = 1;"));
+	}
+
+	@Test
+	public void shouldNotWriteThroughAnExistingLinkIntoTheSource() throws IOException {
+		CopyStrategy.LINK.copyFile(src, dest);
+		File otherSrc = new File(root, "src/b.js");
+		FileUtils.writeStringToFile(otherSrc, "var b = 2;");
+
+		CopyStrategy.STREAM.copyFile(otherSrc, dest);
+
+		assertThat(FileUtils.readFileToString(src), is("var a = 1;"));
+		assertThat(FileUtils.readFileToString(dest), is("var b = 2;"));
+	}
+
+	@Test
+	public void shouldFindStrategiesByName() {
+		assertThat(CopyStrategy.forName("channel"), is(CopyStrategy.CHANNEL));
+		assertThat(CopyStrategy.forName(" LINK "), is(CopyStrategy.LINK));
+		assertThat(CopyStrategy.forName(null), is(CopyStrategy.STREAM));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void shouldRejectUnknownStrategies() {
+		CopyStrategy.forName("teleport");
+	}
+}
@@ -0,0 +1,164 @@
+package searls.jasmine.io;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DirectoryCopierIncrementalTest {
+
+	private DirectoryCopier directoryCopier = new DirectoryCopier();
+
+	private File root;
+	private File srcDir;
+	private File destDir;
+	private File manifest;
+
+	@Before
+	public void createDirectories() throws IOException {
+		root = File.createTempFile("incrementalCopy", "");
+		root.delete();
+		srcDir = new File(root, "src");
+		destDir = new File(root, "dest");
+		manifest = new File(root, "manifest.properties");
+		srcDir.mkdirs();
+	}
+
+	@After
+	public void deleteDirectories() {
+		FileUtils.deleteQuietly(root);
+	}
+
+	@Test
+	public void shouldCopyEverythingTheFirstTime() throws IOException {
+		FileUtils.writeStringToFile(new File(srcDir, "a.js"), "a");
+		FileUtils.writeStringToFile(new File(srcDir, "nested/b.js"), "bb");
+		FileUtils.writeStringToFile(new File(srcDir, "c.txt"), "not javascript");
+
+		CopyResult result = copy(false);
+
+		assertThat(result.getCopiedFiles(), is(2));
+		assertThat(result.getCopiedBytes(), is(3L));
+		assertThat(new File(destDir, "nested/b.js").isFile(), is(true));
+		assertThat(new File(destDir, "c.txt").exists(), is(false));
+	}
+
+	@Test
+	public void shouldSkipUnchangedFiles() throws IOException {
+		FileUtils.writeStringToFile(new File(srcDir, "a.js"), "a");
+		copy(false);
+
+		CopyResult result = copy(false);
+
+		assertThat(result.getCopiedFiles(), is(0));
+		assertThat(result.getSkippedFiles(), is(1));
+	}
+
+	@Test
+	public void shouldCopyChangedFiles() throws IOException {
+		File source = new File(srcDir, "a.js");
+		FileUtils.writeStringToFile(source, "a");
+		copy(false);
+
+		FileUtils.writeStringToFile(source, "changed");
+		CopyResult result = copy(false);
+
+		assertThat(result.getCopiedFiles(), is(1));
+		assertThat(FileUtils.readFileToString(new File(destDir, "a.js")), is("changed"));
+	}
+
+	@Test
+	public void shouldSkipTouchedFilesWithSameContentWhenComparingContent() throws IOException {
+		File source = new File(srcDir, "a.js");
+		FileUtils.writeStringToFile(source, "a");
+		copy(true);
+
+		source.setLastModified(source.lastModified() - 10000);
+		CopyResult result = copy(true);
+
+		assertThat(result.getSkippedFiles(), is(1));
+		assertThat(result.getCopiedFiles(), is(0));
+	}
+
+	@Test
+	public void shouldDeleteCopiesOfRemovedSources() throws IOException {
+		File source = new File(srcDir, "a.js");
+		FileUtils.writeStringToFile(source, "a");
+		copy(false);
+
+		source.delete();
+		CopyResult result = copy(false);
+
+		assertThat(result.getDeletedFiles(), is(1));
+		assertThat(new File(destDir, "a.js").exists(), is(false));
+	}
+
+	@Test
+	public void shouldRecopyFilesDeletedFromTheDestination() throws IOException {
+		FileUtils.writeStringToFile(new File(srcDir, "a.js"), "a");
+		copy(false);
+
+		new File(destDir, "a.js").delete();
+		CopyResult result = copy(false);
+
+		assertThat(result.getCopiedFiles(), is(1));
+	}
+
+	@Test
+	public void shouldOnlyIncludeVisibleFilesWithTheSuffix() throws IOException {
+		File visible = new File(srcDir, "nested/a.js");
+		File hidden = new File(srcDir, ".a.js");
+		File inHiddenDirectory = new File(srcDir, ".hidden/a.js");
+		File other = new File(srcDir, "c.txt");
+		for (File file : new File[] { visible, hidden, inHiddenDirectory, other }) {
+			FileUtils.writeStringToFile(file, "a");
+		}
+
+		assertThat(directoryCopier.includes(srcDir, visible, ".js"), is(true));
+		assertThat(directoryCopier.includes(srcDir, visible.getParentFile(), ".js"), is(true));
+		assertThat(directoryCopier.includes(srcDir, hidden, ".js"), is(false));
+		assertThat(directoryCopier.includes(srcDir, inHiddenDirectory, ".js"), is(false));
+		assertThat(directoryCopier.includes(srcDir, other, ".js"), is(false));
+	}
+
+	@Test
+	public void shouldRecordSingleFileCopiesInTheManifest() throws IOException {
+		File source = new File(srcDir, "nested/a.js");
+		FileUtils.writeStringToFile(source, "a");
+		CopyManifest copyManifest = CopyManifest.load(manifest);
+
+		directoryCopier.copyFileIncrementally(source, new File(destDir, "nested/a.js"), "nested/a.js", copyManifest, false, CopyStrategy.STREAM, new CopyResult());
+		copyManifest.save(manifest);
+		CopyResult result = copy(false);
+
+		assertThat(result.getCopiedFiles(), is(0));
+		assertThat(result.getSkippedFiles(), is(1));
+	}
+
+	@Test
+	public void shouldForgetDeletedDirectoryCopies() throws IOException {
+		FileUtils.writeStringToFile(new File(srcDir, "nested/a.js"), "a");
+		FileUtils.writeStringToFile(new File(srcDir, "nested/deeper/b.js"), "b");
+		FileUtils.writeStringToFile(new File(srcDir, "nestedSibling.js"), "c");
+		copy(false);
+		CopyManifest copyManifest = CopyManifest.load(manifest);
+		CopyResult result = new CopyResult();
+
+		directoryCopier.deleteCopy(new File(destDir, "nested"), "nested", copyManifest, result);
+
+		assertThat(result.getDeletedFiles(), is(2));
+		assertThat(copyManifest.relativePaths().size(), is(1));
+		assertThat(copyManifest.get("nestedSibling.js"), is(notNullValue()));
+		assertThat(new File(destDir, "nested").exists(), is(false));
+	}
+
+	private CopyResult copy(boolean compareContentHashes) throws IOException {
+		return directoryCopier.copyDirectoryIncrementally(srcDir, destDir, ".js", manifest, compareContentHashes, CopyStrategy.STREAM);
+	}
+}
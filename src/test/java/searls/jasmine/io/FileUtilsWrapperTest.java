@@ -17,7 +17,7 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 @RunWith(PowerMockRunner.class)
-@PrepareForTest({FileUtils.class, org.codehaus.plexus.util.FileUtils.class})
+@PrepareForTest(FileUtils.class)
 public class FileUtilsWrapperTest {
 
 	private FileUtilsWrapper sut = new FileUtilsWrapper();
@@ -26,7 +26,6 @@ public class FileUtilsWrapperTest {
 	@Before
 	public void powerfullyMockStaticClasses() {
 		mockStatic(FileUtils.class);
-		mockStatic(org.codehaus.plexus.util.FileUtils.class);
 	}
 
 	@Test
@@ -48,13 +47,14 @@ public class FileUtilsWrapperTest {
 	}	
 	
 	@Test
-	public void listFilesDelegatesToPlexusFileUtils() throws IOException {
+	public void listFilesDelegatesToParallelFileScanner() throws IOException {
+		ParallelFileScanner fileScanner = mock(ParallelFileScanner.class);
 		Collection<File> expected = new ArrayList<File>();
 		String includes="inc";
 		String excludes="exc";
-		when(org.codehaus.plexus.util.FileUtils.getFiles(file, includes, excludes)).thenReturn((List<File>) expected);
+		when(fileScanner.scan(file, includes, excludes)).thenReturn((List<File>) expected);
 		
-		Collection<File> files = sut.listFiles(file, includes, excludes);
+		Collection<File> files = new FileUtilsWrapper(fileScanner).listFiles(file, includes, excludes);
 		
 		assertThat(files,is(sameInstance(expected)));
 	}
@@ -0,0 +1,74 @@
+package searls.jasmine.io;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelFileScannerTest {
+
+	private ParallelFileScanner sut = new ParallelFileScanner();
+
+	private File root;
+
+	@Before
+	public void createFiles() throws IOException {
+		root = File.createTempFile("parallelFileScanner", "");
+		root.delete();
+		for (String path : new String[] { "a.js", "b.txt", "nested/c.js", "nested/deeper/d.js", "vendor/e.js", "vendor/lib/f.js", ".svn/g.js", "nested/.git/h.js" }) {
+			FileUtils.writeStringToFile(new File(root, path), path);
+		}
+	}
+
+	@After
+	public void deleteFiles() {
+		FileUtils.deleteQuietly(root);
+	}
+
+	@Test
+	public void shouldFindSameFilesAsPlexusWithDefaultPatterns() throws IOException {
+		assertSameFilesAsPlexus("**/*.js", null);
+	}
+
+	@Test
+	public void shouldFindSameFilesAsPlexusWithExcludes() throws IOException {
+		assertSameFilesAsPlexus("**/*.js", "vendor/**, **/deeper/*.js");
+	}
+
+	@Test
+	public void shouldFindSameFilesAsPlexusWithDirectoryPatterns() throws IOException {
+		assertSameFilesAsPlexus("nested/, *.txt", "vendor/");
+	}
+
+	@Test
+	public void shouldFindEverythingWithoutIncludes() throws IOException {
+		assertSameFilesAsPlexus(null, null);
+	}
+
+	@Test
+	public void shouldReturnFilesSorted() throws IOException {
+		List<File> files = sut.scan(root, "**/*.js", null);
+
+		List<File> sorted = new ArrayList<File>(files);
+		Collections.sort(sorted);
+		assertThat(files, is(sorted));
+	}
+
+	@SuppressWarnings("unchecked")
+	private void assertSameFilesAsPlexus(String includes, String excludes) throws IOException {
+		List<File> expected = new ArrayList<File>(org.codehaus.plexus.util.FileUtils.getFiles(root, includes, excludes));
+		Collections.sort(expected);
+
+		assertThat(sut.scan(root, includes, excludes), is(expected));
+	}
+
+}
@@ -0,0 +1,114 @@
+package searls.jasmine.metrics;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BuildMetricsTest {
+
+	private BuildMetrics sut = new BuildMetrics();
+	private File directory;
+
+	@Before
+	public void createDirectory() throws IOException {
+		directory = File.createTempFile("metrics", "");
+		directory.delete();
+		directory.mkdirs();
+	}
+
+	@After
+	public void deleteDirectory() {
+		FileUtils.deleteQuietly(directory);
+	}
+
+	@Test
+	public void shouldShareMetricsPerDirectory() {
+		assertThat(BuildMetrics.forDirectory(directory), is(sameInstance(BuildMetrics.forDirectory(new File(directory.getPath())))));
+	}
+
+	@Test
+	public void shouldWriteEveryGoalAsJson() throws IOException {
+		sut.record("resources", metricsFor("copy"));
+		sut.record("test", metricsFor("load", "run"));
+		File json = new File(directory, "metrics.json");
+
+		sut.writeJson(json, "group:artifact");
+
+		String written = FileUtils.readFileToString(json, "UTF-8");
+		assertThat(written, containsString("\"project\": \"group:artifact\""));
+		assertThat(written, containsString("\"resources\": {"));
+		assertThat(written, containsString("\"copy\": { \"count\": 1, \"wallMillis\": "));
+		assertThat(written, containsString("\"test\": {"));
+		assertThat(written, containsString("\"run\": { \"count\": 1"));
+		assertThat(written, containsString("\"total\": { \"count\": 1"));
+	}
+
+	@Test
+	public void shouldReplaceEarlierRunsOfAGoal() {
+		sut.record("test", metricsFor("load"));
+		sut.record("test", metricsFor("run"));
+
+		String json = sut.toJson(null);
+
+		assertThat(json, not(containsString("\"load\"")));
+		assertThat(json, containsString("\"run\""));
+	}
+
+	@Test
+	public void shouldWritePrometheusTextFormat() throws IOException {
+		sut.record("test", metricsFor("run"));
+		File prom = new File(directory, "jasmine.prom");
+
+		sut.writePrometheus(prom, "group:artifact");
+
+		String written = FileUtils.readFileToString(prom, "UTF-8");
+		assertThat(written, containsString("# TYPE jasmine_phase_wall_seconds gauge\n"));
+		assertThat(written, containsString("jasmine_phase_runs{project=\"group:artifact\",goal=\"test\",phase=\"run\"} 1\n"));
+		assertThat(written, containsString("jasmine_phase_wall_seconds{project=\"group:artifact\",goal=\"test\",phase=\"total\"} "));
+		assertThat(new File(directory, "jasmine.prom.tmp").exists(), is(false));
+		assertThat(directory.list().length, is(1));
+	}
+
+	@Test
+	public void shouldWriteEveryModuleSharingAPrometheusFile() throws IOException {
+		BuildMetrics other = new BuildMetrics();
+		sut.record("test", metricsFor("run"));
+		other.record("test", metricsFor("load"));
+		File prom = new File(directory, "jasmine.prom");
+
+		sut.writePrometheus(prom, "group:first");
+		other.writePrometheus(prom, "group:second");
+
+		String written = FileUtils.readFileToString(prom, "UTF-8");
+		assertThat(written, containsString("jasmine_phase_runs{project=\"group:first\",goal=\"test\",phase=\"run\"} 1\n"));
+		assertThat(written, containsString("jasmine_phase_runs{project=\"group:second\",goal=\"test\",phase=\"load\"} 1\n"));
+		assertThat(written.indexOf("# TYPE jasmine_phase_runs gauge"), is(written.lastIndexOf("# TYPE jasmine_phase_runs gauge")));
+	}
+
+	@Test
+	public void shouldSummarizeAGoal() {
+		sut.record("test", metricsFor("load", "run"));
+
+		String summary = sut.summarize("test");
+
+		assertThat(summary, startsWith("jasmine:test phases (wall/CPU, allocated): load "));
+		assertThat(summary, containsString(", run "));
+		assertThat(summary, containsString(", total "));
+	}
+
+	private PhaseMetrics metricsFor(String... phases) {
+		PhaseMetrics metrics = new PhaseMetrics();
+		for (String phase : phases) {
+			metrics.start(phase).stop();
+		}
+		return metrics;
+	}
+
+}
@@ -0,0 +1,100 @@
+package searls.jasmine.metrics;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+public class PhaseMetricsTest {
+
+	private PhaseMetrics sut = new PhaseMetrics();
+
+	@Test
+	public void shouldSumRepeatedPhases() throws Exception {
+		timePhase("load", 20);
+		timePhase("run", 1);
+		timePhase("load", 20);
+
+		List<PhaseMetrics.Phase> phases = sut.getPhases();
+
+		assertThat(phases.size(), is(2));
+		assertThat(phases.get(0).getName(), is("load"));
+		assertThat(phases.get(0).getCount(), is(2));
+		assertThat(phases.get(0).getWallNanos() >= 40000000L, is(true));
+		assertThat(phases.get(1).getName(), is("run"));
+	}
+
+	@Test
+	public void shouldMeasureAllocatedBytesWhereSupported() {
+		PhaseMetrics.Timer timer = sut.start("allocate");
+		byte[][] garbage = new byte[16][];
+		for (int i = 0; i < garbage.length; i++) {
+			garbage[i] = new byte[64 * 1024];
+		}
+		timer.stop();
+
+		long allocated = sut.getPhases().get(0).getAllocatedBytes();
+		assertThat(allocated == PhaseMetrics.UNAVAILABLE || allocated >= 16 * 64 * 1024, is(true));
+	}
+
+	@Test
+	public void shouldMeasureAllocatedBytesOfWorkerThreadsWhereSupported() throws Exception {
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch allocate = new CountDownLatch(1);
+		final CountDownLatch allocated = new CountDownLatch(1);
+		Thread worker = new Thread() {
+			public void run() {
+				try {
+					started.countDown();
+					allocate.await();
+					byte[][] garbage = new byte[16][];
+					for (int i = 0; i < garbage.length; i++) {
+						garbage[i] = new byte[64 * 1024];
+					}
+					allocated.countDown();
+					Thread.sleep(10000);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		worker.start();
+		started.await();
+
+		PhaseMetrics.Timer timer = sut.start("run", worker);
+		allocate.countDown();
+		allocated.await();
+		timer.stop();
+		worker.interrupt();
+
+		long allocatedBytes = sut.getPhases().get(0).getAllocatedBytes();
+		assertThat(allocatedBytes == PhaseMetrics.UNAVAILABLE || allocatedBytes >= 16 * 64 * 1024, is(true));
+	}
+
+	@Test
+	public void shouldNotRecordPhasesThatNeverStopped() {
+		sut.start("aborted");
+
+		assertThat(sut.getPhases().isEmpty(), is(true));
+	}
+
+	@Test
+	public void shouldMeasureTotalSinceCreation() throws Exception {
+		Thread.sleep(20);
+
+		PhaseMetrics.Phase total = sut.total();
+
+		assertThat(total.getName(), is("total"));
+		assertThat(total.getWallNanos() >= 20000000L, is(true));
+	}
+
+	private void timePhase(String phase, long millis) throws InterruptedException {
+		PhaseMetrics.Timer timer = sut.start(phase);
+		Thread.sleep(millis);
+		timer.stop();
+	}
+
+}
@@ -2,6 +2,8 @@ package searls.jasmine.model;
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
+
 import org.junit.Test;
 
 public class JasmineResultTest {
@@ -9,8 +11,8 @@ public class JasmineResultTest {
 	private JasmineResult jasmineResult = new JasmineResult();;
 
 	@Test
-	public void shouldParseDescriptionWhenSuccessful() {
-		jasmineResult.setDescription("1 spec, 0 failures");
+	public void shouldPassWithoutFailures() {
+		jasmineResult.setSpecCount(1);
 
 		boolean success = jasmineResult.didPass();
 
@@ -19,11 +21,56 @@ public class JasmineResultTest {
 
 	@Test
 	public void shouldFailWhenFail() {
-		jasmineResult.setDescription("2 specs, 1 failure");
+		jasmineResult.setSpecCount(2);
+		jasmineResult.setFailureCount(1);
+
+		boolean success = jasmineResult.didPass();
+
+		assertThat(success, is(false));
+	}
+
+	@Test
+	public void shouldFailWithTenFailures() {
+		jasmineResult.setSpecCount(10);
+		jasmineResult.setFailureCount(10);
 
 		boolean success = jasmineResult.didPass();
 
 		assertThat(success, is(false));
 	}
 
+	@Test
+	public void shouldDescribeCounts() {
+		jasmineResult.setSpecCount(2);
+		jasmineResult.setFailureCount(1);
+
+		assertThat(jasmineResult.getDescription(), is("2 specs, 1 failures"));
+	}
+
+	@Test
+	public void shouldMergeCountsDetailsAndSpecs() {
+		JasmineResult first = result(3, 1, 0, "a");
+		first.getSpecs().add(0, SpecStatus.FAILED, 5);
+		JasmineResult second = result(2, 0, 1, "b");
+		second.getSpecs().add(0, SpecStatus.PASSED, 7);
+		second.getSpecs().add(1, SpecStatus.SKIPPED, -1);
+
+		JasmineResult merged = JasmineResult.merge(Arrays.asList(first, second));
+
+		assertThat(merged.getDescription(), is("5 specs, 1 failures, 1 skipped"));
+		assertThat(merged.getDetails(), is("ab"));
+		assertThat(merged.getSpecs().size(), is(3));
+		assertThat(merged.getSpecs().getDurationMillis(1), is(7L));
+		assertThat(merged.getSpecs().count(SpecStatus.SKIPPED), is(1));
+	}
+
+	private JasmineResult result(int specs, int failures, int skipped, String details) {
+		JasmineResult result = new JasmineResult();
+		result.setSpecCount(specs);
+		result.setFailureCount(failures);
+		result.setSkippedCount(skipped);
+		result.setDetails(details);
+		return result;
+	}
+
 }
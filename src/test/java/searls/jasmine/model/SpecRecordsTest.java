@@ -0,0 +1,66 @@
+package searls.jasmine.model;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+public class SpecRecordsTest {
+
+	private SpecRecords sut = new SpecRecords(1);
+
+	@Test
+	public void shouldGrowAsRecordsAreAdded() {
+		for (int i = 0; i < 100; i++) {
+			sut.add(i, i % 10 == 0 ? SpecStatus.FAILED : SpecStatus.PASSED, i * 2);
+		}
+
+		assertThat(sut.size(), is(100));
+		assertThat(sut.getId(99), is(99));
+		assertThat(sut.getDurationMillis(99), is(198L));
+		assertThat(sut.count(SpecStatus.FAILED), is(10));
+	}
+
+	@Test
+	public void shouldAppendOtherRecords() {
+		SpecRecords other = new SpecRecords();
+		sut.add(1, SpecStatus.PASSED, 3);
+		other.add(1, SpecStatus.FAILED, 4);
+		other.add(2, SpecStatus.SKIPPED, -1);
+
+		sut.addAll(other);
+
+		assertThat(sut.size(), is(3));
+		assertThat(sut.getStatus(1), is(SpecStatus.FAILED));
+		assertThat(sut.getDurationMillis(2), is(-1L));
+	}
+
+	@Test(expected=IndexOutOfBoundsException.class)
+	public void shouldRejectIndexBeyondSize() {
+		sut.add(1, SpecStatus.PASSED, 3);
+
+		sut.getId(1);
+	}
+
+	@Test
+	public void shouldRoundTripThroughDataStreams() throws IOException {
+		sut.add(7, SpecStatus.FAILED, 1500);
+		sut.add(8, SpecStatus.PASSED, 2);
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		sut.writeTo(new DataOutputStream(bytes));
+		SpecRecords read = SpecRecords.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+		assertThat(bytes.size(), is(4 + 2 * 9));
+		assertThat(read.size(), is(2));
+		assertThat(read.getId(0), is(7));
+		assertThat(read.getStatus(0), is(SpecStatus.FAILED));
+		assertThat(read.getDurationMillis(0), is(1500L));
+	}
+
+}
@@ -0,0 +1,48 @@
+package searls.jasmine.model;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class SpecTimingsTest {
+
+	private SpecTimings sut = new SpecTimings();
+
+	@Test
+	public void shouldFindTheSlowestSlowestFirst() {
+		sut.addSpec("a", 30);
+		sut.addSpec("b", 10);
+		sut.addSpec("c", 50);
+		sut.addSpec("d", 20);
+
+		List<SpecTimings.Timing> slowest = SpecTimings.slowest(sut.getSpecs(), 2);
+
+		assertThat(slowest.size(), is(2));
+		assertThat(slowest.get(0).getFullName(), is("c"));
+		assertThat(slowest.get(1).getFullName(), is("a"));
+	}
+
+	@Test
+	public void shouldFindFewerWhenThereAreFewer() {
+		sut.addSpec("a", 30);
+
+		assertThat(SpecTimings.slowest(sut.getSpecs(), 10).size(), is(1));
+		assertThat(SpecTimings.slowest(sut.getSpecs(), 0).isEmpty(), is(true));
+	}
+
+	@Test
+	public void shouldAddAll() {
+		SpecTimings other = new SpecTimings();
+		other.addSpec("a", 1);
+		other.addSuite("b", 2);
+
+		sut.addAll(other);
+
+		assertThat(sut.getSpecs().size(), is(1));
+		assertThat(sut.getSuites().size(), is(1));
+	}
+
+}
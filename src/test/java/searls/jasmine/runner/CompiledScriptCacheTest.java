@@ -0,0 +1,99 @@
+package searls.jasmine.runner;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.File;
+
+import net.sourceforge.htmlunit.corejs.javascript.Script;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompiledScriptCacheTest {
+
+	private static final String SOURCE = "var jasmine = {};\r\njasmine.version = 1;";
+
+	private CompiledScriptCache sut = new CompiledScriptCache();
+
+	private File file;
+
+	@Before
+	public void writeDependency() throws Exception {
+		file = File.createTempFile("jasmine", ".js");
+		FileUtils.writeStringToFile(file, SOURCE);
+	}
+
+	@After
+	public void deleteDependency() {
+		file.delete();
+	}
+
+	@Test
+	public void shouldKeyRegisteredSourcesByCoordinatesAndChecksum() throws Exception {
+		String key = sut.register("com.pivotallabs:jasmine:js:1.0.1", file);
+
+		assertThat(key.startsWith("com.pivotallabs:jasmine:js:1.0.1@"), is(true));
+		assertThat(key.length(), is("com.pivotallabs:jasmine:js:1.0.1@".length() + 40));
+	}
+
+	@Test
+	public void shouldFindKeyForRegisteredSource() throws Exception {
+		String key = sut.register("com.pivotallabs:jasmine:js:1.0.1", file);
+
+		assertThat(sut.keyFor(SOURCE), is(key));
+	}
+
+	@Test
+	public void shouldFindKeyForRegisteredSourceWithNormalizedLineEndings() throws Exception {
+		String key = sut.register("com.pivotallabs:jasmine:js:1.0.1", file);
+
+		assertThat(sut.keyFor(SOURCE.replace("\r\n", "\n")), is(key));
+	}
+
+	@Test
+	public void shouldNotFindKeyForOtherSourceOfTheSameLength() throws Exception {
+		sut.register("com.pivotallabs:jasmine:js:1.0.1", file);
+
+		assertThat(sut.keyFor(SOURCE.replace('j', 'J')), is(nullValue()));
+	}
+
+	@Test
+	public void shouldChangeKeyWhenContentsChange() throws Exception {
+		String key = sut.register("com.pivotallabs:jasmine:js:1.0.1", file);
+		FileUtils.writeStringToFile(file, SOURCE+"\njasmine.version = 2;");
+
+		assertThat(sut.register("com.pivotallabs:jasmine:js:1.0.1", file), is(not(key)));
+	}
+
+	@Test
+	public void shouldReturnNullForScriptNotYetCompiled() {
+		assertThat(sut.get("com.pivotallabs:jasmine:js:1.0.1@abc"), is(nullValue()));
+	}
+
+	@Test
+	public void shouldKeepFirstCompiledScript() {
+		Script first = mock(Script.class);
+		Script second = mock(Script.class);
+
+		sut.put("key", first, 10);
+		Script result = sut.put("key", second, 10);
+
+		assertThat(result, is(first));
+		assertThat(sut.get("key"), is(first));
+		assertThat(sut.size(), is(1));
+	}
+
+	@Test
+	public void shouldDescribeCompileAndReuseTimings() {
+		sut.put("key", mock(Script.class), 4000000L);
+		sut.get("key");
+		sut.get("key");
+
+		assertThat(sut.describeTimings(), is("Compiled plugin scripts: 1 compilations taking 4 ms in total, 2 reuses saving roughly 8 ms"));
+	}
+
+}
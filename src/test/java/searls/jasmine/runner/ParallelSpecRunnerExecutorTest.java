@@ -0,0 +1,64 @@
+package searls.jasmine.runner;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.File;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import searls.jasmine.format.JunitXmlReportMerger;
+import searls.jasmine.model.JasmineResult;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ParallelSpecRunnerExecutorTest {
+
+	private static final String BROWSER_VERSION = "FIREFOX_3";
+
+	@Mock private SpecRunnerExecutor specRunnerExecutor;
+	@Mock private JunitXmlReportMerger junitXmlReportMerger;
+	@InjectMocks private ParallelSpecRunnerExecutor sut = new ParallelSpecRunnerExecutor(specRunnerExecutor);
+
+	private File junitXmlReport = new File("TEST-jasmine.xml");
+	private List<File> shardReports = Arrays.asList(new File("shard-1.xml"), new File("shard-2.xml"));
+
+	@Test
+	public void shouldExecuteEveryShardAndSumTheirResults() throws Exception {
+		URL first = new URL("file:/first.html");
+		URL second = new URL("file:/second.html");
+		when(specRunnerExecutor.execute(first, shardReports.get(0), BROWSER_VERSION)).thenReturn(result(3, 1, "a"));
+		when(specRunnerExecutor.execute(second, shardReports.get(1), BROWSER_VERSION)).thenReturn(result(2, 0, "b"));
+
+		JasmineResult result = sut.execute(Arrays.asList(first, second), shardReports, junitXmlReport, BROWSER_VERSION, 2);
+
+		assertThat(result.getDescription(), is("5 specs, 1 failures"));
+		assertThat(result.getDetails(), is("ab"));
+		assertThat(result.didPass(), is(false));
+	}
+
+	@Test
+	public void shouldMergeShardReports() throws Exception {
+		URL runner = new URL("file:/first.html");
+		when(specRunnerExecutor.execute(runner, shardReports.get(0), BROWSER_VERSION)).thenReturn(result(1, 0, ""));
+
+		sut.execute(Arrays.asList(runner), shardReports.subList(0, 1), junitXmlReport, BROWSER_VERSION, 4);
+
+		verify(junitXmlReportMerger).merge(shardReports.subList(0, 1), junitXmlReport);
+	}
+
+	private JasmineResult result(int specs, int failures, String details) {
+		JasmineResult result = new JasmineResult();
+		result.setSpecCount(specs);
+		result.setFailureCount(failures);
+		result.setDetails(details);
+		return result;
+	}
+}
@@ -0,0 +1,119 @@
+package searls.jasmine.runner;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ScriptBundlerTest {
+
+	private File root;
+	private File bundleDir;
+	private File a;
+	private File b;
+	private List<String> names = Arrays.asList("file:/a.js", "file:/b.js");
+
+	private ScriptBundler sut;
+
+	@Before
+	public void createScripts() throws IOException {
+		root = File.createTempFile("scriptBundler", "");
+		root.delete();
+		bundleDir = new File(root, "bundles");
+		a = new File(root, "a.js");
+		b = new File(root, "b.js");
+		FileUtils.writeStringToFile(a, "var a = 1\nvar aa = 2");
+		FileUtils.writeStringToFile(b, "var b = 1;\n\nthrow 'b';\n");
+		sut = new ScriptBundler(bundleDir, 1024);
+	}
+
+	@After
+	public void deleteScripts() {
+		FileUtils.deleteQuietly(root);
+	}
+
+	@Test
+	public void shouldConcatenateScriptsInOrderIntoOneChunk() throws IOException {
+		List<File> chunks = sut.bundle(Arrays.asList(a, b), names, "UTF-8");
+
+		assertThat(chunks.size(), is(1));
+		assertThat(FileUtils.readFileToString(chunks.get(0)), is("var a = 1\nvar aa = 2\n;\nvar b = 1;\n\nthrow 'b';\n;\n"));
+	}
+
+	@Test
+	public void shouldStartNewChunkWhenChunkIsFull() throws IOException {
+		List<File> chunks = new ScriptBundler(bundleDir, a.length()).bundle(Arrays.asList(a, b), names, "UTF-8");
+
+		assertThat(chunks.size(), is(2));
+	}
+
+	@Test
+	public void shouldTranslateChunkLinesToOriginalScriptLines() throws IOException {
+		File chunk = sut.bundle(Arrays.asList(a, b), names, "UTF-8").get(0);
+
+		String translated = sut.translate("b in "+chunk.toURI()+" (line 6)");
+
+		assertThat(translated, is("b in file:/b.js (line 3)"));
+	}
+
+	@Test
+	public void shouldWriteProloguesBeforeTheirScripts() throws IOException {
+		File chunk = sut.bundle(Arrays.asList(a, b), names, Arrays.asList(null, "spec = 'b';"), "UTF-8").get(0);
+
+		assertThat(FileUtils.readFileToString(chunk), is("var a = 1\nvar aa = 2\n;\nspec = 'b';\nvar b = 1;\n\nthrow 'b';\n;\n"));
+		assertThat(sut.translate("b in "+chunk.toURI()+" (line 7)"), is("b in file:/b.js (line 3)"));
+	}
+
+	@Test
+	public void shouldLeaveOtherLocationsAlone() {
+		assertThat(sut.translate("oops in file:/c.js (line 6)"), is("oops in file:/c.js (line 6)"));
+	}
+
+	@Test
+	public void shouldReuseChunkAndLineMapWhenScriptsAreUnchanged() throws IOException {
+		File chunk = sut.bundle(Arrays.asList(a, b), names, "UTF-8").get(0);
+		long written = chunk.lastModified();
+		chunk.setLastModified(written - 10000);
+
+		ScriptBundler nextRun = new ScriptBundler(bundleDir, 1024);
+		File reused = nextRun.bundle(Arrays.asList(a, b), names, "UTF-8").get(0);
+
+		assertThat(reused, is(chunk));
+		assertThat(reused.lastModified(), is(written - 10000));
+		assertThat(nextRun.translate("in "+reused.toURI()+" (line 1)"), is("in file:/a.js (line 1)"));
+	}
+
+	@Test
+	public void shouldRewriteChunkWhenScriptChangesWithoutChangingSizeOrModificationTime() throws IOException {
+		File chunk = sut.bundle(Arrays.asList(a, b), names, "UTF-8").get(0);
+		long lastModified = a.lastModified();
+		FileUtils.writeStringToFile(a, "var a = 3\nvar aa = 4");
+		a.setLastModified(lastModified);
+
+		File rewritten = new ScriptBundler(bundleDir, 1024).bundle(Arrays.asList(a, b), names, "UTF-8").get(0);
+
+		assertThat(rewritten, is(not(chunk)));
+		assertThat(FileUtils.readFileToString(rewritten), startsWith("var a = 3\nvar aa = 4"));
+	}
+
+	@Test
+	public void shouldDeleteChunksNoLongerInUse() throws IOException {
+		File stale = sut.bundle(Arrays.asList(a), names.subList(0, 1), "UTF-8").get(0);
+		ScriptBundler nextRun = new ScriptBundler(bundleDir, 1024);
+		File current = nextRun.bundle(Arrays.asList(a, b), names, "UTF-8").get(0);
+
+		nextRun.deleteUnusedChunks();
+
+		assertThat(stale.exists(), is(false));
+		assertThat(current.exists(), is(true));
+	}
+
+}
@@ -0,0 +1,100 @@
+package searls.jasmine.runner;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang.StringUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ShardSchedulerTest {
+
+	private ShardScheduler sut = new ShardScheduler();
+
+	private File root;
+	private File a;
+	private File b;
+	private File c;
+	private File d;
+	private Map<File, Long> recorded = new HashMap<File, Long>();
+
+	@Before
+	public void createSpecs() throws IOException {
+		root = File.createTempFile("shardScheduler", "");
+		root.delete();
+		a = spec("a.js", 10);
+		b = spec("b.js", 20);
+		c = spec("c.js", 30);
+		d = spec("d.js", 40);
+	}
+
+	@After
+	public void deleteSpecs() {
+		FileUtils.deleteQuietly(root);
+	}
+
+	@Test
+	public void shouldBalanceShardsByRecordedDurations() {
+		recorded.put(a, 7000L);
+		recorded.put(b, 3000L);
+		recorded.put(c, 2000L);
+		recorded.put(d, 2000L);
+
+		ShardScheduler.Schedule schedule = sut.schedule(Arrays.asList(a, b, c, d), 2, recorded);
+
+		assertThat(schedule.getShards().get(0), is(Arrays.asList(a)));
+		assertThat(schedule.getShards().get(1), is(Arrays.asList(b, c, d)));
+		assertThat(schedule.getPredictedMakespan(), is(7000L));
+		assertThat(schedule.isPredictedInMillis(), is(true));
+	}
+
+	@Test
+	public void shouldBalanceShardsByFileSizeWithoutRecordedDurations() {
+		ShardScheduler.Schedule schedule = sut.schedule(Arrays.asList(a, b, c, d), 2, recorded);
+
+		assertThat(schedule.getShards().get(0), is(Arrays.asList(a, d)));
+		assertThat(schedule.getShards().get(1), is(Arrays.asList(b, c)));
+		assertThat(schedule.getPredictedMakespan(), is(50L));
+		assertThat(schedule.isPredictedInMillis(), is(false));
+	}
+
+	@Test
+	public void shouldEstimateUnrecordedFilesFromTheirSize() {
+		recorded.put(a, 1000L);
+
+		ShardScheduler.Schedule schedule = sut.schedule(Arrays.asList(a, d), 2, recorded);
+
+		assertThat(schedule.getPredictedCosts()[0], is(4000L));
+		assertThat(schedule.getPredictedCosts()[1], is(1000L));
+	}
+
+	@Test
+	public void shouldNotCreateEmptyShards() {
+		assertThat(sut.schedule(Arrays.asList(a, b), 8, recorded).getShards().size(), is(2));
+		assertThat(sut.schedule(Arrays.asList(spec("e.js", 0), spec("f.js", 0)), 2, recorded).getShards().get(1).size(), is(1));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void shouldRejectZeroShards() {
+		sut.schedule(Arrays.asList(a), 0, recorded);
+	}
+
+	private File spec(String name, int bytes) {
+		File spec = new File(root, name);
+		try {
+			FileUtils.writeStringToFile(spec, StringUtils.repeat(" ", bytes));
+		} catch (IOException e) {
+			throw new RuntimeException(e);
+		}
+		return spec;
+	}
+
+}
@@ -0,0 +1,86 @@
+package searls.jasmine.runner;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+public class ShardSelectorTest {
+
+	private List<File> specFiles = new ArrayList<File>();
+	private List<String> keys = new ArrayList<String>();
+
+	@Test
+	public void shouldPickEveryFileExactlyOnceAcrossShards() {
+		addSpecs(50);
+
+		Set<File> picked = new HashSet<File>();
+		int total = 0;
+		for (int i = 0; i < 3; i++) {
+			List<File> shard = new ShardSelector(i, 3, ShardSelector.HASH).select(specFiles, keys);
+			assertThat(shard.isEmpty(), is(false));
+			picked.addAll(shard);
+			total += shard.size();
+		}
+
+		assertThat(total, is(50));
+		assertThat(picked.size(), is(50));
+	}
+
+	@Test
+	public void shouldNotMoveFilesWhenAnotherFileIsAdded() {
+		addSpecs(20);
+		List<File> before = new ShardSelector(1, 4, ShardSelector.HASH).select(specFiles, keys);
+
+		addSpecs(21);
+		List<File> after = new ShardSelector(1, 4, ShardSelector.HASH).select(specFiles, keys);
+
+		assertThat(after.containsAll(before), is(true));
+	}
+
+	@Test
+	public void shouldBalanceByRecordedDurations() {
+		addSpecs(3);
+		Map<String, Long> recorded = new HashMap<String, Long>();
+		recorded.put("specs/Spec0.js", 9000L);
+		recorded.put("specs/Spec1.js", 100L);
+		recorded.put("specs/Spec2.js", 100L);
+		ShardSelector sut = new ShardSelector(1, 2, ShardSelector.DURATION);
+		sut.setRecordedMillis(recorded);
+
+		assertThat(sut.select(specFiles, keys), is(specFiles.subList(1, 3)));
+	}
+
+	@Test
+	public void shouldPickNothingWhenThereAreMoreShardsThanFiles() {
+		addSpecs(1);
+
+		assertThat(new ShardSelector(1, 2, ShardSelector.DURATION).select(specFiles, keys).isEmpty(), is(true));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void shouldRejectIndexOutsideShardCount() {
+		new ShardSelector(2, 2, ShardSelector.HASH);
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void shouldRejectUnknownStrategy() {
+		new ShardSelector(0, 2, "random");
+	}
+
+	private void addSpecs(int count) {
+		for (int i = specFiles.size(); i < count; i++) {
+			specFiles.add(new File("/project/specs/Spec"+i+".js"));
+			keys.add("specs/Spec"+i+".js");
+		}
+	}
+
+}
@@ -0,0 +1,41 @@
+package searls.jasmine.runner;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class SpecFilePartitionerTest {
+
+	private SpecFilePartitioner sut = new SpecFilePartitioner();
+
+	private File a = new File("a.js");
+	private File b = new File("b.js");
+	private File c = new File("c.js");
+
+	@Test
+	public void shouldDealFilesRoundRobin() {
+		List<List<File>> shards = sut.partition(Arrays.asList(a, b, c), 2);
+
+		assertThat(shards.size(), is(2));
+		assertThat(shards.get(0), is(Arrays.asList(a, c)));
+		assertThat(shards.get(1), is(Arrays.asList(b)));
+	}
+
+	@Test
+	public void shouldNotCreateEmptyShards() {
+		List<List<File>> shards = sut.partition(Arrays.asList(a, b), 8);
+
+		assertThat(shards.size(), is(2));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void shouldRejectZeroShards() {
+		sut.partition(Arrays.asList(a), 0);
+	}
+
+}
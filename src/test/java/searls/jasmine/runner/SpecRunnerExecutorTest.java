@@ -2,44 +2,38 @@ package searls.jasmine.runner;
 
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
-import static org.mockito.Matchers.*;
-import static org.mockito.Mockito.*;
 
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.net.URL;
 
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
-import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.runners.MockitoJUnitRunner;
 
-import searls.jasmine.io.FileUtilsWrapper;
-import searls.jasmine.io.IOUtilsWrapper;
 import searls.jasmine.model.JasmineResult;
+import searls.jasmine.model.SpecStatus;
 
-@RunWith(MockitoJUnitRunner.class)
 public class SpecRunnerExecutorTest {
 
-	private static final String BUILD_CONCLUSION_JS_CONTENTS = "'kaka';";
-	private static final String BUILD_REPORT_JS_CONTENTS = "'pants';";
-	private static final String JUNIT_RESULTS = "var junitXmlReporter = { report: function(reporter) { return '<xml/>'; }};";
 	private static final String BROWSER_VERSION = "INTERNET_EXPLORER_8";
 	
-	@InjectMocks private SpecRunnerExecutor sut = new SpecRunnerExecutor();
-	@Mock private IOUtilsWrapper ioUtilsWrapper;
-	@Mock private FileUtilsWrapper fileUtilsWrapper;
-	
-	@Mock private File file;
+	private SpecRunnerExecutor sut = new SpecRunnerExecutor();
+	private File file;
 	
 	private URL resource = getClass().getResource("/example_nested_specrunner.html");
+	private URL failFastResource = getClass().getResource("/example_fail_fast_specrunner.html");
+	private URL synchronousResource = getClass().getResource("/example_synchronous_specrunner.html");
 	
 	@Before
-	public void stubResourceStreams() throws IOException {
-		when(ioUtilsWrapper.toString(isA(InputStream.class))).thenReturn(BUILD_CONCLUSION_JS_CONTENTS,BUILD_REPORT_JS_CONTENTS,JUNIT_RESULTS);
+	public void createReportFile() throws IOException {
+		file = File.createTempFile("TEST-jasmine", ".xml");
+	}
+	
+	@After
+	public void deleteReportFile() {
+		file.delete();
 	}
 	
 	@Test
@@ -47,17 +41,150 @@ public class SpecRunnerExecutorTest {
 		JasmineResult result = sut.execute(resource, file, BROWSER_VERSION);
 		
 		assertThat(result,is(not(nullValue())));
-		assertThat(result.getDescription(),containsString("kaka"));
-		assertThat(result.getDetails(),containsString("pants"));
+		assertThat(result.getDescription(),is("5 specs, 4 failures"));
+		assertThat(result.getFailureCount(),is(4));
+		assertThat(result.getSpecs().size(),is(5));
+		assertThat(result.getSpecs().count(SpecStatus.PASSED),is(1));
 		assertThat(result.didPass(),is(false));
 	}
 	
+	@Test
+	public void shouldBuildNestedReportOfSpecs() throws Exception {
+		JasmineResult result = sut.execute(resource, file, BROWSER_VERSION);
+		
+		assertThat(result.getDetails(),containsString("\ndescribe FailSpec \n  it should fail <<< FAILURE!\n     * Expected true to be false. "));
+		assertThat(result.getDetails(),containsString("\n  describe NestedFail \n    it should fail deeply <<< FAILURE!"));
+		assertThat(result.getDetails(),containsString("\n  it should say hello "));
+	}
+	
 	@Test
 	public void shouldExportJUnitResults() throws Exception {
 		sut.execute(resource, file, BROWSER_VERSION);
 		
-		verify(fileUtilsWrapper).writeStringToFile(file, "<xml/>", "UTF-8");
+		String xml = FileUtils.readFileToString(file, "UTF-8");
+		assertThat(xml,containsString("tests=\"5\" failures=\"4\" skipped=\"0\""));
+		assertThat(xml,containsString("<testcase classname=\"jasmine\" name=\"HelloWorld should say hello\" time=\""));
+		assertThat(xml,containsString("name=\"FailSpec NestedFail should fail deeply\""));
+		assertThat(xml,containsString("<error type=\"expect.toBe\" message=\"Expected true to be false.\">"));
+	}
+	
+	@Test
+	public void shouldRecordSpecAndSuiteTimings() throws Exception {
+		JasmineResult result = sut.execute(getClass().getResource("/example_timed_specrunner.html"), file, BROWSER_VERSION);
+		
+		assertThat(result.getSpecTimings().getSpecs().size(),is(3));
+		assertThat(result.getSpecTimings().getSpecs().get(0).getFullName(),is("FailFast should fail after the runner has loaded"));
+		assertThat(result.getSpecTimings().getSpecs().get(0).getDurationMillis() >= 500,is(true));
+		assertThat(result.getSpecTimings().getSuites().get(0).getFullName(),is("FailFast"));
+		assertThat(result.getSpecTimings().getFiles().get(0).getFullName(),is("FailFastSpec.js"));
+	}
+	
+	@Test
+	public void shouldRunEverySpecWithoutFailFast() throws Exception {
+		JasmineResult result = sut.execute(failFastResource, file, BROWSER_VERSION);
+		
+		assertThat(result.getDescription(),is("3 specs, 2 failures"));
+	}
+	
+	@Test
+	public void shouldSkipTheRemainingSpecsAfterFailFastFailures() throws Exception {
+		sut.setFailFastAfter(1);
+		
+		JasmineResult result = sut.execute(failFastResource, file, BROWSER_VERSION);
+		
+		assertThat(result.getDescription(),is("1 specs, 1 failures, 2 skipped"));
+		assertThat(result.getSpecs().count(SpecStatus.SKIPPED),is(2));
+		assertThat(FileUtils.readFileToString(file, "UTF-8"),containsString("tests=\"1\" failures=\"1\" skipped=\"2\""));
+	}
+	
+	@Test
+	public void shouldKeepRunningUntilFailFastThresholdIsReached() throws Exception {
+		sut.setFailFastAfter(2);
+		
+		JasmineResult result = sut.execute(failFastResource, file, BROWSER_VERSION);
+		
+		assertThat(result.getDescription(),is("3 specs, 2 failures"));
+	}
+	
+	@Test
+	public void shouldRunSynchronousSpecsWithoutYielding() throws Exception {
+		JasmineResult result = sut.execute(synchronousResource, file, BROWSER_VERSION);
+		
+		assertThat(result.getDescription(),is("4 specs, 2 failures"));
+	}
+	
+	@Test
+	public void shouldFailFastOnSynchronousRunners() throws Exception {
+		sut.setFailFastAfter(1);
+		
+		JasmineResult result = sut.execute(synchronousResource, file, BROWSER_VERSION);
+		
+		assertThat(result.getDescription(),is("3 specs, 1 failures, 1 skipped"));
+	}
+	
+	@Test
+	public void shouldAbortWithFileAndLineWhenRunnerFailsToLoad() throws Exception {
+		String message = abortMessage("/example_syntax_error_specrunner.html");
+		
+		assertThat(message,containsString("The spec runner failed to load"));
+		assertThat(message,containsString("example_syntax_error_specrunner.html"));
+		assertThat(message,containsString("(line 2)"));
+	}
+	
+	@Test
+	public void shouldAbortWhenJasmineNeverLoads() throws Exception {
+		assertThat(abortMessage("/example_no_jasmine_specrunner.html"),containsString("Jasmine or its reporter never loaded"));
+	}
+	
+	@Test
+	public void shouldAbortSoonWhenJasmineNeverStarts() throws Exception {
+		long start = System.currentTimeMillis();
+		
+		String message = abortMessage("/example_never_started_specrunner.html");
+		
+		assertThat(message,containsString("Jasmine never started running the specs"));
+		assertThat(System.currentTimeMillis() - start < 30000,is(true));
+	}
+	
+	@Test
+	public void shouldLeaveRunningSpecsToTheTimeoutAfterBackgroundScriptError() throws Exception {
+		sut.setTimeout(3000);
+		sut.setStallTimeout(1000);
+		String message = null;
+		
+		try {
+			sut.execute(getClass().getResource("/example_background_error_specrunner.html"), file, BROWSER_VERSION);
+		} catch (RuntimeException e) {
+			message = e.getCause().getMessage();
+		}
+		
+		assertThat(message,containsString("over the course of 3 seconds"));
+		assertThat(message,containsString("after 1 script error(s)"));
+		assertThat(message,containsString("undefinedFunction"));
+		assertThat(message,containsString("example_background_error_specrunner.html"));
+		assertThat(message,containsString("(line 4)"));
+	}
+	
+	private String abortMessage(String runner) throws Exception {
+		sut.setTimeout(60000);
+		sut.setStallTimeout(1000);
+		try {
+			sut.execute(getClass().getResource(runner), file, BROWSER_VERSION);
+		} catch (RuntimeException e) {
+			return e.getCause().getMessage();
+		}
+		throw new AssertionError("Expected execution of "+runner+" to abort");
+	}
+	
+	@Test
+	public void shouldSkipWaitingOnVirtualClock() throws Exception {
+		sut.setVirtualClock(true);
+		long start = System.currentTimeMillis();
+		
+		JasmineResult result = sut.execute(getClass().getResource("/example_waits_specrunner.html"), file, BROWSER_VERSION);
+		
+		assertThat(result.getDescription(),is("1 specs, 0 failures"));
+		assertThat(System.currentTimeMillis() - start < 2500,is(true));
 	}
-
 	
 }
@@ -120,7 +120,8 @@ public class SpecRunnerHtmlGeneratorIntegrationTest {
 	@SuppressWarnings("unchecked")
 	public void shouldNotReadDefaultTemplateWhenOneIsProvided() throws IOException {
 		File expected = mock(File.class);
-		
+		when(fileUtilsWrapper.readFileToString(expected)).thenReturn("<html></html>");
+
 		specRunnerHtmlGenerator.generate(Collections.EMPTY_LIST, ReporterType.TrivialReporter, expected);
 
 		verify(ioUtilsWrapper,never()).toString(isA(InputStream.class));
@@ -130,12 +131,22 @@ public class SpecRunnerHtmlGeneratorIntegrationTest {
 	@SuppressWarnings("unchecked")
 	public void shouldReadCustomTemplateWhenOneIsProvided() throws IOException {
 		File expected = mock(File.class);
-		
+		when(fileUtilsWrapper.readFileToString(expected)).thenReturn("<html></html>");
+
 		specRunnerHtmlGenerator.generate(Collections.EMPTY_LIST, ReporterType.TrivialReporter, expected);
 
 		verify(fileUtilsWrapper).readFileToString(expected);
 	}
 	
+	@Test(expected=RuntimeException.class)
+	@SuppressWarnings("unchecked")
+	public void shouldFailWhenTheCustomTemplateCannotBeRead() throws IOException {
+		File unreadable = mock(File.class);
+		when(fileUtilsWrapper.readFileToString(unreadable)).thenReturn(null);
+
+		specRunnerHtmlGenerator.generate(Collections.EMPTY_LIST, ReporterType.TrivialReporter, unreadable);
+	}
+
 	@Test 
 	public void handsIncludeAndExcludeToFileUtils() throws IOException {
 		List<Artifact> deps = new ArrayList<Artifact>();
@@ -144,6 +155,94 @@ public class SpecRunnerHtmlGeneratorIntegrationTest {
 		verify(fileUtilsWrapper).listFiles(destDir, includes, excludes);
 	}
 	
+	@Test
+	public void shouldOnlyIncludeGivenSpecFilesWhenProvided() throws IOException {
+		File spec = new File("/specs/OnlySpec.js");
+
+		String html = specRunnerHtmlGenerator.generate(deps, ReporterType.JsApiReporter, null, Arrays.asList(spec));
+
+		assertThat(html, containsString(spec.toURI().toURL().toString()));
+		verify(fileUtilsWrapper,never()).listFiles(destDir, includes, excludes);
+	}
+
+	@Test
+	public void shouldWriteScriptTagsForEveryGeneratedRunner() throws IOException {
+		File spec = new File("/specs/OnlySpec.js");
+
+		specRunnerHtmlGenerator.generate(deps, ReporterType.JsApiReporter, null, Arrays.asList(spec));
+		String html = specRunnerHtmlGenerator.generate(deps, ReporterType.JsApiReporter, null, Arrays.asList(spec));
+
+		assertThat(html, containsString(spec.toURI().toURL().toString()));
+	}
+
+	@Test
+	public void shouldIncludeTimingReporterForJsApiReporter() throws IOException {
+		String html = specRunnerHtmlGenerator.generate(deps, ReporterType.JsApiReporter, null);
+
+		assertThat(html, containsString("var jasmineMavenPluginTimings"));
+	}
+
+	@Test
+	public void shouldNotIncludeTimingReporterForTrivialReporter() throws IOException {
+		String html = specRunnerHtmlGenerator.generate(deps, ReporterType.TrivialReporter, null);
+
+		assertThat(html, not(containsString("var jasmineMavenPluginTimings")));
+	}
+
+	@Test
+	public void shouldIncludeSynchronousRunnerWhenSynchronous() throws IOException {
+		specRunnerHtmlGenerator.setSynchronous(true);
+
+		String html = specRunnerHtmlGenerator.generate(deps, ReporterType.JsApiReporter, null);
+
+		assertThat(html, containsString("var jasmineMavenPluginSynchronousRunner"));
+	}
+
+	@Test
+	public void shouldNotIncludeSynchronousRunnerByDefault() throws IOException {
+		String html = specRunnerHtmlGenerator.generate(deps, ReporterType.JsApiReporter, null);
+
+		assertThat(html, not(containsString("var jasmineMavenPluginSynchronousRunner")));
+	}
+
+	@Test
+	public void shouldMarkEachSpecFileWhenTrackingSpecFiles() throws IOException {
+		when(destDir.getAbsolutePath()).thenReturn(new File("/specs").getAbsolutePath());
+		File spec = new File("/specs/cart/CartSpec.js");
+		specRunnerHtmlGenerator.setTrackSpecFiles(true);
+
+		String html = specRunnerHtmlGenerator.generate(deps, ReporterType.JsApiReporter, null, Arrays.asList(spec));
+
+		assertThat(html, containsString("jasmineMavenPluginSpecFile = \"cart/CartSpec.js\";"));
+	}
+
+	@Test
+	public void shouldNotMarkSpecFilesByDefault() throws IOException {
+		String html = specRunnerHtmlGenerator.generate(deps, ReporterType.JsApiReporter, null, Arrays.asList(new File("/specs/OnlySpec.js")));
+
+		assertThat(html, not(containsString("jasmineMavenPluginSpecFile = ")));
+	}
+
+	@Test
+	public void shouldOnlyIncludeTheShardsSpecFilesWhenSharded() throws IOException {
+		File first = new File("/specs/FirstSpec.js");
+		File second = new File("/specs/SecondSpec.js");
+		when(destDir.getAbsolutePath()).thenReturn(new File("/specs").getAbsolutePath());
+		when(fileUtilsWrapper.listFiles(destDir, includes, excludes)).thenReturn(Arrays.asList(first, second));
+		Map<String, Long> recorded = new HashMap<String, Long>();
+		recorded.put("FirstSpec.js", 100L);
+		recorded.put("SecondSpec.js", 900L);
+		ShardSelector shardSelector = new ShardSelector(0, 2, ShardSelector.DURATION);
+		shardSelector.setRecordedMillis(recorded);
+		specRunnerHtmlGenerator.setShardSelector(shardSelector);
+
+		String html = specRunnerHtmlGenerator.generate(deps, ReporterType.JsApiReporter, null);
+
+		assertThat(specRunnerHtmlGenerator.listSpecFiles(), is(Arrays.asList(second)));
+		assertThat(html, containsString(second.toURI().toURL().toString()));
+		assertThat(html, not(containsString(first.toURI().toURL().toString())));
+	}
+
 	private Artifact mockDependency(String groupId, String artifactId, String version, String type, String fileContents) throws Exception {
 		Artifact dep = mock(Artifact.class);
 		when(dep.getGroupId()).thenReturn(groupId);
@@ -0,0 +1,113 @@
+package searls.jasmine.runner;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.gargoylesoftware.htmlunit.javascript.background.JavaScriptJob;
+
+public class VirtualClockJobManagerTest {
+
+	private VirtualClockJobManager sut = new VirtualClockJobManager();
+
+	private List<String> ran = new ArrayList<String>();
+
+	@Test
+	public void shouldRunJobsInOrderOfDueTimeThenScheduling() {
+		sut.addJob(new RecordingJob("late", 300, null), null);
+		sut.addJob(new RecordingJob("early", 100, null), null);
+		sut.addJob(new RecordingJob("early too", 100, null), null);
+
+		runAll(10);
+
+		assertThat(ran, is(Arrays.asList("early", "early too", "late")));
+		assertThat(sut.getVirtualTime(), is(300L));
+	}
+
+	@Test
+	public void shouldTellHtmlUnitEveryJobIsDueNow() {
+		JavaScriptJob job = new RecordingJob("job", 60000, null);
+
+		sut.addJob(job, null);
+
+		assertThat(job.getTargetExecutionTime(), is(0L));
+	}
+
+	@Test
+	public void shouldScheduleJobsRelativeToVirtualTime() {
+		sut.addJob(new RecordingJob("first", 1000, null) {
+			public void run() {
+				super.run();
+				sut.addJob(new RecordingJob("after first", 500, null), null);
+			}
+		}, null);
+		sut.addJob(new RecordingJob("second", 1200, null), null);
+
+		runAll(10);
+
+		assertThat(ran, is(Arrays.asList("first", "second", "after first")));
+	}
+
+	@Test
+	public void shouldRescheduleIntervalsUntilStopped() {
+		final int[] id = new int[1];
+		id[0] = sut.addJob(new RecordingJob("tick", 100, 100) {
+			public void run() {
+				super.run();
+				if(ran.size() == 3) {
+					sut.stopJob(id[0]);
+				}
+			}
+		}, null);
+
+		runAll(10);
+
+		assertThat(ran.size(), is(3));
+		assertThat(sut.getJobCount(), is(0));
+	}
+
+	@Test
+	public void shouldOnlyRunTheEarliestJob() {
+		JavaScriptJob late = new RecordingJob("late", 300, null);
+		sut.addJob(late, null);
+		sut.addJob(new RecordingJob("early", 100, null), null);
+
+		assertThat(sut.runSingleJob(late), is(false));
+		assertThat(ran.isEmpty(), is(true));
+	}
+
+	@Test
+	public void shouldDropJobsAfterShutdown() {
+		sut.addJob(new RecordingJob("job", 100, null), null);
+
+		sut.shutdown();
+
+		assertThat(sut.getJobCount(), is(0));
+		assertThat(sut.addJob(new RecordingJob("too late", 100, null), null), is(0));
+	}
+
+	private void runAll(int maxJobs) {
+		for (int i = 0; i < maxJobs && sut.getEarliestJob() != null; i++) {
+			sut.runSingleJob(sut.getEarliestJob());
+		}
+	}
+
+	private class RecordingJob extends JavaScriptJob {
+		private final String name;
+
+		RecordingJob(String name, int initialDelay, Integer period) {
+			super(initialDelay, period);
+			this.name = name;
+		}
+
+		public void run() {
+			ran.add(name);
+		}
+	}
+
+}
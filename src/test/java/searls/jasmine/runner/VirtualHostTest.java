@@ -0,0 +1,135 @@
+package searls.jasmine.runner;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.gargoylesoftware.htmlunit.WebConnection;
+import com.gargoylesoftware.htmlunit.WebRequest;
+import com.gargoylesoftware.htmlunit.WebResponse;
+
+public class VirtualHostTest {
+
+	private File root;
+	private File srcDir;
+	private File specDir;
+
+	@Before
+	public void createDirectories() throws IOException {
+		root = File.createTempFile("virtualHost", "");
+		root.delete();
+		srcDir = new File(root, "src");
+		specDir = new File(root, "spec");
+		FileUtils.writeStringToFile(new File(srcDir, "a.js"), "var a;");
+		FileUtils.writeStringToFile(new File(srcDir, "nested dir/b.js"), "var b;");
+		FileUtils.writeStringToFile(new File(specDir, "aSpec.js"), "describe('a');");
+	}
+
+	@After
+	public void deleteDirectories() {
+		FileUtils.deleteQuietly(root);
+	}
+
+	@Test
+	public void shouldLoadEveryFileInTheDirectories() throws IOException {
+		VirtualHost sut = VirtualHost.load(root, srcDir, specDir);
+
+		assertThat(sut.paths().size(), is(3));
+		assertThat(sut.paths(), hasItems("/src/a.js", "/src/nested dir/b.js", "/spec/aSpec.js"));
+	}
+
+	@Test
+	public void shouldServeFilesFromMemoryAfterLoading() throws IOException {
+		VirtualHost sut = VirtualHost.load(root, srcDir, specDir);
+		FileUtils.deleteQuietly(root);
+
+		assertThat(new String(sut.get(sut.urlFor(new File(srcDir, "nested dir/b.js")))), is("var b;"));
+	}
+
+	@Test
+	public void shouldAddressFilesOnTheVirtualHost() throws IOException {
+		VirtualHost sut = VirtualHost.load(root, srcDir);
+
+		assertThat(sut.urlFor(new File(srcDir, "nested dir/b.js")).toString(), is(VirtualHost.BASE_URL+"src/nested%20dir/b.js"));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void shouldRefuseFilesOutsideOfTheRoot() throws IOException {
+		VirtualHost.load(root, srcDir).urlFor(new File("/elsewhere/c.js"));
+	}
+
+	@Test
+	public void shouldReturnNewHostWithAddedContent() throws IOException {
+		VirtualHost loaded = VirtualHost.load(root, srcDir);
+		File runner = new File(root, "SpecRunner.html");
+
+		VirtualHost sut = loaded.with(runner, "<html/>".getBytes());
+
+		assertThat(new String(sut.get(sut.urlFor(runner))), is("<html/>"));
+		assertThat(loaded.get(loaded.urlFor(runner)), is(nullValue()));
+		assertThat(sut.get(sut.urlFor(new File(srcDir, "a.js"))), is(sameInstance(loaded.get(loaded.urlFor(new File(srcDir, "a.js"))))));
+	}
+
+	@Test
+	public void shouldApplySeveralChangesAtOnce() throws IOException {
+		VirtualHost loaded = VirtualHost.load(root, srcDir);
+		File runner = new File(root, "SpecRunner.html");
+		File a = new File(srcDir, "a.js");
+		Map<File, byte[]> changes = new LinkedHashMap<File, byte[]>();
+		changes.put(runner, "<html/>".getBytes());
+		changes.put(a, null);
+
+		VirtualHost sut = loaded.with(changes);
+
+		assertThat(new String(sut.get(sut.urlFor(runner))), is("<html/>"));
+		assertThat(sut.get(sut.urlFor(a)), is(nullValue()));
+		assertThat(sut.paths().size(), is(2));
+		assertThat(loaded.paths().size(), is(2));
+	}
+
+	@Test
+	public void shouldServeVirtualHostContentThroughConnection() throws IOException {
+		VirtualHost virtualHost = VirtualHost.load(root, srcDir);
+		WebConnection fallback = mock(WebConnection.class);
+		VirtualHostWebConnection sut = new VirtualHostWebConnection(fallback, virtualHost, "UTF-8");
+
+		WebResponse response = sut.getResponse(new WebRequest(virtualHost.urlFor(new File(srcDir, "a.js"))));
+
+		assertThat(response.getStatusCode(), is(200));
+		assertThat(response.getContentType(), is("text/javascript"));
+		assertThat(response.getContentAsString(), is("var a;"));
+		verifyZeroInteractions(fallback);
+	}
+
+	@Test
+	public void shouldRespondNotFoundForUnknownVirtualHostPaths() throws IOException {
+		VirtualHostWebConnection sut = new VirtualHostWebConnection(mock(WebConnection.class), VirtualHost.load(root, srcDir), "UTF-8");
+
+		WebResponse response = sut.getResponse(new WebRequest(new URL(VirtualHost.BASE_URL+"src/missing.js")));
+
+		assertThat(response.getStatusCode(), is(404));
+	}
+
+	@Test
+	public void shouldPassOtherRequestsToTheWrappedConnection() throws IOException {
+		WebConnection fallback = mock(WebConnection.class);
+		VirtualHostWebConnection sut = new VirtualHostWebConnection(fallback, VirtualHost.load(root, srcDir), "UTF-8");
+		WebRequest request = new WebRequest(new URL("http://example.com/a.js"));
+
+		sut.getResponse(request);
+
+		verify(fallback).getResponse(request);
+	}
+
+}
@@ -0,0 +1,166 @@
+package searls.jasmine.runner;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.gargoylesoftware.htmlunit.Cache;
+import com.gargoylesoftware.htmlunit.CookieManager;
+import com.gargoylesoftware.htmlunit.WebClient;
+import com.gargoylesoftware.htmlunit.javascript.JavaScriptEngine;
+
+@RunWith(MockitoJUnitRunner.class)
+public class WebClientPoolTest {
+
+	private static final String BROWSER_VERSION = "FIREFOX_3";
+
+	@InjectMocks private WebClientPool sut = new WebClientPool();
+	@Mock private WebClientFactory webClientFactory;
+
+	@Before
+	public void stubWebClients() {
+		WebClient first = mockWebClient();
+		WebClient second = mockWebClient();
+		when(webClientFactory.create(BROWSER_VERSION)).thenReturn(first, second);
+	}
+
+	@Test
+	public void shouldReuseReleasedClient() {
+		WebClient first = sut.borrow(BROWSER_VERSION);
+		sut.release(first);
+
+		WebClient second = sut.borrow(BROWSER_VERSION);
+
+		assertThat(second, is(sameInstance(first)));
+	}
+
+	@Test
+	public void shouldResetClientWhenReleased() {
+		WebClient webClient = sut.borrow(BROWSER_VERSION);
+
+		sut.release(webClient);
+
+		verify(webClient).closeAllWindows();
+		verify(webClient.getCookieManager()).clearCookies();
+	}
+
+	@Test
+	public void shouldCreateNewClientWhileOthersAreBorrowed() {
+		WebClient first = sut.borrow(BROWSER_VERSION);
+
+		WebClient second = sut.borrow(BROWSER_VERSION);
+
+		assertThat(second, is(not(sameInstance(first))));
+	}
+
+	@Test
+	public void shouldEvictClientAfterMaxUses() {
+		sut.setMaxUses(1);
+		WebClient first = sut.borrow(BROWSER_VERSION);
+		sut.release(first);
+
+		WebClient second = sut.borrow(BROWSER_VERSION);
+
+		assertThat(second, is(not(sameInstance(first))));
+		assertThat(sut.idleCount(), is(0));
+	}
+
+	@Test
+	public void shouldCloseEvictedClient() {
+		sut.setMaxUses(1);
+		WebClient webClient = sut.borrow(BROWSER_VERSION);
+
+		sut.release(webClient);
+
+		verify(webClient, times(2)).closeAllWindows();
+		verify(webClient.getJavaScriptEngine()).shutdownJavaScriptExecutor();
+	}
+
+	@Test
+	public void shouldCloseIdleClients() {
+		WebClient webClient = sut.borrow(BROWSER_VERSION);
+		sut.release(webClient);
+
+		sut.closeIdleClients();
+
+		verify(webClient.getJavaScriptEngine()).shutdownJavaScriptExecutor();
+		assertThat(sut.idleCount(), is(0));
+	}
+
+	@Test
+	public void shouldNotCloseClientsReturnedToThePool() {
+		WebClient webClient = sut.borrow(BROWSER_VERSION);
+
+		sut.release(webClient);
+
+		verify(webClient.getJavaScriptEngine(), never()).shutdownJavaScriptExecutor();
+	}
+
+	@Test
+	public void shouldCloseIdleClientsWhenANewSessionStarts() {
+		sut.startSession("first");
+		WebClient webClient = sut.borrow(BROWSER_VERSION);
+		sut.release(webClient);
+
+		sut.startSession("second");
+
+		verify(webClient.getJavaScriptEngine()).shutdownJavaScriptExecutor();
+		assertThat(sut.borrow(BROWSER_VERSION), is(not(sameInstance(webClient))));
+	}
+
+	@Test
+	public void shouldKeepClientsWithinTheSameSession() {
+		sut.startSession("first");
+		WebClient webClient = sut.borrow(BROWSER_VERSION);
+		sut.release(webClient);
+
+		sut.startSession("first");
+
+		assertThat(sut.borrow(BROWSER_VERSION), is(sameInstance(webClient)));
+	}
+
+	@Test
+	public void shouldCloseClientsOfAnEarlierSessionWhenReleased() {
+		sut.startSession("first");
+		WebClient webClient = sut.borrow(BROWSER_VERSION);
+		sut.startSession("second");
+
+		sut.release(webClient);
+
+		verify(webClient.getJavaScriptEngine()).shutdownJavaScriptExecutor();
+		assertThat(sut.idleCount(), is(0));
+	}
+
+	@Test
+	public void shouldEvictClientsWhenHeapIsAboveThreshold() {
+		sut.setMaxHeapPercent(0);
+		WebClient webClient = sut.borrow(BROWSER_VERSION);
+
+		sut.release(webClient);
+
+		assertThat(sut.idleCount(), is(0));
+	}
+
+	@Test(expected=IllegalArgumentException.class)
+	public void shouldRejectClientsItDidNotLend() {
+		sut.release(mockWebClient());
+	}
+
+	private WebClient mockWebClient() {
+		WebClient webClient = mock(WebClient.class);
+		CookieManager cookieManager = mock(CookieManager.class);
+		Cache cache = mock(Cache.class);
+		JavaScriptEngine javaScriptEngine = mock(JavaScriptEngine.class);
+		when(webClient.getCookieManager()).thenReturn(cookieManager);
+		when(webClient.getCache()).thenReturn(cache);
+		when(webClient.getJavaScriptEngine()).thenReturn(javaScriptEngine);
+		return webClient;
+	}
+}
@@ -0,0 +1,113 @@
+package searls.jasmine.scalability;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * A minimal log-log line chart, written as a standalone SVG so it can be opened in any browser or
+ * attached to a build without plotting tools.
+ */
+public class ScalabilityChart {
+
+	private static final int WIDTH = 800;
+	private static final int HEIGHT = 500;
+	private static final int MARGIN = 70;
+	private static final String[] COLORS = { "#1f77b4", "#d62728", "#2ca02c", "#ff7f0e", "#9467bd", "#8c564b" };
+
+	private final String title;
+	private final String xLabel;
+	private final String yLabel;
+	private final Map<String, List<double[]>> series = new LinkedHashMap<String, List<double[]>>();
+
+	public ScalabilityChart(String title, String xLabel, String yLabel) {
+		this.title = title;
+		this.xLabel = xLabel;
+		this.yLabel = yLabel;
+	}
+
+	public void add(String seriesName, double x, double y) {
+		List<double[]> points = series.get(seriesName);
+		if(points == null) {
+			series.put(seriesName, points = new ArrayList<double[]>());
+		}
+		points.add(new double[] { x, Math.max(y, 1) });
+	}
+
+	public void writeTo(File svgFile) throws IOException {
+		double minX = Double.MAX_VALUE, maxX = 1, minY = Double.MAX_VALUE, maxY = 1;
+		for (List<double[]> points : series.values()) {
+			for (double[] point : points) {
+				minX = Math.min(minX, point[0]);
+				maxX = Math.max(maxX, point[0]);
+				minY = Math.min(minY, point[1]);
+				maxY = Math.max(maxY, point[1]);
+			}
+		}
+		double[] xRange = decades(minX, maxX);
+		double[] yRange = decades(minY, maxY);
+
+		StringBuilder svg = new StringBuilder();
+		svg.append(format("<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"%d\" height=\"%d\" font-family=\"sans-serif\" font-size=\"12\">\n", WIDTH, HEIGHT));
+		svg.append(format("<text x=\"%d\" y=\"25\" text-anchor=\"middle\" font-size=\"16\">%s</text>\n", WIDTH / 2, escape(title)));
+		svg.append(format("<text x=\"%d\" y=\"%d\" text-anchor=\"middle\">%s</text>\n", WIDTH / 2, HEIGHT - 15, escape(xLabel)));
+		svg.append(format("<text x=\"20\" y=\"%d\" text-anchor=\"middle\" transform=\"rotate(-90 20 %d)\">%s</text>\n", HEIGHT / 2, HEIGHT / 2, escape(yLabel)));
+		for (double decade = xRange[0]; decade <= xRange[1]; decade++) {
+			double x = scale(decade, xRange, MARGIN, WIDTH - MARGIN);
+			svg.append(format("<line x1=\"%.1f\" y1=\"%d\" x2=\"%.1f\" y2=\"%d\" stroke=\"#ddd\"/>", x, MARGIN, x, HEIGHT - MARGIN));
+			svg.append(format("<text x=\"%.1f\" y=\"%d\" text-anchor=\"middle\">%s</text>\n", x, HEIGHT - MARGIN + 18, label(decade)));
+		}
+		for (double decade = yRange[0]; decade <= yRange[1]; decade++) {
+			double y = scale(decade, yRange, HEIGHT - MARGIN, MARGIN);
+			svg.append(format("<line x1=\"%d\" y1=\"%.1f\" x2=\"%d\" y2=\"%.1f\" stroke=\"#ddd\"/>", MARGIN, y, WIDTH - MARGIN, y));
+			svg.append(format("<text x=\"%d\" y=\"%.1f\" text-anchor=\"end\">%s</text>\n", MARGIN - 5, y + 4, label(decade)));
+		}
+
+		int seriesIndex = 0;
+		for (Map.Entry<String, List<double[]>> entry : series.entrySet()) {
+			String color = COLORS[seriesIndex % COLORS.length];
+			StringBuilder polyline = new StringBuilder();
+			for (double[] point : entry.getValue()) {
+				double x = scale(Math.log10(point[0]), xRange, MARGIN, WIDTH - MARGIN);
+				double y = scale(Math.log10(point[1]), yRange, HEIGHT - MARGIN, MARGIN);
+				polyline.append(format("%.1f,%.1f ", x, y));
+				svg.append(format("<circle cx=\"%.1f\" cy=\"%.1f\" r=\"3\" fill=\"%s\"/>", x, y, color));
+			}
+			svg.append(format("<polyline points=\"%s\" fill=\"none\" stroke=\"%s\" stroke-width=\"2\"/>\n", polyline.toString().trim(), color));
+			svg.append(format("<text x=\"%d\" y=\"%d\" fill=\"%s\">%s</text>\n", MARGIN + 10, MARGIN + 15 + 16 * seriesIndex, color, escape(entry.getKey())));
+			seriesIndex++;
+		}
+		svg.append("</svg>\n");
+		FileUtils.writeStringToFile(svgFile, svg.toString(), "UTF-8");
+	}
+
+	private double[] decades(double min, double max) {
+		double low = Math.floor(Math.log10(min));
+		double high = Math.ceil(Math.log10(max));
+		return new double[] { low, Math.max(high, low + 1) };
+	}
+
+	private double scale(double value, double[] range, double from, double to) {
+		return from + (value - range[0]) / (range[1] - range[0]) * (to - from);
+	}
+
+	private String label(double decade) {
+		double value = Math.pow(10, decade);
+		return value >= 1000000 ? format("%.0fM", value / 1000000) : value >= 1000 ? format("%.0fk", value / 1000) : format("%.0f", value);
+	}
+
+	private String escape(String text) {
+		return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+	}
+
+	private String format(String format, Object... args) {
+		return String.format(Locale.US, format, args);
+	}
+
+}
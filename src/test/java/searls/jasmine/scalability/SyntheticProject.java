@@ -0,0 +1,116 @@
+package searls.jasmine.scalability;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * Writes a synthetic Jasmine project (sources and specs) of a given shape, for the {@link searls.jasmine.ScalabilityHarness}.
+ *
+ * Every suite tests one source file's function. A fraction of specs are asynchronous (runs/waits) and a
+ * fraction fail; which ones is decided by a seeded random, so the same shape always produces the same project.
+ */
+public class SyntheticProject {
+
+	private static final String ENCODING = "UTF-8";
+	private static final long SEED = 42;
+
+	private int suites = 10;
+	private int specsPerSuite = 10;
+	private int sourceFiles = 10;
+	private int sourceFileBytes = 1000;
+	private double asyncSpecRate = 0.05;
+	private double failureRate = 0.01;
+
+	public SyntheticProject suites(int suites) {
+		this.suites = suites;
+		return this;
+	}
+
+	public SyntheticProject specsPerSuite(int specsPerSuite) {
+		this.specsPerSuite = specsPerSuite;
+		return this;
+	}
+
+	public SyntheticProject sourceFiles(int sourceFiles) {
+		this.sourceFiles = sourceFiles;
+		return this;
+	}
+
+	public SyntheticProject sourceFileBytes(int sourceFileBytes) {
+		this.sourceFileBytes = sourceFileBytes;
+		return this;
+	}
+
+	public SyntheticProject asyncSpecRate(double asyncSpecRate) {
+		this.asyncSpecRate = asyncSpecRate;
+		return this;
+	}
+
+	public SyntheticProject failureRate(double failureRate) {
+		this.failureRate = failureRate;
+		return this;
+	}
+
+	public int getSpecCount() {
+		return suites * specsPerSuite;
+	}
+
+	/**
+	 * Writes sources to jsSrcDir and one spec file per suite to jsTestSrcDir.
+	 */
+	public void writeTo(File jsSrcDir, File jsTestSrcDir) throws IOException {
+		for (int i = 0; i < sourceFiles; i++) {
+			FileUtils.writeStringToFile(new File(jsSrcDir, directoryFor(i)+"/Source"+i+".js"), source(i), ENCODING);
+		}
+		Random random = new Random(SEED);
+		for (int i = 0; i < suites; i++) {
+			FileUtils.writeStringToFile(new File(jsTestSrcDir, directoryFor(i)+"/Suite"+i+"Spec.js"), spec(i, random), ENCODING);
+		}
+	}
+
+	private String source(int index) {
+		StringBuilder source = new StringBuilder();
+		source.append("var Source").append(index).append(" = {\n");
+		source.append("\tvalue: function(n) {\n\t\treturn n + ").append(index).append(";\n\t}");
+		for (int filler = 0; source.length() < sourceFileBytes; filler++) {
+			source.append(",\n\tfiller").append(filler).append(": function(a, b) {\n\t\treturn (a * ").append(filler).append(") + b;\n\t}");
+		}
+		return source.append("\n};\n").toString();
+	}
+
+	private String spec(int suite, Random random) {
+		String subject = "Source"+(suite % Math.max(sourceFiles, 1));
+		int offset = suite % Math.max(sourceFiles, 1);
+		StringBuilder spec = new StringBuilder();
+		spec.append("describe('Suite ").append(suite).append("', function() {\n");
+		for (int i = 0; i < specsPerSuite; i++) {
+			int expected = random.nextDouble() < failureRate ? -1 : i + offset;
+			String expectation = "expect("+subject+".value("+i+")).toEqual("+expected+");";
+			spec.append("\tit('computes value ").append(i).append("', function() {\n");
+			if(random.nextDouble() < asyncSpecRate) {
+				spec.append("\t\tvar done = false;\n");
+				spec.append("\t\truns(function() { setTimeout(function() { done = true; }, 1); });\n");
+				spec.append("\t\twaitsFor(1000, function() { return done; }, 'the timeout');\n");
+				spec.append("\t\truns(function() { ").append(expectation).append(" });\n");
+			} else {
+				spec.append("\t\t").append(expectation).append("\n");
+			}
+			spec.append("\t});\n");
+		}
+		return spec.append("});\n").toString();
+	}
+
+	private String directoryFor(int index) {
+		return "module"+(index / 100);
+	}
+
+	@Override
+	public String toString() {
+		return suites+" suites x "+specsPerSuite+" specs, "+sourceFiles+" sources of ~"+sourceFileBytes+" bytes, "
+			+asyncSpecRate+" async, "+failureRate+" failing";
+	}
+
+}
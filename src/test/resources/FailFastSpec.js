@@ -0,0 +1,18 @@
+describe('FailFast',function(){
+	
+	it('should fail after the runner has loaded',function() {
+		waits(500);
+		runs(function() {
+			expect(true).toBe(false);
+		});
+	});
+	
+	it('should be skipped',function() {
+		expect(true).toBe(true);
+	});
+	
+	it('should fail unless skipped',function() {
+		expect(true).toBe(false);
+	});
+	
+});
@@ -0,0 +1,22 @@
+describe('Synchronous',function(){
+	var timerFired = false;
+	
+	it('should set a timer and outlast the update interval',function() {
+		setTimeout(function() { timerFired = true; }, 0);
+		var start = new Date().getTime();
+		while(new Date().getTime() - start < 300) {}
+	});
+	
+	it('should run before the timer fires',function() {
+		expect(timerFired).toBe(false);
+	});
+	
+	it('should fail',function() {
+		expect(true).toBe(false);
+	});
+	
+	it('should fail unless skipped',function() {
+		expect(true).toBe(false);
+	});
+	
+});
@@ -0,0 +1,15 @@
+describe('Waits',function(){
+	
+	it('should fire timers in order after waiting',function() {
+		var fired = [];
+		runs(function() {
+			setTimeout(function() { fired.push('second'); }, 2000);
+			setTimeout(function() { fired.push('first'); }, 1000);
+		});
+		waits(3000);
+		runs(function() {
+			expect(fired).toEqual(['first','second']);
+		});
+	});
+	
+});